@@ -0,0 +1,77 @@
+package com.meetme.benchmark;
+
+import com.meetme.entities.Calendar;
+import com.meetme.entities.Meeting;
+import com.meetme.entities.User;
+import com.meetme.service.CalendarService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-calendar paths: conflict lookup against one calendar and free slots of two calendars,
+ * for calendars of 10 to 100k meetings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalendarBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int meetings;
+
+    private CalendarService service;
+    private Calendar calendar;
+    private Calendar otherCalendar;
+    private LocalDateTime[] probes;
+    private int probe;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<User> users = SyntheticCalendars.users(2, meetings, 42);
+        service = SyntheticCalendars.service(users);
+        calendar = users.get(0).getCalendar();
+        otherCalendar = users.get(1).getCalendar();
+
+        Random random = new Random(7);
+        List<Meeting> all = calendar.getMeetings();
+        LocalDateTime first = all.get(0).getStartTime();
+        long spanMinutes = Duration.between(first, all.get(all.size() - 1).getEndTime()).toMinutes();
+        probes = new LocalDateTime[1024];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = first.plusMinutes((long) (random.nextDouble() * spanMinutes));
+        }
+        // build the interval indexes outside the measurement
+        service.getConflicts(calendar, probes[0], probes[0].plusMinutes(30));
+        service.getFreeSlots(calendar, otherCalendar, Duration.ofMinutes(30));
+    }
+
+    @Benchmark
+    public List<Meeting> getConflicts() {
+        LocalDateTime start = probes[probe++ & (probes.length - 1)];
+        return service.getConflicts(calendar, start, start.plusMinutes(30));
+    }
+
+    @Benchmark
+    public List<LocalDateTime[]> getFreeSlots() {
+        return service.getFreeSlots(calendar, otherCalendar, Duration.ofMinutes(30));
+    }
+}
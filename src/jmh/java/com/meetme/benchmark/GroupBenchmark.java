@@ -0,0 +1,59 @@
+package com.meetme.benchmark;
+
+import com.meetme.entities.Calendar;
+import com.meetme.entities.User;
+import com.meetme.service.CalendarService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Group paths: common free slots of 2 to 500 participants. Participants get
+ * 10 or 1000 meetings each; 100k-meeting calendars are covered by {@link CalendarBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupBenchmark {
+
+    @Param({"2", "50", "500"})
+    public int participants;
+
+    @Param({"10", "1000"})
+    public int meetings;
+
+    private CalendarService service;
+    private List<Calendar> calendars;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<User> users = SyntheticCalendars.users(participants, meetings, 42);
+        service = SyntheticCalendars.service(users);
+        calendars = users.stream().map(User::getCalendar).collect(Collectors.toList());
+        // build the snapshots outside the measurement
+        service.getFreeSlots(calendars, Duration.ofMinutes(30));
+    }
+
+    @Benchmark
+    public List<LocalDateTime[]> getFreeSlots() {
+        return service.getFreeSlots(calendars, Duration.ofMinutes(30));
+    }
+}
@@ -0,0 +1,96 @@
+package com.meetme.benchmark;
+
+import com.meetme.entities.Calendar;
+import com.meetme.entities.Meeting;
+import com.meetme.entities.User;
+import com.meetme.repository.UserRepository;
+import com.meetme.service.BookingLocks;
+import com.meetme.service.CalendarMetrics;
+import com.meetme.service.CalendarService;
+import com.meetme.service.CalendarSnapshotStore;
+import com.meetme.service.FanOutExecutor;
+import com.meetme.service.FreeBusyCache;
+import com.meetme.service.LogSampler;
+import com.meetme.service.ShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Synthetic, fully in-memory calendars for the benchmarks. Meetings are 30 minutes long with
+ * random gaps of up to 75 minutes, never overlap within a calendar and are centred on today's
+ * 09:00, so today's working window always holds a handful of them.
+ */
+final class SyntheticCalendars {
+
+    static final LocalDateTime NINE = LocalDate.now().atTime(LocalTime.of(9, 0));
+
+    private SyntheticCalendars() {
+    }
+
+    static User user(long id, int meetings, Random random) {
+        Calendar calendar = new Calendar();
+        calendar.setId(id);
+        LocalDateTime start = NINE.minusMinutes(meetings / 2 * 67L + random.nextInt(60));
+        for (int i = 0; i < meetings; i++) {
+            start = start.plusMinutes(random.nextInt(6) * 15L);
+            Meeting meeting = new Meeting();
+            meeting.setId(id * 1_000_000 + i);
+            meeting.setStartTime(start);
+            meeting.setEndTime(start.plusMinutes(30));
+            meeting.setCalendar(calendar);
+            calendar.getMeetings().add(meeting);
+            start = meeting.getEndTime();
+        }
+        User user = new User();
+        user.setId(id);
+        user.setCalendar(calendar);
+        return user;
+    }
+
+    static List<User> users(int count, int meetingsEach, long seed) {
+        Random random = new Random(seed);
+        List<User> users = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            users.add(user(id, meetingsEach, random));
+        }
+        return users;
+    }
+
+    /**
+     * Wires a CalendarService the way Spring would, with a user repository answering from the
+     * given users and every calendar's meetings already loaded, so no database is involved.
+     */
+    static CalendarService service(List<User> users) {
+        Map<Long, User> byId = users.stream().collect(Collectors.toMap(User::getId, Function.identity()));
+        UserRepository userRepository = (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findByIdIn")) {
+                        return ((Collection<?>) args[0]).stream().map(byId::get).collect(Collectors.toList());
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        CalendarService service = new CalendarService();
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "calendarSnapshots", new CalendarSnapshotStore(new BookingLocks(256), 50_000_000, Duration.ofHours(1)));
+        ReflectionTestUtils.setField(service, "freeBusyCache", new FreeBusyCache(10_000, Duration.ofMinutes(5)));
+        ReflectionTestUtils.setField(service, "fanOutExecutor", new FanOutExecutor(false, 8, 50));
+        ReflectionTestUtils.setField(service, "calendarMetrics", new CalendarMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(service, "logSampler", new LogSampler(0));
+        ReflectionTestUtils.setField(service, "shardRouter", new ShardRouter(1));
+        return service;
+    }
+}
@@ -0,0 +1,84 @@
+package com.meetme.config;
+
+import com.meetme.repository.StatementCounter;
+import com.meetme.service.CalendarMetrics;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Wraps every repository call in a "meetme.repository" observation, which yields a timer per
+ * repository method and a span once a tracing bridge is on the classpath, and records the number
+ * of SQL statements each HTTP request executed.
+ */
+@Configuration
+public class ObservabilityConfig implements WebMvcConfigurer {
+
+    private final CalendarMetrics calendarMetrics;
+
+    public ObservabilityConfig(CalendarMetrics calendarMetrics) {
+        this.calendarMetrics = calendarMetrics;
+    }
+
+    @Bean
+    public static BeanPostProcessor repositoryObservationPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(observe(
+                                    observationRegistry, repositoryInformation.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static MethodInterceptor observe(ObjectProvider<ObservationRegistry> observationRegistry, String repository) {
+        return invocation -> {
+            ObservationRegistry registry = observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
+            Observation observation = Observation.createNotStarted("meetme.repository", registry)
+                    .contextualName(repository + "#" + invocation.getMethod().getName())
+                    .lowCardinalityKeyValue("repository", repository)
+                    .lowCardinalityKeyValue("method", invocation.getMethod().getName())
+                    .start();
+            try (Observation.Scope scope = observation.openScope()) {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                observation.error(e);
+                throw e;
+            } finally {
+                observation.stop();
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                StatementCounter.reset();
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                calendarMetrics.databaseRoundTrips(pattern != null ? pattern.toString() : "UNKNOWN", StatementCounter.count());
+            }
+        });
+    }
+}
@@ -0,0 +1,27 @@
+package com.meetme.config;
+
+import com.meetme.service.ShardRouter;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * Hands out connections of the shard the current thread works on, see {@link ShardRouter}, and of
+ * shard 0 outside any shard task. Closing it closes the shards' pools.
+ */
+class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardRouter.currentShard();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource shard : getResolvedDataSources().values()) {
+            if (shard instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
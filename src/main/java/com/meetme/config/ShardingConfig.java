@@ -0,0 +1,113 @@
+package com.meetme.config;
+
+import com.meetme.service.ShardRouter;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sharded persistence, on with meetme.sharding.shards above 1 (see the sharded profile). Each shard
+ * is a database of its own at meetme.sharding.url with {shard} replaced by its number, pooled with
+ * the spring.datasource.hikari settings and migrated by Flyway on startup. The application sees a
+ * single data source that routes every connection to the shard {@link ShardRouter} has selected.
+ */
+@Configuration
+@ConditionalOnExpression("${meetme.sharding.shards:1} > 1")
+public class ShardingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardingConfig.class);
+
+    /** Tables the seed migrations insert into, children first. */
+    private static final List<String> SEEDED_TABLES = List.of("resource", "app_user", "calendar");
+
+    private static final List<String> IDENTITY_TABLES = List.of("calendar", "app_user", "resource", "meeting_series");
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariConfig shardPoolConfig() {
+        return new HikariConfig();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, HikariConfig shardPoolConfig,
+                                 @Value("${meetme.sharding.shards}") int shards,
+                                 @Value("${meetme.sharding.url}") String url) {
+        List<DataSource> dataSources = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            HikariConfig config = new HikariConfig();
+            shardPoolConfig.copyStateTo(config);
+            config.setJdbcUrl(url.replace("{shard}", String.valueOf(shard)));
+            config.setDriverClassName(properties.determineDriverClassName());
+            config.setUsername(properties.determineUsername());
+            config.setPassword(properties.determinePassword());
+            config.setPoolName((shardPoolConfig.getPoolName() != null ? shardPoolConfig.getPoolName() : "meetme") + "-shard-" + shard);
+            dataSources.add(new HikariDataSource(config));
+        }
+        return routingDataSource(dataSources);
+    }
+
+    /**
+     * Migrates the shards and returns the data source routing to them; shard i is the i-th.
+     */
+    static ShardRoutingDataSource routingDataSource(List<DataSource> shards) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            migrate(shard, shards.get(shard));
+            targets.put(shard, shards.get(shard));
+        }
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(shards.get(0));
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    private static void migrate(int shard, DataSource dataSource) {
+        MigrateResult result = Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+        logger.info("Shard {} migrated from schema version {} to {}", shard, result.initialSchemaVersion, result.targetSchemaVersion);
+        if (shard > 0 && result.initialSchemaVersion == null) {
+            startIdRange(shard, dataSource);
+        }
+    }
+
+    /**
+     * Moves the ID generators of a new shard to the start of its range and drops the seed users and
+     * rooms the migrations inserted, which are shard 0's.
+     */
+    private static void startIdRange(int shard, DataSource dataSource) {
+        long firstId = ShardRouter.firstId(shard);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            for (String table : SEEDED_TABLES) {
+                statement.executeUpdate("DELETE FROM " + table);
+            }
+            for (String table : IDENTITY_TABLES) {
+                statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + firstId);
+            }
+            statement.execute("ALTER SEQUENCE meeting_seq RESTART WITH " + firstId);
+            connection.commit();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not start the ID range of shard " + shard, e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.meetme.config;
+
+import com.meetme.service.FanOutExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Opt-in mode that serves requests on virtual threads instead of Tomcat's platform thread pool.
+ * Enabled with meetme.virtual-threads.enabled=true; has no effect below Java 21.
+ */
+@Configuration
+@ConditionalOnProperty(name = "meetme.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> FanOutExecutor.newVirtualThreadPerTaskExecutor().ifPresentOrElse(executor -> {
+            logger.info("Serving requests on virtual threads");
+            protocolHandler.setExecutor(executor);
+        }, () -> logger.warn("Virtual threads need Java 21, serving requests on platform threads"));
+    }
+}
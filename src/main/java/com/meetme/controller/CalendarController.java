@@ -1,23 +1,51 @@
 
 package com.meetme.controller;
 
-import com.meetme.entities.User;
 import com.meetme.exception.MeetingConflictException;
 import com.meetme.exception.UserNotFoundException;
-import com.meetme.repository.UserRepository;
+import com.meetme.service.AsyncBookingService;
+import com.meetme.service.CalendarChangeDispatcher;
 import com.meetme.service.CalendarService;
+import com.meetme.service.FreeSlotSearch;
+import com.meetme.service.SlotSearchOptions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.meetme.dto.AsyncBookingDTO;
+import com.meetme.dto.BookingResultDTO;
+import com.meetme.dto.BookingStatus;
+import com.meetme.dto.CalendarChangeDTO;
+import com.meetme.dto.ConflictDTO;
 import com.meetme.dto.MeetingRequestDTO;
+import com.meetme.dto.MeetingSeriesRequestDTO;
+import com.meetme.dto.RoomSlotDTO;
 import com.meetme.dto.TimeSlotDTO;
+import com.meetme.dto.WorkingHoursDTO;
+import com.meetme.entities.Meeting;
+import com.meetme.entities.MeetingSeries;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.DateTimeException;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/calendar")
@@ -25,24 +53,42 @@ public class CalendarController {
 
     private static final Logger logger = LoggerFactory.getLogger(CalendarController.class);
 
+    private static final int MAX_BATCH_SIZE = 5000;
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private static final int FLUSH_EVERY = 256;
+
+    private static final Duration MAX_BOOKING_WAIT = Duration.ofSeconds(30);
+
     @Autowired
     private CalendarService calendarService;
 
     @Autowired
-    private UserRepository userRepository;
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AsyncBookingService asyncBookingService;
+
+    @Autowired
+    private CalendarChangeDispatcher changeDispatcher;
 
     @PostMapping("/book")
     public ResponseEntity<String> bookMeeting(@RequestBody MeetingRequestDTO meetingRequest) {
-        logger.info("Received request to book meeting: {}", meetingRequest);
+        logger.debug("Received request to book meeting for owner {}", meetingRequest.getOwnerId());
     try {
         calendarService.bookMeeting(meetingRequest.getOwnerId(), meetingRequest.getStartTime(),meetingRequest.getDuration(),meetingRequest.getParticipantIds());
-        logger.info("Meeting booked successfully.");
+        logger.debug("Meeting booked successfully.");
         return ResponseEntity.ok("Meeting booked successfully.");
     }
     catch (MeetingConflictException e) {
-        logger.warn("Meeting conflict: {}", e.getMessage());
+        logger.debug("Meeting conflict: {}", e.getMessage());
         return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
     }
+    catch (IllegalArgumentException e) {
+        logger.debug("Invalid booking: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
     catch (Exception e){
         logger.error("Error booking meeting", e);
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error booking meeting.");
@@ -50,42 +96,434 @@ public class CalendarController {
      }
     }
 
+    @PostMapping("/book/batch")
+    public ResponseEntity<List<BookingResultDTO>> bookMeetings(@RequestBody List<MeetingRequestDTO> meetingRequests) {
+        logger.debug("Received request to book a batch of {} meetings", meetingRequests.size());
+        if (meetingRequests.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(null);
+        }
+        List<BookingResultDTO> results = calendarService.bookMeetings(meetingRequests);
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Accepts a booking for asynchronous writing. Answers 202 while it is queued and the outcome
+     * once known; a retry with the same Idempotency-Key gets the same answer.
+     */
+    @PostMapping("/bookings")
+    public ResponseEntity<AsyncBookingDTO> submitBooking(@RequestHeader("Idempotency-Key") String idempotencyKey,
+                                                         @RequestBody MeetingRequestDTO meetingRequest) {
+        logger.debug("Received asynchronous booking {} for owner {}", idempotencyKey, meetingRequest.getOwnerId());
+        try {
+            AsyncBookingDTO booking = asyncBookingService.submit(idempotencyKey, meetingRequest);
+            return ResponseEntity.status(asyncStatus(booking.getStatus())).body(booking);
+        } catch (IllegalArgumentException e) {
+            logger.debug("Invalid idempotency key: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new AsyncBookingDTO(idempotencyKey, BookingStatus.INVALID, null, e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Asynchronous booking {} refused: {}", idempotencyKey, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(null);
+        }
+    }
+
+    /**
+     * Returns the state of an asynchronous booking, waiting up to wait (at most 30 seconds) for it
+     * to leave PENDING.
+     */
+    @GetMapping("/bookings/{idempotencyKey}")
+    public ResponseEntity<AsyncBookingDTO> getBooking(@PathVariable String idempotencyKey,
+                                                      @RequestParam(required = false) String wait) throws InterruptedException {
+        Duration timeout = Duration.ZERO;
+        try {
+            if (wait != null) {
+                timeout = Duration.parse(wait);
+            }
+        } catch (DateTimeException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        if (timeout.isNegative() || timeout.compareTo(MAX_BOOKING_WAIT) > 0) {
+            timeout = timeout.isNegative() ? Duration.ZERO : MAX_BOOKING_WAIT;
+        }
+        return asyncBookingService.status(idempotencyKey, timeout)
+                .map(booking -> ResponseEntity.status(asyncStatus(booking.getStatus())).body(booking))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(null));
+    }
+
+    private static HttpStatus asyncStatus(BookingStatus status) {
+        switch (status) {
+            case PENDING:
+                return HttpStatus.ACCEPTED;
+            case CONFLICT:
+                return HttpStatus.CONFLICT;
+            case USER_NOT_FOUND:
+                return HttpStatus.NOT_FOUND;
+            case INVALID:
+                return HttpStatus.BAD_REQUEST;
+            case FAILED:
+                return HttpStatus.INTERNAL_SERVER_ERROR;
+            default:
+                return HttpStatus.OK;
+        }
+    }
+
+    /**
+     * Books a room or piece of equipment for the owner and participants of the request.
+     */
+    @PostMapping("/resources/{resourceId}/book")
+    public ResponseEntity<String> bookResource(@PathVariable Long resourceId, @RequestBody MeetingRequestDTO meetingRequest) {
+        logger.debug("Received request to book resource {} for owner {}", resourceId, meetingRequest.getOwnerId());
+        try {
+            List<Long> participantIds = meetingRequest.getParticipantIds() != null ? meetingRequest.getParticipantIds() : List.of();
+            Meeting meeting = calendarService.bookResource(resourceId, meetingRequest.getOwnerId(), meetingRequest.getStartTime(),
+                    meetingRequest.getDuration(), participantIds);
+            return ResponseEntity.ok("Resource booked successfully as meeting " + meeting.getId() + ".");
+        } catch (MeetingConflictException e) {
+            logger.debug("Resource conflict: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            logger.debug("Invalid resource booking: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/meetings/{meetingId}")
+    public ResponseEntity<String> cancelMeeting(@PathVariable Long meetingId) {
+        logger.debug("Received request to cancel meeting: {}", meetingId);
+        calendarService.cancelMeeting(meetingId);
+        return ResponseEntity.ok("Meeting cancelled successfully.");
+    }
+
+    @PostMapping("/series")
+    public ResponseEntity<String> bookSeries(@RequestBody MeetingSeriesRequestDTO seriesRequest) {
+        logger.debug("Received request to book meeting series for owner {}", seriesRequest.getOwnerId());
+        try {
+            List<Long> participantIds = seriesRequest.getParticipantIds() != null ? seriesRequest.getParticipantIds() : List.of();
+            MeetingSeries series = calendarService.bookSeries(seriesRequest.getOwnerId(), seriesRequest.getStartTime(),
+                    seriesRequest.getDuration(), seriesRequest.getRecurrenceRule(), participantIds);
+            return ResponseEntity.ok("Meeting series " + series.getId() + " booked successfully.");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/series/{seriesId}")
+    public ResponseEntity<String> cancelSeries(@PathVariable Long seriesId) {
+        logger.debug("Received request to cancel meeting series: {}", seriesId);
+        calendarService.cancelSeries(seriesId);
+        return ResponseEntity.ok("Meeting series cancelled successfully.");
+    }
+
+    @PostMapping("/series/{seriesId}/exceptions")
+    public ResponseEntity<String> skipOccurrence(@PathVariable Long seriesId,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime occurrenceStart) {
+        logger.debug("Received request to skip occurrence {} of meeting series: {}", occurrenceStart, seriesId);
+        try {
+            calendarService.skipOccurrence(seriesId, occurrenceStart);
+            return ResponseEntity.ok("Occurrence skipped successfully.");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PostMapping("/conflicts")
-    public ResponseEntity<List<User>> checkConflicts(@RequestBody MeetingRequestDTO meetingRequest) {
-        logger.info("Received request to check conflicts for meeting with participant IDs: {}", meetingRequest.getParticipantIds());
+    public ResponseEntity<List<ConflictDTO>> checkConflicts(@RequestBody MeetingRequestDTO meetingRequest) {
+        logger.debug("Received request to check conflicts for {} participants", sizeOf(meetingRequest.getParticipantIds()));
         try {
-            List<User> conflictingUsers= calendarService.checkConflicts(meetingRequest.getParticipantIds(), meetingRequest.getStartTime(), meetingRequest.getDuration());
-            logger.info("Conflicts found: {} users have conflicting schedules", conflictingUsers.size());
+            List<ConflictDTO> conflictingUsers = calendarService.findConflicts(meetingRequest.getParticipantIds(), meetingRequest.getStartTime(), meetingRequest.getDuration());
+            logger.debug("Conflicts found: {} users have conflicting schedules", conflictingUsers.size());
 
             return ResponseEntity.ok(conflictingUsers);
+        } catch (UserNotFoundException e) {
+            logger.warn("User not found: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         } catch (Exception e) {
-            logger.error("Error checking conflicts for meeting request with participant IDs: {}", meetingRequest.getParticipantIds(), e);
+            logger.error("Error checking conflicts for {} participants", sizeOf(meetingRequest.getParticipantIds()), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
 
 
-   @GetMapping("/availability")
-    public ResponseEntity<List<LocalDateTime[]>> getAvailableSlots(@RequestParam Long userId1, @RequestParam Long userId2, @RequestParam String duration) {
-        logger.info("Received request to check available slots for user IDs: {} and {} with duration: {}", userId1,userId2,duration);
+    @GetMapping("/availability")
+    public ResponseEntity<List<LocalDateTime[]>> getAvailableSlots(@RequestParam(required = false) List<Long> userIds,
+                                                                   @RequestParam(required = false) Long userId1,
+                                                                   @RequestParam(required = false) Long userId2,
+                                                                   @RequestParam String duration) {
+        List<Long> ids = collectIds(userIds, userId1, userId2);
+        logger.debug("Received request to check available slots for {} users with duration: {}", ids.size(), duration);
+        if (ids.isEmpty()) {
+            return ResponseEntity.badRequest().body(null);
+        }
         try {
-            User user1 = userRepository.findById(userId1)
-                    .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId1));
-
-            User user2 = userRepository.findById(userId2)
-                    .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId2));
-
             Duration dur = Duration.parse(duration);
 
-            List<LocalDateTime[]> availableSlots = calendarService.getFreeSlots(user1.getCalendar(),user2.getCalendar(), dur);
-            logger.info("Available slots found for user ID {} and {}: {}", userId1,user2, availableSlots.size());
+            List<LocalDateTime[]> availableSlots = calendarService.getFreeSlotsForUsers(ids, dur);
+            logger.debug("Available slots found for {} users: {}", ids.size(), availableSlots.size());
             return ResponseEntity.ok(availableSlots);
         } catch (UserNotFoundException e) {
             logger.warn("User not found with ID: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         } catch (Exception e) {
-            logger.error("Error retrieving available slots for user IDs: {} and {}", userId1,userId2, e);
+            logger.error("Error retrieving available slots for {} users", ids.size(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
+
+    @GetMapping("/availability/range")
+    public ResponseEntity<List<LocalDateTime[]>> getAvailableSlotsInRange(@RequestParam List<Long> userIds,
+                                                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                                                          @RequestParam(required = false) String timeZone,
+                                                                          @RequestParam String duration) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Received request to check available slots for {} users from {} to {} with duration: {}", userIds.size(), startDate, endDate, duration);
+        }
+        try {
+            ZoneId zone = timeZone != null ? ZoneId.of(timeZone) : ZoneId.systemDefault();
+            List<LocalDateTime[]> availableSlots = calendarService.getFreeSlots(userIds, startDate, endDate, zone, Duration.parse(duration));
+            logger.debug("Available slots found for {} users: {}", userIds.size(), availableSlots.size());
+            return ResponseEntity.ok(availableSlots);
+        } catch (UserNotFoundException e) {
+            logger.warn("User not found with ID: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            logger.warn("Invalid availability request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(null);
+        } catch (Exception e) {
+            logger.error("Error retrieving available slots for {} users", userIds.size(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+    }
+
+    /**
+     * Returns up to limit meeting-sized slots, earliest first, or best first when preferred hours
+     * are given. Times are local to timeZone.
+     */
+    @GetMapping("/availability/search")
+    public ResponseEntity<List<TimeSlotDTO>> searchSlots(@RequestParam List<Long> userIds,
+                                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                                             @RequestParam(required = false) String timeZone,
+                                                             @RequestParam String duration,
+                                                             @RequestParam(defaultValue = "3") int limit,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime earliestAfter,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime preferredStart,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime preferredEnd,
+                                                             @RequestParam(required = false) String buffer) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Received request to search {} slots for {} users from {} to {} with duration: {}", limit, userIds.size(), startDate, endDate, duration);
+        }
+        try {
+            ZoneId zone = timeZone != null ? ZoneId.of(timeZone) : ZoneId.systemDefault();
+            SlotSearchOptions options = new SlotSearchOptions(limit, earliestAfter, preferredStart, preferredEnd,
+                    buffer != null ? Duration.parse(buffer) : null);
+            List<LocalDateTime[]> slots = calendarService.findSlots(userIds, startDate, endDate, zone, Duration.parse(duration), options);
+            logger.debug("Slots found for {} users: {}", userIds.size(), slots.size());
+            return ResponseEntity.ok(slots.stream().map(slot -> new TimeSlotDTO(slot[0], slot[1])).collect(Collectors.toList()));
+        } catch (UserNotFoundException e) {
+            logger.warn("User not found with ID: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            logger.warn("Invalid slot search: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(null);
+        } catch (Exception e) {
+            logger.error("Error searching slots for {} users", userIds.size(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+    }
+
+    /**
+     * Returns the earliest slots in which all the users and a room seating at least capacity are
+     * free, each with the smallest such room.
+     */
+    @GetMapping("/availability/rooms")
+    public ResponseEntity<List<RoomSlotDTO>> searchRoomSlots(@RequestParam List<Long> userIds,
+                                                             @RequestParam int capacity,
+                                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                                             @RequestParam(required = false) String timeZone,
+                                                             @RequestParam String duration,
+                                                             @RequestParam(defaultValue = "3") int limit) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Received request to search {} room slots for {} users from {} to {} with capacity: {}", limit, userIds.size(), startDate, endDate, capacity);
+        }
+        try {
+            ZoneId zone = timeZone != null ? ZoneId.of(timeZone) : ZoneId.systemDefault();
+            List<RoomSlotDTO> slots = calendarService.findRoomSlots(userIds, capacity, startDate, endDate, zone, Duration.parse(duration), limit);
+            logger.debug("Room slots found for {} users: {}", userIds.size(), slots.size());
+            return ResponseEntity.ok(slots);
+        } catch (UserNotFoundException e) {
+            logger.warn("User not found with ID: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            logger.warn("Invalid room slot search: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(null);
+        } catch (Exception e) {
+            logger.error("Error searching room slots for {} users", userIds.size(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+    }
+
+    /**
+     * Streams the free slots as newline-delimited TimeSlotDTO JSON while they are computed. Chosen
+     * over the array response when the client sends Accept: application/x-ndjson.
+     */
+    @GetMapping(value = "/availability", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAvailableSlots(@RequestParam(required = false) List<Long> userIds,
+                                                                      @RequestParam(required = false) Long userId1,
+                                                                      @RequestParam(required = false) Long userId2,
+                                                                      @RequestParam String duration) {
+        List<Long> ids = collectIds(userIds, userId1, userId2);
+        logger.debug("Received request to stream available slots for {} users with duration: {}", ids.size(), duration);
+        if (ids.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return streamSlots(calendarService.searchFreeSlots(ids, Duration.parse(duration)));
+        } catch (UserNotFoundException e) {
+            logger.warn("User not found with ID: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (DateTimeException e) {
+            logger.warn("Invalid availability request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(value = "/availability/range", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAvailableSlotsInRange(@RequestParam List<Long> userIds,
+                                                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                                                             @RequestParam(required = false) String timeZone,
+                                                                             @RequestParam String duration) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Received request to stream available slots for {} users from {} to {} with duration: {}", userIds.size(), startDate, endDate, duration);
+        }
+        try {
+            ZoneId zone = timeZone != null ? ZoneId.of(timeZone) : ZoneId.systemDefault();
+            return streamSlots(calendarService.searchFreeSlots(userIds, startDate, endDate, zone, Duration.parse(duration)));
+        } catch (UserNotFoundException e) {
+            logger.warn("User not found with ID: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (IllegalArgumentException | DateTimeException e) {
+            logger.warn("Invalid availability request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Writes one TimeSlotDTO per line as the search produces it. The first slot is flushed at once
+     * so the client sees data early; after that the output is flushed every FLUSH_EVERY slots.
+     */
+    private ResponseEntity<StreamingResponseBody> streamSlots(FreeSlotSearch search) {
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = objectMapper.writerFor(TimeSlotDTO.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(out)) {
+                int[] written = new int[1];
+                search.forEach((start, end) -> {
+                    try {
+                        writer.write(new TimeSlotDTO(start, end));
+                        if (written[0]++ % FLUSH_EVERY == 0) {
+                            writer.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                // the separator only goes between values, so end the last line explicitly
+                if (written[0] > 0) {
+                    writer.flush();
+                    out.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    private static List<Long> collectIds(List<Long> userIds, Long userId1, Long userId2) {
+        List<Long> ids = new ArrayList<>();
+        if (userIds != null) {
+            ids.addAll(userIds);
+        }
+        if (userId1 != null) {
+            ids.add(userId1);
+        }
+        if (userId2 != null) {
+            ids.add(userId2);
+        }
+        return ids;
+    }
+
+    @PutMapping("/users/{userId}/working-hours")
+    public ResponseEntity<String> updateWorkingHours(@PathVariable Long userId, @RequestBody WorkingHoursDTO workingHours) {
+        logger.debug("Received request to update working hours for user ID: {}", userId);
+        try {
+            calendarService.updateWorkingHours(userId, workingHours);
+            return ResponseEntity.ok("Working hours updated successfully.");
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Streams the changes to the calendars as server-sent events: "change" events with a
+     * {@link CalendarChangeDTO}, then a "ready" event once caught up, or a "reset" event when the
+     * client has to reload the calendars. Each event ID is the stream position; a client reconnecting
+     * with it in Last-Event-ID picks up where it left off.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(@RequestParam List<Long> calendarIds,
+                                                    @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        logger.debug("Received change subscription for calendars {} from position {}", calendarIds, lastEventId);
+        SseEmitter emitter = new SseEmitter(changeDispatcher.getStreamTimeout().toMillis());
+        try {
+            CalendarChangeDispatcher.Subscription subscription = changeDispatcher.subscribe(calendarIds, lastEventId, new EmitterSink(emitter));
+            emitter.onCompletion(subscription::cancel);
+            emitter.onTimeout(subscription::cancel);
+            emitter.onError(e -> subscription.cancel());
+            return ResponseEntity.ok(emitter);
+        } catch (IllegalArgumentException e) {
+            logger.debug("Invalid change subscription: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(null);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Change subscription refused: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(null);
+        } catch (IOException e) {
+            logger.debug("Change subscriber went away while catching up: {}", e.toString());
+            emitter.completeWithError(e);
+            return ResponseEntity.ok(emitter);
+        }
+    }
+
+    private static final class EmitterSink implements CalendarChangeDispatcher.ChangeSink {
+        private final SseEmitter emitter;
+
+        private EmitterSink(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void change(String position, CalendarChangeDTO change) throws IOException {
+            emitter.send(SseEmitter.event().id(position).name("change").data(change, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void ready(String position) throws IOException {
+            emitter.send(SseEmitter.event().id(position).name("ready").data(position));
+        }
+
+        @Override
+        public void reset(String position) throws IOException {
+            emitter.send(SseEmitter.event().id(position).name("reset").data(position));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    private static int sizeOf(List<?> list) {
+        return list != null ? list.size() : 0;
+    }
 }
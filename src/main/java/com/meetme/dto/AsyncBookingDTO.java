@@ -0,0 +1,18 @@
+package com.meetme.dto;
+
+import lombok.Data;
+
+@Data
+public class AsyncBookingDTO {
+    private String idempotencyKey;
+    private BookingStatus status;
+    private Long meetingId;
+    private String message;
+
+    public AsyncBookingDTO(String idempotencyKey, BookingStatus status, Long meetingId, String message) {
+        this.idempotencyKey = idempotencyKey;
+        this.status = status;
+        this.meetingId = meetingId;
+        this.message = message;
+    }
+}
@@ -0,0 +1,19 @@
+
+package com.meetme.dto;
+
+import lombok.Data;
+
+@Data
+public class BookingResultDTO {
+    private int index;
+    private BookingStatus status;
+    private Long meetingId;
+    private String message;
+
+    public BookingResultDTO(int index, BookingStatus status, Long meetingId, String message) {
+        this.index = index;
+        this.status = status;
+        this.meetingId = meetingId;
+        this.message = message;
+    }
+}
@@ -0,0 +1,11 @@
+
+package com.meetme.dto;
+
+public enum BookingStatus {
+    PENDING,
+    BOOKED,
+    CONFLICT,
+    USER_NOT_FOUND,
+    INVALID,
+    FAILED
+}
@@ -0,0 +1,25 @@
+package com.meetme.dto;
+
+import com.meetme.entities.ChangeKind;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class CalendarChangeDTO {
+    private ChangeKind kind;
+    private Long calendarId;
+    private Long meetingId;
+    private Long seriesId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    public CalendarChangeDTO(ChangeKind kind, Long calendarId, Long meetingId, Long seriesId, LocalDateTime start, LocalDateTime end) {
+        this.kind = kind;
+        this.calendarId = calendarId;
+        this.meetingId = meetingId;
+        this.seriesId = seriesId;
+        this.start = start;
+        this.end = end;
+    }
+}
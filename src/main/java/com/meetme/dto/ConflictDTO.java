@@ -0,0 +1,20 @@
+package com.meetme.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ConflictDTO {
+    private Long userId;
+    private String name;
+    private List<Long> conflictingMeetingIds;
+    private List<Long> conflictingSeriesIds;
+
+    public ConflictDTO(Long userId, String name, List<Long> conflictingMeetingIds, List<Long> conflictingSeriesIds) {
+        this.userId = userId;
+        this.name = name;
+        this.conflictingMeetingIds = conflictingMeetingIds;
+        this.conflictingSeriesIds = conflictingSeriesIds;
+    }
+}
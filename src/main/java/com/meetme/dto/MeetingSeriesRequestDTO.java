@@ -0,0 +1,17 @@
+package com.meetme.dto;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class MeetingSeriesRequestDTO {
+    private Long ownerId;
+    private List<Long> participantIds;
+    private LocalDateTime startTime;
+    private Duration duration;
+    private String recurrenceRule;
+
+}
@@ -0,0 +1,22 @@
+package com.meetme.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class RoomSlotDTO {
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private Long resourceId;
+    private String resourceName;
+    private Integer capacity;
+
+    public RoomSlotDTO(LocalDateTime start, LocalDateTime end, Long resourceId, String resourceName, Integer capacity) {
+        this.start = start;
+        this.end = end;
+        this.resourceId = resourceId;
+        this.resourceName = resourceName;
+        this.capacity = capacity;
+    }
+}
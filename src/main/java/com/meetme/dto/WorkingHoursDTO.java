@@ -0,0 +1,14 @@
+
+package com.meetme.dto;
+
+import lombok.Data;
+
+import java.time.LocalTime;
+
+@Data
+public class WorkingHoursDTO {
+    private LocalTime workdayStart;
+    private LocalTime workdayEnd;
+    private String timeZone;
+
+}
@@ -0,0 +1,43 @@
+package com.meetme.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox record of a change to a calendar's busy time, written in the transaction that makes the
+ * change, one per calendar concerned. The ID is the change's position in the stream of changes.
+ * A null endTime means every time from startTime onwards.
+ */
+@Entity
+@Data
+@Table(name = "calendar_change", indexes = {
+        @Index(name = "idx_calendar_change_calendar", columnList = "calendar_id, id"),
+        @Index(name = "idx_calendar_change_created", columnList = "created_at")
+})
+public class CalendarChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "calendar_id", nullable = false)
+    private Long calendarId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32, nullable = false)
+    private ChangeKind kind;
+
+    @Column(name = "meeting_id")
+    private Long meetingId;
+    @Column(name = "series_id")
+    private Long seriesId;
+    @Column(name = "start_time")
+    private LocalDateTime startTime;
+    @Column(name = "end_time")
+    private LocalDateTime endTime;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+}
@@ -0,0 +1,9 @@
+package com.meetme.entities;
+
+public enum ChangeKind {
+    MEETING_BOOKED,
+    MEETING_CANCELLED,
+    SERIES_BOOKED,
+    SERIES_CANCELLED,
+    OCCURRENCE_SKIPPED
+}
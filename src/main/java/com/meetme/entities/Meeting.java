@@ -3,7 +3,10 @@ package com.meetme.entities;
 
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import jakarta.persistence.*;
 
 import java.time.LocalDateTime;
@@ -12,24 +15,44 @@ import java.util.List;
 
 @Entity
 @Data
+@Table(indexes = {
+        @Index(name = "idx_meeting_calendar_time", columnList = "calendar_id, start_time, end_time"),
+        @Index(name = "uk_meeting_idempotency_key", columnList = "idempotency_key", unique = true)
+})
 public class Meeting {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meeting_seq")
+    @SequenceGenerator(name = "meeting_seq", sequenceName = "meeting_seq", allocationSize = 50)
     private Long id;
+    @Column(name = "start_time")
     private LocalDateTime startTime;
+    @Column(name = "end_time")
     private LocalDateTime endTime;
 
+    /** Set for meetings booked asynchronously, so a replayed booking can tell it already committed. */
+    @Column(name = "idempotency_key", length = 128)
+    @JsonIgnore
+    private String idempotencyKey;
+
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "meeting_participants",
             joinColumns = @JoinColumn(name = "meeting_id"),
-            inverseJoinColumns = @JoinColumn(name = "user_id")
+            inverseJoinColumns = @JoinColumn(name = "user_id"),
+            indexes = {
+                    @Index(name = "idx_meeting_participants_user", columnList = "user_id, meeting_id"),
+                    @Index(name = "idx_meeting_participants_meeting", columnList = "meeting_id")
+            }
     )
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<User> participants = new ArrayList<>();
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "calendar_id")
     @JsonBackReference
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Calendar calendar;
 
 }
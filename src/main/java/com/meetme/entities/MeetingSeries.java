@@ -0,0 +1,65 @@
+package com.meetme.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A recurring meeting stored as one row: its first occurrence, an RRULE-style recurrence rule and
+ * the starts of any skipped occurrences. Occurrences are never materialised; they are expanded on
+ * demand inside the window being queried.
+ */
+@Entity
+@Data
+@Table(name = "meeting_series",
+        indexes = @Index(name = "idx_series_calendar_range", columnList = "calendar_id, start_time, recurrence_end"))
+public class MeetingSeries {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "start_time")
+    private LocalDateTime startTime;
+    @Column(name = "end_time")
+    private LocalDateTime endTime;
+    @Column(name = "recurrence_rule")
+    private String recurrenceRule;
+    /** Latest end of any occurrence, derived from COUNT or UNTIL; null when the series never ends. */
+    @Column(name = "recurrence_end")
+    private LocalDateTime recurrenceEnd;
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "meeting_series_exceptions", joinColumns = @JoinColumn(name = "series_id"),
+            indexes = @Index(name = "idx_series_exceptions_series", columnList = "series_id, occurrence_start"))
+    @Column(name = "occurrence_start")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Set<LocalDateTime> exceptions = new HashSet<>();
+
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(
+            name = "meeting_series_participants",
+            joinColumns = @JoinColumn(name = "series_id"),
+            inverseJoinColumns = @JoinColumn(name = "user_id"),
+            indexes = {
+                    @Index(name = "idx_series_participants_user", columnList = "user_id, series_id"),
+                    @Index(name = "idx_series_participants_series", columnList = "series_id")
+            }
+    )
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<User> participants = new ArrayList<>();
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "calendar_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Calendar calendar;
+
+}
@@ -0,0 +1,33 @@
+package com.meetme.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * A bookable room or piece of equipment. Like a user it owns a calendar, which holds the meetings
+ * it is booked for; capacity is the number of people a room seats.
+ */
+@Entity
+@Data
+@Table(indexes = @Index(name = "idx_resource_kind_capacity", columnList = "kind, capacity"))
+public class Resource {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32)
+    private ResourceKind kind;
+
+    private Integer capacity;
+
+    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @JoinColumn(name = "calendar_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Calendar calendar;
+
+}
@@ -0,0 +1,6 @@
+package com.meetme.entities;
+
+public enum ResourceKind {
+    ROOM,
+    EQUIPMENT
+}
@@ -3,6 +3,10 @@ package com.meetme.entities;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.time.LocalTime;
 
 
 @Entity
@@ -14,8 +18,14 @@ public class User {
     private Long id;
     private String name;
 
+    private LocalTime workdayStart;
+    private LocalTime workdayEnd;
+    private String timeZone;
+
     @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JoinColumn(name = "calendar_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Calendar calendar;
 
 }
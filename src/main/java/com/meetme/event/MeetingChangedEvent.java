@@ -0,0 +1,19 @@
+
+package com.meetme.event;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published whenever a meeting is booked or cancelled, naming the owner and participants whose
+ * busy time changed between start and end. A null end means every time from start onwards, as
+ * when a series without an end is booked or cancelled.
+ */
+@Value
+public class MeetingChangedEvent {
+    List<Long> userIds;
+    LocalDateTime start;
+    LocalDateTime end;
+}
@@ -0,0 +1,38 @@
+package com.meetme.repository;
+
+import com.meetme.entities.CalendarChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CalendarChangeRepository extends JpaRepository<CalendarChange, Long> {
+
+    @Query("select c from CalendarChange c where c.id > :after order by c.id")
+    List<CalendarChange> findAfter(@Param("after") long after, Pageable page);
+
+    /**
+     * Returns the changes of the calendars in (after, through], in order, from the (calendar_id, id)
+     * index.
+     */
+    @Query("select c from CalendarChange c where c.calendarId in :calendarIds and c.id > :after and c.id <= :through order by c.id")
+    List<CalendarChange> findOfCalendars(@Param("calendarIds") Collection<Long> calendarIds, @Param("after") long after,
+                                         @Param("through") long through, Pageable page);
+
+    @Query("select min(c.id) from CalendarChange c")
+    Long findFirstId();
+
+    @Query("select max(c.id) from CalendarChange c")
+    Long findLastId();
+
+    @Modifying
+    @Query("delete from CalendarChange c where c.createdAt < :before and c.id < :lastId")
+    int deleteOlderThan(@Param("before") LocalDateTime before, @Param("lastId") long lastId);
+}
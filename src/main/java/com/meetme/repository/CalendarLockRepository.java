@@ -0,0 +1,16 @@
+package com.meetme.repository;
+
+import com.meetme.entities.Calendar;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CalendarLockRepository {
+
+    /**
+     * Loads the calendars and bumps their versions right away, holding their rows until commit.
+     * A concurrent write to any of them waits for this one, and a write that read a calendar
+     * before this one committed fails on the stale version.
+     */
+    List<Calendar> lockForWrite(Collection<Long> ids);
+}
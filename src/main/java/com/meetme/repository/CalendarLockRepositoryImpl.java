@@ -0,0 +1,28 @@
+package com.meetme.repository;
+
+import com.meetme.entities.Calendar;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.Collection;
+import java.util.List;
+
+class CalendarLockRepositoryImpl implements CalendarLockRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Calendar> lockForWrite(Collection<Long> ids) {
+        // Locked through the entity manager rather than a @Lock query: the query does not upgrade
+        // the lock of calendars that are already managed, as they are under open-session-in-view.
+        // OPTIMISTIC_FORCE_INCREMENT is not used because its deferred version update is queued in
+        // the JDBC batch after the final flush and never executed.
+        List<Calendar> calendars = entityManager.createQuery("select c from Calendar c where c.id in :ids order by c.id", Calendar.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        calendars.forEach(calendar -> entityManager.lock(calendar, LockModeType.PESSIMISTIC_FORCE_INCREMENT));
+        return calendars;
+    }
+}
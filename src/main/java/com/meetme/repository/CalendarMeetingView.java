@@ -0,0 +1,20 @@
+package com.meetme.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of {@link CalendarRepository#findMeetingTimes}: a calendar, its version and one of its
+ * meetings, or null meeting columns when it has none.
+ */
+public interface CalendarMeetingView {
+
+    Long getCalendarId();
+
+    Long getVersion();
+
+    Long getMeetingId();
+
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+}
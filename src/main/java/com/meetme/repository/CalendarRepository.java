@@ -1,9 +1,22 @@
-
 package com.meetme.repository;
 
 import com.meetme.entities.Calendar;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface CalendarRepository extends JpaRepository<Calendar, Long> {}
+public interface CalendarRepository extends JpaRepository<Calendar, Long>, CalendarLockRepository {
+
+    /**
+     * Returns the version and the meeting times of each given calendar, one row per meeting ordered
+     * by start time, in a single statement so the version matches the meetings read.
+     */
+    @Query("select c.id as calendarId, c.version as version, m.id as meetingId, m.startTime as startTime, m.endTime as endTime "
+            + "from Calendar c left join c.meetings m where c.id in :calendarIds order by c.id, m.startTime")
+    List<CalendarMeetingView> findMeetingTimes(@Param("calendarIds") Collection<Long> calendarIds);
+}
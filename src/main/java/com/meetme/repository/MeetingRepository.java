@@ -3,7 +3,33 @@ package com.meetme.repository;
 
 import com.meetme.entities.Meeting;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface MeetingRepository extends JpaRepository<Meeting, Long> {}
+public interface MeetingRepository extends JpaRepository<Meeting, Long> {
+
+    @Query("select m from Meeting m where m.calendar.id in :calendarIds and m.startTime < :end and m.endTime > :start order by m.startTime")
+    List<Meeting> findOverlappingInCalendars(@Param("calendarIds") Collection<Long> calendarIds, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    /**
+     * Returns the meetings overlapping [start, end) of each given user, those in their own calendar
+     * and those they are a participant of, one row per user and meeting, in a single statement.
+     */
+    @Query("select u.id as userId, m.id as meetingId, m.startTime as startTime, m.endTime as endTime "
+            + "from User u join Meeting m on m.calendar = u.calendar "
+            + "where u.id in :userIds and m.startTime < :end and m.endTime > :start "
+            + "union "
+            + "select p.id as userId, m.id as meetingId, m.startTime as startTime, m.endTime as endTime "
+            + "from Meeting m join m.participants p "
+            + "where p.id in :userIds and m.startTime < :end and m.endTime > :start")
+    List<UserMeetingView> findBusyMeetingsOfUsers(@Param("userIds") Collection<Long> userIds,
+                                                  @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    List<Meeting> findByIdempotencyKeyIn(Collection<String> idempotencyKeys);
+}
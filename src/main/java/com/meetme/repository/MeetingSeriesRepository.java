@@ -0,0 +1,36 @@
+package com.meetme.repository;
+
+import com.meetme.entities.MeetingSeries;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MeetingSeriesRepository extends JpaRepository<MeetingSeries, Long> {
+
+    /**
+     * Returns the series of the calendar that may have an occurrence overlapping [start, end),
+     * with their exceptions fetched in the same query. Callers expand the occurrences themselves.
+     */
+    @EntityGraph(attributePaths = "exceptions")
+    @Query("select s from MeetingSeries s where s.calendar.id = :calendarId and s.startTime < :end and (s.recurrenceEnd is null or s.recurrenceEnd > :start)")
+    List<MeetingSeries> findActive(@Param("calendarId") Long calendarId, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @EntityGraph(attributePaths = "exceptions")
+    @Query("select s from MeetingSeries s where s.calendar.id in :calendarIds and s.startTime < :end and (s.recurrenceEnd is null or s.recurrenceEnd > :start)")
+    List<MeetingSeries> findActiveInCalendars(@Param("calendarIds") Collection<Long> calendarIds, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    /**
+     * Returns the series any of the given users is invited to that may have an occurrence
+     * overlapping [start, end), with their exceptions and participants fetched in the same query.
+     */
+    @EntityGraph(attributePaths = {"exceptions", "participants"})
+    @Query("select distinct s from MeetingSeries s join s.participants p where p.id in :userIds and s.startTime < :end and (s.recurrenceEnd is null or s.recurrenceEnd > :start)")
+    List<MeetingSeries> findActiveOfParticipants(@Param("userIds") Collection<Long> userIds, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+}
@@ -0,0 +1,21 @@
+package com.meetme.repository;
+
+import com.meetme.entities.Resource;
+import com.meetme.entities.ResourceKind;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ResourceRepository extends JpaRepository<Resource, Long> {
+
+    /**
+     * Returns the resources of a kind with at least the given capacity, smallest first, from the
+     * (kind, capacity) index, with their calendars so snapshot versions can be checked.
+     */
+    @Query("select r from Resource r join fetch r.calendar where r.kind = :kind and r.capacity >= :capacity order by r.capacity, r.id")
+    List<Resource> findWithCapacity(@Param("kind") ResourceKind kind, @Param("capacity") int capacity);
+}
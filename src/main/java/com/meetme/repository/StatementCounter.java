@@ -0,0 +1,26 @@
+package com.meetme.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, i.e. the database round-trips
+ * of the request being served. Registered through hibernate.session_factory.statement_inspector.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static int count() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,18 @@
+package com.meetme.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of {@link MeetingRepository#findBusyMeetingsOfUsers}: a user and the time of one meeting
+ * that keeps them busy, whether in their own calendar or as a participant.
+ */
+public interface UserMeetingView {
+
+    Long getUserId();
+
+    Long getMeetingId();
+
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+}
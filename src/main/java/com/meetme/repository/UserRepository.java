@@ -2,8 +2,27 @@
 package com.meetme.repository;
 
 import com.meetme.entities.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {}
+public interface UserRepository extends JpaRepository<User, Long> {
+
+    Optional<User> findByCalendarId(Long calendarId);
+
+    @EntityGraph(attributePaths = "calendar")
+    List<User> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Returns the ID, name and calendar ID of each given user without loading any entity.
+     */
+    @Query("select u.id as userId, u.name as name, u.calendar.id as calendarId from User u where u.id in :userIds")
+    List<UserSummaryView> findSummaries(@Param("userIds") Collection<Long> userIds);
+}
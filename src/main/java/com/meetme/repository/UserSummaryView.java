@@ -0,0 +1,13 @@
+package com.meetme.repository;
+
+/**
+ * One row of {@link UserRepository#findSummaries}: a user's ID, name and calendar ID.
+ */
+public interface UserSummaryView {
+
+    Long getUserId();
+
+    String getName();
+
+    Long getCalendarId();
+}
@@ -0,0 +1,458 @@
+package com.meetme.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.meetme.dto.AsyncBookingDTO;
+import com.meetme.dto.BookingResultDTO;
+import com.meetme.dto.BookingStatus;
+import com.meetme.dto.MeetingRequestDTO;
+import com.meetme.entities.Meeting;
+import com.meetme.exception.IdempotencyKeyReusedException;
+import com.meetme.exception.UserNotFoundException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Accepts bookings without waiting for the database. A booking carries a client idempotency key;
+ * it is checked against the owner calendar's in-memory snapshot and against the bookings still
+ * queued for that calendar, appended to the {@link BookingJournal} and acknowledged as PENDING. A
+ * single writer thread drains the queue in micro-batches through
+ * {@link CalendarService#bookMeetings(List, List)}, which re-checks every booking against the
+ * database, series included, and stores the key with the meeting.
+ *
+ * A retry with the same key returns the booking's current state instead of booking again, and a
+ * key reused for a different booking is refused. Keys are remembered while queued and for the
+ * retention period after the outcome is known; after that, or after a restart, a key already
+ * stored with a meeting is still answered as booked from the database. After a crash the
+ * journal's open bookings are queued again, minus those whose key is already on a meeting. A
+ * batch the database keeps refusing is failed after a number of attempts so the queue moves on.
+ */
+@Service
+public class AsyncBookingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncBookingService.class);
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[A-Za-z0-9._:-]{1,128}");
+
+    private static final long MAX_BACKOFF_MILLIS = 5_000;
+
+    @Autowired
+    private CalendarService calendarService;
+
+    @Autowired
+    private BookingLocks bookingLocks;
+
+    @Autowired
+    private CalendarMetrics calendarMetrics;
+
+    private final Path journalPath;
+    private final int batchSize;
+    private final Duration maxDelay;
+    private final int writeAttempts;
+    private final int queueCapacity;
+    private final Map<String, Ticket> pending = new ConcurrentHashMap<>();
+    private final Cache<String, Ticket> completed;
+    private final Map<Long, MeetingIntervalIndex> reservations = new ConcurrentHashMap<>();
+    private final BlockingQueue<Ticket> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong placeholderIds = new AtomicLong();
+    private Semaphore capacity;
+    private BookingJournal journal;
+    private Thread writer;
+    private volatile boolean running;
+
+    public AsyncBookingService(@Value("${meetme.async-booking.journal:./data/booking-journal.log}") Path journalPath,
+                               @Value("${meetme.async-booking.batch-size:100}") int batchSize,
+                               @Value("${meetme.async-booking.max-delay:PT0.005S}") Duration maxDelay,
+                               @Value("${meetme.async-booking.write-attempts:8}") int writeAttempts,
+                               @Value("${meetme.async-booking.queue-capacity:10000}") int queueCapacity,
+                               @Value("${meetme.async-booking.retention:PT24H}") Duration retention,
+                               @Value("${meetme.async-booking.retained-results:100000}") long retainedResults) {
+        this.journalPath = journalPath;
+        this.batchSize = batchSize;
+        this.maxDelay = maxDelay;
+        this.writeAttempts = writeAttempts;
+        this.queueCapacity = queueCapacity;
+        this.completed = Caffeine.newBuilder().maximumSize(retainedResults).expireAfterWrite(retention).build();
+    }
+
+    /**
+     * Replays the journal and starts the writer. Runs once the application is ready, so the
+     * database is initialised; bookings submitted before then are refused.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        journal = new BookingJournal(journalPath);
+        Map<String, MeetingRequestDTO> open = journal.replay();
+        Map<String, Long> committed = calendarService.findBookedMeetingIds(open.keySet());
+
+        int replayed = 0;
+        for (Map.Entry<String, MeetingRequestDTO> entry : open.entrySet()) {
+            Ticket ticket = new Ticket(entry.getKey(), entry.getValue());
+            pending.put(ticket.key, ticket);
+            Long meetingId = committed.get(ticket.key);
+            if (meetingId != null) {
+                finish(ticket, new AsyncBookingDTO(ticket.key, BookingStatus.BOOKED, meetingId, null));
+                continue;
+            }
+            try {
+                reserve(ticket, calendarService.getOwnerCalendarId(ticket.request.getOwnerId(), ticket.request.getParticipantIds()));
+            } catch (UserNotFoundException e) {
+                // left to the writer, which reports the missing users
+            }
+            inFlight.incrementAndGet();
+            queue.add(ticket);
+            replayed++;
+        }
+        if (!committed.isEmpty()) {
+            journal.completed(committed.keySet());
+        }
+        journal.truncateIf(() -> inFlight.get() == 0);
+        if (!open.isEmpty()) {
+            logger.info("Replayed {} queued bookings from {}, {} more were already written", replayed, journalPath, committed.size());
+        }
+
+        capacity = new Semaphore(queueCapacity - replayed);
+        calendarMetrics.asyncBookingsPending(inFlight::get);
+        running = true;
+        writer = new Thread(this::writeLoop, "booking-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops taking bookings and lets the writer drain the queue. Whatever it cannot write in time
+     * stays in the journal for the next start.
+     */
+    @PreDestroy
+    public synchronized void stop() throws IOException, InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        journal.close();
+    }
+
+    /**
+     * Accepts a booking under an idempotency key and returns its state: PENDING once it is
+     * journaled and queued, or the outcome if the key is already known or the booking is refused
+     * up front.
+     *
+     * @throws IllegalArgumentException if the key is malformed
+     * @throws IdempotencyKeyReusedException if the key was used for a different booking
+     * @throws RejectedExecutionException if the queue is full or the service is not running
+     */
+    public AsyncBookingDTO submit(String key, MeetingRequestDTO request) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            throw new IllegalArgumentException("Idempotency key must be 1 to 128 letters, digits or any of . _ : -");
+        }
+        Ticket ticket = new Ticket(key, normalize(request));
+        Ticket existing = pending.putIfAbsent(key, ticket);
+        if (existing == null) {
+            // a finished ticket is retained before it leaves pending, so it is visible here
+            existing = completed.getIfPresent(key);
+            if (existing != null) {
+                pending.remove(key, ticket);
+            }
+        }
+        if (existing != null) {
+            if (!existing.request.equals(ticket.request)) {
+                throw new IdempotencyKeyReusedException("Idempotency key " + key + " was already used for a different booking");
+            }
+            return existing.status();
+        }
+
+        try {
+            Long meetingId = calendarService.findBookedMeetingIds(List.of(key)).get(key);
+            if (meetingId != null) {
+                // booked before a restart or longer ago than the retention
+                AsyncBookingDTO booked = new AsyncBookingDTO(key, BookingStatus.BOOKED, meetingId, null);
+                finish(ticket, booked);
+                return booked;
+            }
+            return accept(ticket);
+        } catch (RuntimeException e) {
+            pending.remove(key, ticket);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the state of a booking, waiting up to wait for a pending one to finish, or empty if
+     * the key is unknown.
+     */
+    public Optional<AsyncBookingDTO> status(String key, Duration wait) throws InterruptedException {
+        Ticket ticket = pending.get(key);
+        if (ticket == null) {
+            ticket = completed.getIfPresent(key);
+        }
+        if (ticket == null) {
+            Long meetingId = calendarService.findBookedMeetingIds(List.of(key)).get(key);
+            return Optional.ofNullable(meetingId).map(id -> new AsyncBookingDTO(key, BookingStatus.BOOKED, id, null));
+        }
+        if (!wait.isZero() && !ticket.result.isDone()) {
+            try {
+                ticket.result.get(wait.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                // still pending; report it as such
+            }
+        }
+        return Optional.of(ticket.status());
+    }
+
+    private AsyncBookingDTO accept(Ticket ticket) {
+        MeetingRequestDTO request = ticket.request;
+        if (request.getOwnerId() == null || request.getStartTime() == null || request.getDuration() == null
+                || request.getDuration().isNegative() || request.getDuration().isZero() || request.getParticipantIds().contains(null)) {
+            return refuse(ticket, BookingStatus.INVALID, "ownerId, startTime, a positive duration and non-null participantIds are required");
+        }
+        Long calendarId;
+        try {
+            calendarId = calendarService.getOwnerCalendarId(request.getOwnerId(), request.getParticipantIds());
+        } catch (UserNotFoundException e) {
+            return refuse(ticket, BookingStatus.USER_NOT_FOUND, e.getMessage());
+        }
+        if (!running || !capacity.tryAcquire()) {
+            throw new RejectedExecutionException("Not accepting asynchronous bookings right now");
+        }
+
+        LocalDateTime start = request.getStartTime();
+        LocalDateTime end = start.plus(request.getDuration());
+        boolean reserved = bookingLocks.withLocks(List.of(calendarId), () -> {
+            MeetingIntervalIndex queued = reservations.get(calendarId);
+            if ((queued != null && queued.hasOverlap(start, end)) || calendarService.hasSnapshotConflict(calendarId, start, end)) {
+                return false;
+            }
+            reserve(ticket, calendarId);
+            return true;
+        });
+        if (!reserved) {
+            capacity.release();
+            return refuse(ticket, BookingStatus.CONFLICT, "Meeting conflict detected");
+        }
+
+        inFlight.incrementAndGet();
+        try {
+            journal.sync(journal.accepted(ticket.key, request));
+        } catch (IOException e) {
+            inFlight.decrementAndGet();
+            capacity.release();
+            release(ticket);
+            throw new UncheckedIOException("Could not journal booking " + ticket.key, e);
+        }
+        queue.add(ticket);
+        return ticket.status();
+    }
+
+    private AsyncBookingDTO refuse(Ticket ticket, BookingStatus status, String message) {
+        AsyncBookingDTO result = new AsyncBookingDTO(ticket.key, status, null, message);
+        finish(ticket, result);
+        return result;
+    }
+
+    private void writeLoop() {
+        List<Ticket> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Ticket first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelay.toNanos();
+                while (batch.size() < batchSize) {
+                    Ticket next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                if (!write(batch)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes one batch, retrying with backoff while the database fails. Before each retry the
+     * bookings whose key made it to a meeting anyway are finished as booked; the rest are finished
+     * as failed once the attempts run out. Returns false if the service stopped first, leaving the
+     * batch in the journal.
+     */
+    private boolean write(List<Ticket> batch) throws InterruptedException {
+        List<Ticket> remaining = new ArrayList<>(batch);
+        for (int attempt = 0; ; attempt++) {
+            try {
+                if (attempt > 0) {
+                    finishCommitted(remaining);
+                    if (remaining.isEmpty()) {
+                        break;
+                    }
+                }
+                List<BookingResultDTO> results = calendarService.bookMeetings(
+                        remaining.stream().map(ticket -> ticket.request).collect(Collectors.toList()),
+                        remaining.stream().map(ticket -> ticket.key).collect(Collectors.toList()));
+                for (int i = 0; i < remaining.size(); i++) {
+                    BookingResultDTO result = results.get(i);
+                    finish(remaining.get(i), new AsyncBookingDTO(remaining.get(i).key, result.getStatus(), result.getMeetingId(), result.getMessage()));
+                }
+                calendarMetrics.asyncBatchWritten(remaining.size());
+                break;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    logger.warn("Leaving {} queued bookings in the journal after a failed write", remaining.size(), e);
+                    return false;
+                }
+                if (attempt + 1 >= writeAttempts) {
+                    logger.error("Writing {} queued bookings failed {} times, giving up on them", remaining.size(), writeAttempts, e);
+                    fail(remaining);
+                    break;
+                }
+                long backoff = Math.min(MAX_BACKOFF_MILLIS, 50L << Math.min(attempt, 10));
+                logger.warn("Writing {} queued bookings failed, retrying in {} ms", remaining.size(), backoff, e);
+                Thread.sleep(backoff);
+            }
+        }
+
+        List<String> keys = batch.stream().map(ticket -> ticket.key).collect(Collectors.toList());
+        try {
+            journal.completed(keys);
+        } catch (IOException e) {
+            // a replay finds these meetings by their keys
+            logger.warn("Could not journal the completion of {} bookings", keys.size(), e);
+        }
+        capacity.release(batch.size());
+        if (inFlight.addAndGet(-batch.size()) == 0) {
+            try {
+                journal.truncateIf(() -> inFlight.get() == 0);
+            } catch (IOException e) {
+                logger.warn("Could not truncate the booking journal", e);
+            }
+        }
+        return true;
+    }
+
+    private void finishCommitted(List<Ticket> tickets) {
+        Map<String, Long> committed = calendarService.findBookedMeetingIds(
+                tickets.stream().map(ticket -> ticket.key).collect(Collectors.toList()));
+        tickets.removeIf(ticket -> {
+            Long meetingId = committed.get(ticket.key);
+            if (meetingId != null) {
+                finish(ticket, new AsyncBookingDTO(ticket.key, BookingStatus.BOOKED, meetingId, null));
+            }
+            return meetingId != null;
+        });
+    }
+
+    private void fail(List<Ticket> tickets) {
+        try {
+            finishCommitted(tickets);
+        } catch (RuntimeException e) {
+            logger.warn("Could not look up which of {} failed bookings were written", tickets.size(), e);
+        }
+        for (Ticket ticket : tickets) {
+            finish(ticket, new AsyncBookingDTO(ticket.key, BookingStatus.FAILED, null, "Booking could not be written"));
+        }
+    }
+
+    private void finish(Ticket ticket, AsyncBookingDTO result) {
+        ticket.result.complete(result);
+        completed.put(ticket.key, ticket);
+        pending.remove(ticket.key, ticket);
+        release(ticket);
+    }
+
+    /**
+     * Holds the booking's time in its calendar's queued index until it is written; the caller
+     * holds the calendar's booking lock or runs before the writer starts.
+     */
+    private void reserve(Ticket ticket, Long calendarId) {
+        Meeting placeholder = new Meeting();
+        placeholder.setId(-placeholderIds.incrementAndGet());
+        placeholder.setStartTime(ticket.request.getStartTime());
+        placeholder.setEndTime(ticket.request.getStartTime().plus(ticket.request.getDuration()));
+        reservations.computeIfAbsent(calendarId, id -> new MeetingIntervalIndex()).add(placeholder);
+        ticket.calendarId = calendarId;
+        ticket.placeholderId = placeholder.getId();
+    }
+
+    private void release(Ticket ticket) {
+        Long calendarId = ticket.calendarId;
+        if (calendarId == null) {
+            return;
+        }
+        ticket.calendarId = null;
+        bookingLocks.withLocks(List.of(calendarId), () -> {
+            MeetingIntervalIndex queued = reservations.get(calendarId);
+            if (queued != null && queued.remove(ticket.placeholderId) && queued.size() == 0) {
+                reservations.remove(calendarId);
+            }
+            return null;
+        });
+    }
+
+    private static MeetingRequestDTO normalize(MeetingRequestDTO request) {
+        MeetingRequestDTO normalized = new MeetingRequestDTO();
+        normalized.setOwnerId(request.getOwnerId());
+        normalized.setStartTime(request.getStartTime());
+        normalized.setDuration(request.getDuration());
+        normalized.setParticipantIds(request.getParticipantIds() == null ? new ArrayList<>() : new ArrayList<>(request.getParticipantIds()));
+        return normalized;
+    }
+
+    private static final class Ticket {
+        private final String key;
+        private final MeetingRequestDTO request;
+        private final CompletableFuture<AsyncBookingDTO> result = new CompletableFuture<>();
+        private volatile Long calendarId;
+        private long placeholderId;
+
+        Ticket(String key, MeetingRequestDTO request) {
+            this.key = key;
+            this.request = request;
+        }
+
+        private AsyncBookingDTO status() {
+            return result.getNow(new AsyncBookingDTO(key, BookingStatus.PENDING, null, null));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+
+package com.meetme.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Finds the common free slots of any number of participants.
+ *
+ * Each participant contributes one or more busy timelines that are already sorted by start time,
+ * such as their meetings and the time outside their working hours. The timelines are k-way merged
+ * through a heap holding one cursor per timeline, so the gaps are emitted in a single pass without
+ * concatenating and re-sorting anything.
+ *
+ * The merge works on {@link EpochSeconds} throughout: the heap is an {@code int[]} of timeline
+ * indexes and every comparison is between {@code long}s, so the loop allocates nothing no matter
+ * how many meetings it walks.
+ */
+public final class AvailabilityEngine {
+
+    private AvailabilityEngine() {
+    }
+
+    public static void findFreeSlots(List<Iterator<BusyInterval>> timelines, LocalDateTime windowStart, LocalDateTime windowEnd,
+                                     Duration duration, BiConsumer<LocalDateTime, LocalDateTime> sink) {
+        BusyTimeline[] cursors = new BusyTimeline[timelines.size()];
+        for (int i = 0; i < cursors.length; i++) {
+            cursors[i] = BusyTimeline.of(timelines.get(i));
+        }
+        findFreeSlots(cursors, EpochSeconds.of(windowStart), EpochSeconds.of(windowEnd), EpochSeconds.ceilSeconds(duration),
+                (start, end) -> sink.accept(EpochSeconds.toDateTime(start), EpochSeconds.toDateTime(end)));
+    }
+
+    /**
+     * Emits every gap of at least {@code minimumSeconds} within [windowStart, windowEnd] that none
+     * of the timelines covers. Busy ranges are truncated to the minute before they are merged. Stops
+     * as soon as the sink is done.
+     */
+    public static void findFreeSlots(BusyTimeline[] timelines, long windowStart, long windowEnd, long minimumSeconds, SlotSink sink) {
+        int[] heap = new int[timelines.length];
+        int size = 0;
+        for (int i = 0; i < timelines.length; i++) {
+            if (timelines[i].next()) {
+                heap[size++] = i;
+            }
+        }
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            siftDown(heap, size, i, timelines);
+        }
+
+        long currentStart = windowStart;
+        while (size > 0) {
+            BusyTimeline timeline = timelines[heap[0]];
+            long meetingStart = EpochSeconds.truncateToMinute(timeline.start());
+            long meetingEnd = EpochSeconds.truncateToMinute(timeline.end());
+            if (!timeline.next()) {
+                heap[0] = heap[--size];
+            }
+            siftDown(heap, size, 0, timelines);
+
+            if (meetingStart > windowEnd) break;
+            if (meetingEnd < currentStart) continue;
+
+            if (meetingStart < currentStart) {
+                meetingStart = currentStart;
+            }
+
+            if (meetingStart - currentStart >= minimumSeconds) {
+                sink.accept(currentStart, meetingStart);
+                if (sink.isDone()) {
+                    return;
+                }
+            }
+
+            if (meetingEnd > currentStart) {
+                currentStart = meetingEnd;
+            }
+        }
+
+        if (windowEnd - currentStart >= minimumSeconds) {
+            sink.accept(currentStart, windowEnd);
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, int position, BusyTimeline[] timelines) {
+        if (size == 0) {
+            return;
+        }
+        int moving = heap[position];
+        long movingStart = timelines[moving].start();
+        int half = size >>> 1;
+        while (position < half) {
+            int child = (position << 1) + 1;
+            long childStart = timelines[heap[child]].start();
+            int right = child + 1;
+            if (right < size) {
+                long rightStart = timelines[heap[right]].start();
+                if (rightStart < childStart) {
+                    child = right;
+                    childStart = rightStart;
+                }
+            }
+            if (movingStart <= childStart) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = moving;
+    }
+}
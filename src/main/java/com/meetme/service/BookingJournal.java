@@ -0,0 +1,175 @@
+package com.meetme.service;
+
+import com.meetme.dto.MeetingRequestDTO;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Write-ahead file of asynchronously accepted bookings. An accepted booking is appended as one line
+ * and forced to disk before it is acknowledged; once it has been written to the database a
+ * completion line follows, which is not forced because a replay can also find the committed meeting
+ * by its idempotency key. Concurrent acceptances share a force: whoever forces covers every line
+ * appended before it started.
+ *
+ * Lines are {@code A|key|ownerId|startTime|duration|participantIds} and {@code D|key}. Keys must not
+ * contain '|' or line breaks.
+ */
+public class BookingJournal implements Closeable {
+
+    private final FileChannel channel;
+    private final Object syncLock = new Object();
+    private long written;
+    private volatile long synced;
+
+    public BookingJournal(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.written = channel.size();
+        this.synced = written;
+        channel.position(written);
+    }
+
+    /**
+     * Returns the accepted bookings without a completion line, by key in order of acceptance. A
+     * last line cut short by a crash was never acknowledged; it is dropped from the file so later
+     * appends start on a line of their own.
+     */
+    public synchronized Map<String, MeetingRequestDTO> replay() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) written);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+            // keep reading until the whole file is in the buffer
+        }
+        String content = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+
+        Map<String, MeetingRequestDTO> open = new LinkedHashMap<>();
+        int lineStart = 0;
+        int lineNumber = 1;
+        for (int lineEnd = content.indexOf('\n'); lineEnd >= 0; lineEnd = content.indexOf('\n', lineStart), lineNumber++) {
+            String line = content.substring(lineStart, lineEnd);
+            lineStart = lineEnd + 1;
+            String[] fields = line.split("\\|", -1);
+            try {
+                if (fields[0].equals("A") && fields.length == 6) {
+                    open.put(fields[1], request(fields));
+                } else if (fields[0].equals("D") && fields.length == 2) {
+                    open.remove(fields[1]);
+                } else {
+                    throw new IOException("Unknown record");
+                }
+            } catch (RuntimeException | IOException e) {
+                throw new IOException("Corrupt booking journal line " + lineNumber + ": " + line, e);
+            }
+        }
+        if (lineStart < content.length()) {
+            written = content.substring(0, lineStart).getBytes(StandardCharsets.UTF_8).length;
+            channel.truncate(written);
+            channel.position(written);
+            synced = written;
+        }
+        return open;
+    }
+
+    /**
+     * Appends an accepted booking and returns the journal position to {@link #sync} up to.
+     */
+    public long accepted(String key, MeetingRequestDTO request) throws IOException {
+        String participants = request.getParticipantIds().stream().map(String::valueOf).collect(Collectors.joining(","));
+        return append("A|" + key + "|" + request.getOwnerId() + "|" + request.getStartTime() + "|" + request.getDuration()
+                + "|" + participants + "\n");
+    }
+
+    /**
+     * Records that the bookings were written to the database; not forced.
+     */
+    public void completed(Collection<String> keys) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (String key : keys) {
+            lines.append("D|").append(key).append('\n');
+        }
+        append(lines.toString());
+    }
+
+    /**
+     * Returns once everything up to position is on disk, forcing the file unless a concurrent
+     * caller already has.
+     */
+    public void sync(long position) throws IOException {
+        if (synced >= position) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced >= position) {
+                return;
+            }
+            long target;
+            synchronized (this) {
+                target = written;
+            }
+            channel.force(false);
+            synced = target;
+        }
+    }
+
+    /**
+     * Empties the journal if idle still holds while no record can be appended, so a booking
+     * accepted concurrently is never cut off.
+     */
+    public void truncateIf(BooleanSupplier idle) throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (!idle.getAsBoolean() || written == 0) {
+                    return;
+                }
+                channel.truncate(0);
+                channel.position(0);
+                written = 0;
+                synced = 0;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private synchronized long append(String record) throws IOException {
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(record);
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        return written;
+    }
+
+    private static MeetingRequestDTO request(String[] fields) {
+        MeetingRequestDTO request = new MeetingRequestDTO();
+        request.setOwnerId(Long.valueOf(fields[2]));
+        request.setStartTime(LocalDateTime.parse(fields[3]));
+        request.setDuration(Duration.parse(fields[4]));
+        List<Long> participantIds = new ArrayList<>();
+        if (!fields[5].isEmpty()) {
+            Arrays.stream(fields[5].split(",")).map(Long::valueOf).forEach(participantIds::add);
+        }
+        request.setParticipantIds(participantIds);
+        return request;
+    }
+}
@@ -0,0 +1,49 @@
+
+package com.meetme.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped in-process locks keyed by calendar ID. Writes to the same calendar are serialized while
+ * writes to different calendars only contend when they hash to the same stripe. Stripes are always
+ * acquired in ascending order, so multi-calendar writes cannot deadlock.
+ */
+@Component
+public class BookingLocks {
+
+    private final ReentrantLock[] stripes;
+
+    public BookingLocks(@Value("${meetme.booking.lock-stripes:256}") int stripeCount) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withLocks(Collection<Long> calendarIds, Supplier<T> action) {
+        int[] held = calendarIds.stream().mapToInt(this::stripeFor).distinct().sorted().toArray();
+        for (int stripe : held) {
+            stripes[stripe].lock();
+        }
+        try {
+            return action.get();
+        } finally {
+            for (int i = held.length - 1; i >= 0; i--) {
+                stripes[held[i]].unlock();
+            }
+        }
+    }
+
+    private int stripeFor(Long calendarId) {
+        if (calendarId == null) {
+            return 0;
+        }
+        long hash = calendarId * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(hash ^ (hash >>> 32), (long) stripes.length);
+    }
+}
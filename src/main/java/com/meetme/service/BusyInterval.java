@@ -0,0 +1,37 @@
+
+package com.meetme.service;
+
+import com.meetme.entities.Meeting;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A half-open [start, end) stretch of time in which a participant cannot be booked.
+ */
+@Value
+public class BusyInterval {
+    LocalDateTime start;
+    LocalDateTime end;
+
+    /**
+     * Adapts meetings that are already sorted by start time into a busy timeline.
+     */
+    public static Iterator<BusyInterval> fromMeetings(List<Meeting> meetings) {
+        Iterator<Meeting> iterator = meetings.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public BusyInterval next() {
+                Meeting meeting = iterator.next();
+                return new BusyInterval(meeting.getStartTime(), meeting.getEndTime());
+            }
+        };
+    }
+}
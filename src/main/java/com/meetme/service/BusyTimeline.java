@@ -0,0 +1,76 @@
+package com.meetme.service;
+
+import java.util.Iterator;
+
+/**
+ * A participant's busy time as a cursor over [start, end) ranges in {@link EpochSeconds}, sorted by
+ * start. {@link #next()} moves to the next range and the accessors read it, so walking a timeline
+ * allocates nothing.
+ */
+public interface BusyTimeline {
+
+    /**
+     * Moves to the next range, returning false once the timeline is exhausted.
+     */
+    boolean next();
+
+    long start();
+
+    long end();
+
+    /**
+     * Adapts busy intervals that are already sorted by start time.
+     */
+    static BusyTimeline of(Iterator<BusyInterval> intervals) {
+        return new BusyTimeline() {
+            private long start;
+            private long end;
+
+            @Override
+            public boolean next() {
+                if (!intervals.hasNext()) {
+                    return false;
+                }
+                BusyInterval interval = intervals.next();
+                start = EpochSeconds.of(interval.getStart());
+                end = EpochSeconds.of(interval.getEnd());
+                return true;
+            }
+
+            @Override
+            public long start() {
+                return start;
+            }
+
+            @Override
+            public long end() {
+                return end;
+            }
+        };
+    }
+
+    /**
+     * Widens every range of the timeline by padding seconds on both sides. Start order is kept.
+     */
+    static BusyTimeline padded(BusyTimeline timeline, long padding) {
+        if (padding == 0) {
+            return timeline;
+        }
+        return new BusyTimeline() {
+            @Override
+            public boolean next() {
+                return timeline.next();
+            }
+
+            @Override
+            public long start() {
+                return timeline.start() - padding;
+            }
+
+            @Override
+            public long end() {
+                return timeline.end() + padding;
+            }
+        };
+    }
+}
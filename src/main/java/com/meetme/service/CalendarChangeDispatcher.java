@@ -0,0 +1,590 @@
+package com.meetme.service;
+
+import com.meetme.dto.CalendarChangeDTO;
+import com.meetme.entities.CalendarChange;
+import com.meetme.event.MeetingChangedEvent;
+import com.meetme.repository.CalendarChangeRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the calendar changes recorded in the outbox to subscribers, each receiving the changes of
+ * the calendars it asked for. A single dispatcher thread reads the outbox in ID order, right after
+ * a write commits on this instance and otherwise every poll interval, which picks up the writes of
+ * other instances.
+ *
+ * The position of the stream is the last change ID dispatched on each shard, written as a
+ * comma-separated list in shard order, and every event carries the position after it. A subscriber
+ * handing back a position is first sent the changes of its calendars since then from the outbox. If
+ * they cannot all be sent, because the position is unknown, its changes have been purged or there
+ * are too many, it is sent a reset instead and has to reload its calendars as on a cold start.
+ *
+ * The dispatcher only queues events; each subscription has a bounded queue that a pool of sender
+ * threads writes out, one subscription at a time, so a slow client holds up neither the dispatcher
+ * nor the other subscribers. A subscription whose queue overflows has it replaced with a reset.
+ *
+ * Change IDs are taken when a change is inserted, not when it commits, so a lower ID can become
+ * visible after a higher one. The dispatcher waits at such a gap for up to the gap grace period and
+ * then moves past it, taking the missing IDs for rolled-back writes. Changes are kept for the
+ * retention period, except that the newest one of each shard is always kept so its position
+ * survives a restart.
+ */
+@Service
+public class CalendarChangeDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CalendarChangeDispatcher.class);
+
+    private static final int PAGE_SIZE = 500;
+
+    private static final Duration PURGE_INTERVAL = Duration.ofMinutes(1);
+
+    @Autowired
+    private CalendarChangeRepository calendarChangeRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @Autowired
+    private CalendarMetrics calendarMetrics;
+
+    private final Duration pollInterval;
+    private final Duration gapGrace;
+    private final Duration retention;
+    private final Duration heartbeatInterval;
+    private final Duration streamTimeout;
+    private final int maxSubscribers;
+    private final int maxCalendars;
+    private final int maxReplay;
+    private final int queueCapacity;
+    private final Executor senders;
+    private final Object lock = new Object();
+    private final ReadWriteLock purgeLock = new ReentrantReadWriteLock();
+    private final Set<Subscription> subscribers = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<Subscription>> subscribersByCalendar = new HashMap<>();
+    private final Semaphore wakeUp = new Semaphore(0);
+    private long[] positions;
+    private long[] gapAt;
+    private long[] gapSince;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    public CalendarChangeDispatcher(@Value("${meetme.changes.poll-interval:PT1S}") Duration pollInterval,
+                                    @Value("${meetme.changes.gap-grace:PT5S}") Duration gapGrace,
+                                    @Value("${meetme.changes.retention:PT24H}") Duration retention,
+                                    @Value("${meetme.changes.heartbeat:PT15S}") Duration heartbeatInterval,
+                                    @Value("${meetme.changes.stream-timeout:PT30M}") Duration streamTimeout,
+                                    @Value("${meetme.changes.max-subscribers:10000}") int maxSubscribers,
+                                    @Value("${meetme.changes.max-calendars:100}") int maxCalendars,
+                                    @Value("${meetme.changes.max-replay:10000}") int maxReplay,
+                                    @Value("${meetme.changes.queue-capacity:1000}") int queueCapacity,
+                                    @Value("${meetme.changes.senders:4}") int senders) {
+        this.pollInterval = pollInterval;
+        this.gapGrace = gapGrace;
+        this.retention = retention;
+        this.heartbeatInterval = heartbeatInterval;
+        this.streamTimeout = streamTimeout;
+        this.maxSubscribers = maxSubscribers;
+        this.maxCalendars = maxCalendars;
+        this.maxReplay = maxReplay;
+        this.queueCapacity = queueCapacity;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senders, task -> {
+            Thread thread = new Thread(task, "change-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts dispatching from the newest change of each shard. Runs once the application is ready,
+     * so the database is initialised; subscriptions before then are refused.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        resume();
+        calendarMetrics.changeSubscribers(subscribers::size);
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "change-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        wakeUp.release();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        if (senders instanceof ExecutorService) {
+            ((ExecutorService) senders).shutdownNow();
+        }
+    }
+
+    /**
+     * Sends a change committed on this instance without waiting for the next poll.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMeetingChanged(MeetingChangedEvent event) {
+        wakeUp.release();
+    }
+
+    /**
+     * Returns how long a stream stays open; clients reconnect with their last position after that.
+     */
+    public Duration getStreamTimeout() {
+        return streamTimeout;
+    }
+
+    /**
+     * Subscribes the sink to the changes of the calendars. Without a last position it is sent a
+     * ready event with the current position and then every new change. With one, it is first sent
+     * the changes since that position and a ready event, or a reset if they cannot all be sent.
+     * Catching up happens on the calling thread; new changes are queued meanwhile and follow it.
+     *
+     * @throws IllegalArgumentException if no calendars or too many are given
+     * @throws RejectedExecutionException if there are too many subscribers or the stream is not running
+     * @throws IOException if the sink fails while catching up, which leaves it unsubscribed
+     */
+    public Subscription subscribe(Collection<Long> calendarIds, String lastPosition, ChangeSink sink) throws IOException {
+        if (calendarIds.isEmpty() || calendarIds.size() > maxCalendars) {
+            throw new IllegalArgumentException("Between 1 and " + maxCalendars + " calendarIds are required");
+        }
+        if (!running || subscribers.size() >= maxSubscribers) {
+            throw new RejectedExecutionException("Not accepting change subscriptions right now");
+        }
+        Subscription subscription = new Subscription(new HashSet<>(calendarIds), sink);
+        long[] through;
+        synchronized (lock) {
+            through = positions.clone();
+            subscribers.add(subscription);
+            for (Long calendarId : subscription.calendarIds) {
+                subscribersByCalendar.computeIfAbsent(calendarId, id -> new HashSet<>()).add(subscription);
+            }
+        }
+
+        try {
+            long[] from = lastPosition != null ? parse(lastPosition) : through;
+            List<Event> replayed = from != null ? replay(subscription.calendarIds, from, through) : null;
+            if (replayed != null) {
+                for (Event event : replayed) {
+                    event.sendTo(sink);
+                }
+                sink.ready(format(through));
+            } else {
+                logger.debug("Resetting subscriber of calendars {} at position {}", calendarIds, lastPosition);
+                sink.reset(format(through));
+            }
+        } catch (IOException | RuntimeException e) {
+            subscription.cancel();
+            throw e;
+        }
+        subscription.caughtUp();
+        return subscription;
+    }
+
+    /**
+     * Starts from the newest change of each shard.
+     */
+    void resume() {
+        long[] last = new long[shardRouter.getShardCount()];
+        for (int shard = 0; shard < last.length; shard++) {
+            Long id = shardRouter.onShard(shard, calendarChangeRepository::findLastId);
+            last[shard] = id != null ? id : 0;
+        }
+        synchronized (lock) {
+            positions = last;
+            gapAt = new long[last.length];
+            gapSince = new long[last.length];
+        }
+    }
+
+    /**
+     * Queues the changes committed since the last call for their subscribers, shard by shard, up to
+     * a page per shard. Returns true if a shard may have more.
+     */
+    boolean dispatch(long nanoTime) {
+        boolean more = false;
+        int dispatched = 0;
+        for (int shard = 0; shard < positions.length; shard++) {
+            long after = positions[shard];
+            List<CalendarChange> page = shardRouter.onShard(shard,
+                    () -> calendarChangeRepository.findAfter(after, PageRequest.of(0, PAGE_SIZE)));
+            int committed = committedPrefix(shard, page, nanoTime);
+            if (committed == 0) {
+                continue;
+            }
+            synchronized (lock) {
+                for (CalendarChange change : page.subList(0, committed)) {
+                    positions[shard] = change.getId();
+                    queue(change);
+                }
+            }
+            dispatched += committed;
+            more |= committed == PAGE_SIZE;
+        }
+        if (dispatched > 0) {
+            calendarMetrics.changesDispatched(dispatched);
+        }
+        return more;
+    }
+
+    /**
+     * Deletes the changes created before the cutoff, except the newest one of each shard.
+     */
+    void purge(LocalDateTime before) {
+        for (int shard = 0; shard < positions.length; shard++) {
+            // not while a subscriber reads its changes, so it either sees them or knows they are gone
+            int deleted;
+            purgeLock.writeLock().lock();
+            try {
+                deleted = shardRouter.onShard(shard, () -> {
+                    Long last = calendarChangeRepository.findLastId();
+                    return last != null ? transactionOperations.execute(status -> calendarChangeRepository.deleteOlderThan(before, last)) : 0;
+                });
+            } finally {
+                purgeLock.writeLock().unlock();
+            }
+            if (deleted > 0) {
+                logger.info("Purged {} calendar changes created before {} on shard {}", deleted, before, shard);
+            }
+        }
+    }
+
+    private void dispatchLoop() {
+        long nextHeartbeat = System.nanoTime() + heartbeatInterval.toNanos();
+        long nextPurge = System.nanoTime();
+        while (running) {
+            try {
+                wakeUp.tryAcquire(pollInterval.toNanos(), TimeUnit.NANOSECONDS);
+                wakeUp.drainPermits();
+                while (running && dispatch(System.nanoTime())) {
+                    // a full page went out; read on before waiting
+                }
+                long now = System.nanoTime();
+                if (now - nextHeartbeat >= 0) {
+                    heartbeat();
+                    nextHeartbeat = now + heartbeatInterval.toNanos();
+                }
+                if (now - nextPurge >= 0) {
+                    purge(LocalDateTime.now().minus(retention));
+                    nextPurge = now + PURGE_INTERVAL.toNanos();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Dispatching calendar changes failed, retrying", e);
+            }
+        }
+    }
+
+    /**
+     * Returns how many of the changes read after the shard's position can go out: all of them up to
+     * the first gap in their IDs, or past the gap once the shard has waited at it for the grace
+     * period.
+     */
+    private int committedPrefix(int shard, List<CalendarChange> page, long nanoTime) {
+        long expected = positions[shard] + 1;
+        for (int i = 0; i < page.size(); i++) {
+            long id = page.get(i).getId();
+            if (id != expected) {
+                if (gapAt[shard] != expected) {
+                    gapAt[shard] = expected;
+                    gapSince[shard] = nanoTime;
+                }
+                if (nanoTime - gapSince[shard] < gapGrace.toNanos()) {
+                    return i;
+                }
+                logger.debug("Skipping change IDs {} to {} on shard {}, never committed", expected, id - 1, shard);
+            }
+            expected = id + 1;
+        }
+        return page.size();
+    }
+
+    private void queue(CalendarChange change) {
+        Set<Subscription> recipients = subscribersByCalendar.get(change.getCalendarId());
+        if (recipients == null) {
+            return;
+        }
+        Event event = Event.change(format(positions), toDTO(change));
+        for (Subscription subscription : recipients) {
+            subscription.offer(event);
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscription subscription : subscribers) {
+            subscription.offerHeartbeat();
+        }
+    }
+
+    /**
+     * Reads the changes of the calendars after from up to through, shard by shard. Returns null if
+     * they cannot all be sent.
+     */
+    private List<Event> replay(Set<Long> calendarIds, long[] from, long[] through) {
+        for (int shard = 0; shard < through.length; shard++) {
+            if (from[shard] > through[shard]) {
+                return null;
+            }
+        }
+        long[] position = from.clone();
+        List<Event> events = new ArrayList<>();
+        purgeLock.readLock().lock();
+        try {
+            for (int shard = 0; shard < through.length; shard++) {
+                if (from[shard] == through[shard]) {
+                    continue;
+                }
+                Long first = shardRouter.onShard(shard, calendarChangeRepository::findFirstId);
+                if (first != null && from[shard] < first - 1) {
+                    return null;
+                }
+                long last = through[shard];
+                long after = from[shard];
+                while (true) {
+                    long since = after;
+                    List<CalendarChange> page = shardRouter.onShard(shard, () -> calendarChangeRepository.findOfCalendars(
+                            calendarIds, since, last, PageRequest.of(0, PAGE_SIZE)));
+                    for (CalendarChange change : page) {
+                        if (events.size() == maxReplay) {
+                            return null;
+                        }
+                        position[shard] = change.getId();
+                        events.add(Event.change(format(position), toDTO(change)));
+                    }
+                    if (page.size() < PAGE_SIZE) {
+                        break;
+                    }
+                    after = page.get(page.size() - 1).getId();
+                }
+                position[shard] = last;
+            }
+        } finally {
+            purgeLock.readLock().unlock();
+        }
+        return events;
+    }
+
+    private long[] parse(String position) {
+        String[] parts = position.split(",", -1);
+        if (parts.length != positions.length) {
+            return null;
+        }
+        long[] parsed = new long[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                parsed[i] = Long.parseLong(parts[i].trim());
+                if (parsed[i] < 0) {
+                    return null;
+                }
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return parsed;
+    }
+
+    private static String format(long[] position) {
+        return Arrays.stream(position).mapToObj(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private static CalendarChangeDTO toDTO(CalendarChange change) {
+        return new CalendarChangeDTO(change.getKind(), change.getCalendarId(), change.getMeetingId(), change.getSeriesId(),
+                change.getStartTime(), change.getEndTime());
+    }
+
+    /**
+     * Receives the events of one subscription, each with the stream position after it. Calls may
+     * come from different threads; one that throws ends the subscription.
+     */
+    public interface ChangeSink {
+        void change(String position, CalendarChangeDTO change) throws IOException;
+
+        /** Every change before position has been sent. */
+        void ready(String position) throws IOException;
+
+        /** Changes before position cannot be sent; what the subscriber holds must be reloaded. */
+        void reset(String position) throws IOException;
+
+        void heartbeat() throws IOException;
+    }
+
+    /**
+     * One queued event of a subscription.
+     */
+    private static final class Event {
+        private static final Event HEARTBEAT = new Event(null, null, false);
+
+        private final String position;
+        private final CalendarChangeDTO change;
+        private final boolean reset;
+
+        private Event(String position, CalendarChangeDTO change, boolean reset) {
+            this.position = position;
+            this.change = change;
+            this.reset = reset;
+        }
+
+        private static Event change(String position, CalendarChangeDTO change) {
+            return new Event(position, change, false);
+        }
+
+        private static Event reset(String position) {
+            return new Event(position, null, true);
+        }
+
+        private void sendTo(ChangeSink sink) throws IOException {
+            if (change != null) {
+                sink.change(position, change);
+            } else if (reset) {
+                sink.reset(position);
+            } else {
+                sink.heartbeat();
+            }
+        }
+    }
+
+    public final class Subscription {
+        private final Set<Long> calendarIds;
+        private final ChangeSink sink;
+        private final ArrayDeque<Event> queue = new ArrayDeque<>();
+        private boolean caughtUp;
+        private boolean sending;
+        private volatile boolean cancelled;
+
+        private Subscription(Set<Long> calendarIds, ChangeSink sink) {
+            this.calendarIds = calendarIds;
+            this.sink = sink;
+        }
+
+        /**
+         * Queues a change, or replaces the queue with a reset at its position if the queue is full.
+         */
+        private void offer(Event event) {
+            synchronized (this) {
+                if (queue.size() >= queueCapacity) {
+                    logger.debug("Change queue of subscriber of calendars {} overflowed, resetting it", calendarIds);
+                    queue.clear();
+                    queue.add(Event.reset(event.position));
+                } else {
+                    queue.add(event);
+                }
+            }
+            schedule();
+        }
+
+        private void offerHeartbeat() {
+            synchronized (this) {
+                if (!queue.isEmpty()) {
+                    return;
+                }
+                queue.add(Event.HEARTBEAT);
+            }
+            schedule();
+        }
+
+        private void caughtUp() {
+            synchronized (this) {
+                caughtUp = true;
+            }
+            schedule();
+        }
+
+        /**
+         * Hands the queue to a sender unless one has it already or catching up is not done.
+         */
+        private void schedule() {
+            synchronized (this) {
+                if (sending || !caughtUp || queue.isEmpty() || cancelled) {
+                    return;
+                }
+                sending = true;
+            }
+            try {
+                senders.execute(this::send);
+            } catch (RejectedExecutionException e) {
+                cancel();
+            }
+        }
+
+        private void send() {
+            while (true) {
+                Event event;
+                synchronized (this) {
+                    event = cancelled ? null : queue.poll();
+                    if (event == null) {
+                        sending = false;
+                        return;
+                    }
+                }
+                try {
+                    event.sendTo(sink);
+                } catch (IOException | RuntimeException e) {
+                    logger.debug("Dropping change subscriber: {}", e.toString());
+                    cancel();
+                }
+            }
+        }
+
+        public void cancel() {
+            if (!subscribers.remove(this)) {
+                return;
+            }
+            cancelled = true;
+            synchronized (this) {
+                queue.clear();
+            }
+            synchronized (lock) {
+                for (Long calendarId : calendarIds) {
+                    Set<Subscription> recipients = subscribersByCalendar.get(calendarId);
+                    if (recipients != null && recipients.remove(this) && recipients.isEmpty()) {
+                        subscribersByCalendar.remove(calendarId);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.meetme.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Application meters for booking, conflict checks and availability. All names start with
+ * "meetme." so histograms and percentiles can be switched on for the lot through the
+ * management.metrics.distribution.* properties.
+ */
+@Component
+public class CalendarMetrics {
+
+    private final MeterRegistry registry;
+
+    public CalendarMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Timer.Sample startTimer() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * Records the latency of a booking call; operation is "single" or "batch", outcome is
+     * "booked", "conflict" or "error".
+     */
+    public void bookingFinished(Timer.Sample sample, String operation, String outcome) {
+        sample.stop(Timer.builder("meetme.booking.latency")
+                .description("Time to book a meeting or a batch of meetings")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry));
+    }
+
+    public void conflictsDetected(String operation, int count) {
+        if (count > 0) {
+            Counter.builder("meetme.conflicts.detected")
+                    .description("Conflicts found while booking or checking participants")
+                    .tag("operation", operation)
+                    .register(registry)
+                    .increment(count);
+        }
+    }
+
+    /**
+     * Records how many meetings the in-memory indexes consulted by one check hold; a check
+     * answered by the database shows up in the round-trip count instead.
+     */
+    public void meetingsScanned(String operation, int count) {
+        summary("meetme.conflicts.meetings.scanned", "Meetings held by the calendars searched in memory per check", operation, count);
+    }
+
+    /**
+     * Publishes the number of asynchronous bookings accepted but not yet written.
+     */
+    public void asyncBookingsPending(Supplier<Number> pending) {
+        Gauge.builder("meetme.booking.async.pending", pending)
+                .description("Asynchronous bookings accepted but not yet written to the database")
+                .register(registry);
+    }
+
+    /**
+     * Publishes the number of open change streams.
+     */
+    public void changeSubscribers(Supplier<Number> subscribers) {
+        Gauge.builder("meetme.changes.subscribers", subscribers)
+                .description("Clients subscribed to the calendar change stream")
+                .register(registry);
+    }
+
+    public void changesDispatched(int count) {
+        summary("meetme.changes.dispatched", "Calendar changes dispatched per poll of the outbox", "dispatch", count);
+    }
+
+    public void asyncBatchWritten(int size) {
+        summary("meetme.booking.async.batch", "Asynchronous bookings written per database transaction", "write", size);
+    }
+
+    public void participants(String operation, int count) {
+        summary("meetme.request.participants", "Participants per request", operation, count);
+    }
+
+    public void freeSlots(String operation, int count) {
+        summary("meetme.availability.slots", "Free slots returned per availability request", operation, count);
+    }
+
+    public void databaseRoundTrips(String uri, int count) {
+        DistributionSummary.builder("meetme.db.round.trips")
+                .description("SQL statements executed per HTTP request")
+                .tag("uri", uri)
+                .register(registry)
+                .record(count);
+    }
+
+    private void summary(String name, String description, String operation, int count) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .tag("operation", operation)
+                .register(registry)
+                .record(count);
+    }
+}
@@ -1,24 +1,70 @@
 
 package com.meetme.service;
 
+import com.meetme.dto.BookingResultDTO;
+import com.meetme.dto.BookingStatus;
+import com.meetme.dto.ConflictDTO;
+import com.meetme.dto.MeetingRequestDTO;
+import com.meetme.dto.RoomSlotDTO;
+import com.meetme.dto.WorkingHoursDTO;
+import com.meetme.entities.CalendarChange;
+import com.meetme.entities.ChangeKind;
+import com.meetme.entities.Resource;
+import com.meetme.entities.ResourceKind;
 import com.meetme.entities.User;
+import com.meetme.event.MeetingChangedEvent;
 import com.meetme.exception.MeetingConflictException;
+import com.meetme.exception.MeetingNotFoundException;
+import com.meetme.exception.ResourceNotFoundException;
 import com.meetme.exception.UserNotFoundException;
+import com.meetme.repository.CalendarChangeRepository;
+import com.meetme.repository.CalendarMeetingView;
+import com.meetme.repository.CalendarRepository;
 import com.meetme.repository.MeetingRepository;
+import com.meetme.repository.MeetingSeriesRepository;
+import com.meetme.repository.ResourceRepository;
+import com.meetme.repository.UserSummaryView;
+import com.meetme.repository.UserMeetingView;
 import com.meetme.repository.UserRepository;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
 import com.meetme.entities.Calendar;
 import com.meetme.entities.Meeting;
+import com.meetme.entities.MeetingSeries;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
@@ -30,107 +76,1347 @@ public class CalendarService {
     @Autowired
     private MeetingRepository meetingRepository;
 
+    @Autowired
+    private MeetingSeriesRepository meetingSeriesRepository;
+
+    @Autowired
+    private CalendarSnapshotStore calendarSnapshots;
+
+    @Autowired
+    private FreeBusyCache freeBusyCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CalendarRepository calendarRepository;
+
+    @Autowired
+    private ResourceRepository resourceRepository;
+
+    @Autowired
+    private CalendarChangeRepository calendarChangeRepository;
+
+    @Autowired
+    private BookingLocks bookingLocks;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @Autowired
+    private FanOutExecutor fanOutExecutor;
+
+    @Autowired
+    private CalendarMetrics calendarMetrics;
+
+    @Autowired
+    private LogSampler logSampler;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
     private static final Logger logger = LoggerFactory.getLogger(CalendarService.class);
 
+    private static final int BITMAP_MIN_PARTICIPANTS = 8;
+
+    private static final int MAX_AVAILABILITY_DAYS = 31;
+
+    // A slot search stops early, so it may look further ahead; it loads a week at a time
+    private static final int MAX_SLOT_SEARCH_DAYS = 92;
+    private static final int SLOT_SEARCH_CHUNK_DAYS = 7;
+    private static final int MAX_SLOT_SEARCH_LIMIT = 100;
+
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    /** How far ahead a new series is checked occurrence by occurrence against the calendar. */
+    private static final Duration SERIES_CONFLICT_HORIZON = Duration.ofDays(366);
+
+    /** Meeting times are stored as local date-times in the server's zone. */
+    private static final ZoneId STORAGE_ZONE = ZoneId.systemDefault();
+
     public Meeting bookMeeting(Long ownerId, LocalDateTime startTime, Duration duration, List<Long> participantIds) {
-        logger.info("Attempting to book a meeting for user ID: {}", ownerId);
+        logger.debug("Attempting to book a meeting for user ID: {}", ownerId);
+        Timer.Sample sample = calendarMetrics.startTimer();
+        calendarMetrics.participants("book", participantIds.size() + 1);
+        String outcome = "error";
+        try {
+            List<Long> userIds = new ArrayList<>(participantIds.size() + 1);
+            userIds.add(ownerId);
+            userIds.addAll(participantIds);
+            shardRouter.commonShard(userIds);
+            Map<Long, FreeBusyProfile> profiles = getProfiles(userIds);
+            // Locking the participants' calendars too means two bookings sharing a participant are
+            // checked one after the other, on this instance and across instances
+            List<Long> calendarIds = userIds.stream().map(id -> profiles.get(id).getCalendarId())
+                    .distinct().sorted().collect(Collectors.toList());
+            Meeting saved = writeCalendars(calendarIds,
+                    status -> {
+                        lockCalendars(calendarIds);
+                        return doBookMeeting(ownerId, startTime, duration, participantIds);
+                    },
+                    calendarSnapshots::meetingAdded);
 
+            if (logger.isDebugEnabled()) {
+                logger.debug("Meeting successfully booked for user ID: {} from {} to {}", ownerId, startTime, saved.getEndTime());
+            }
+            if (logSampler.sample()) {
+                logger.info("op=bookMeeting ownerId={} participants={} meetingId={}", ownerId, participantIds.size(), saved.getId());
+            }
+            outcome = "booked";
+            return saved;
+        } catch (MeetingConflictException e) {
+            outcome = "conflict";
+            calendarMetrics.conflictsDetected("book", 1);
+            throw e;
+        } finally {
+            calendarMetrics.bookingFinished(sample, "single", outcome);
+        }
+    }
 
-        User owner = userRepository.findById(ownerId)
-                .orElseThrow(() -> new UserNotFoundException("User "+ownerId+" not found."));
+    private Meeting doBookMeeting(Long ownerId, LocalDateTime startTime, Duration duration, List<Long> participantIds) {
+        List<Long> userIds = new ArrayList<>(participantIds.size() + 1);
+        userIds.add(ownerId);
+        userIds.addAll(participantIds);
+        List<User> users = loadUsers(userIds);
+        User owner = users.get(0);
 
         LocalDateTime endTime = startTime.plus(duration);
-        List<Meeting> conflicts = getConflicts(owner.getCalendar().getMeetings(), startTime, endTime);
-
-        if (!conflicts.isEmpty()) {
-            logger.warn("Meeting conflict detected for time range: {} - {}", startTime, endTime);
+        if (hasConflicts(owner.getCalendar(), startTime, endTime)) {
+            logger.debug("Meeting conflict detected for time range: {} - {}", startTime, endTime);
             throw new MeetingConflictException("Meeting conflict detected");
         }
+        List<Long> busyUserIds = findBusyUserIds(users, startTime, endTime);
+        if (!busyUserIds.isEmpty()) {
+            logger.debug("Meeting conflict detected for users {} in time range: {} - {}", busyUserIds, startTime, endTime);
+            throw new MeetingConflictException("Meeting conflict detected for users: " + busyUserIds);
+        }
 
         Meeting meeting = new Meeting();
         meeting.setStartTime(startTime);
         meeting.setEndTime(endTime);
         meeting.setCalendar(owner.getCalendar());
 
-        List<User> participants = participantIds.stream()
-                .map(id -> userRepository.findById(id).orElseThrow(() -> new UserNotFoundException("User "+ownerId+" not found.")))
-                .collect(Collectors.toList());
+        List<User> participants = new ArrayList<>(users.subList(1, users.size()));
 
         meeting.setParticipants(participants);
-        owner.getCalendar().getMeetings().add(meeting);
+        if (Hibernate.isInitialized(owner.getCalendar().getMeetings())) {
+            owner.getCalendar().getMeetings().add(meeting);
+        }
+
+        Meeting saved = meetingRepository.save(meeting);
+        calendarChangeRepository.saveAll(changesOf(ChangeKind.MEETING_BOOKED, saved.getId(), null, null, users, startTime, endTime));
+
+        List<Long> affectedUserIds = new ArrayList<>(participantIds);
+        affectedUserIds.add(ownerId);
+        eventPublisher.publishEvent(new MeetingChangedEvent(affectedUserIds, startTime, endTime));
+        return saved;
+    }
+
+    /**
+     * Books a resource: a meeting in the resource's calendar with the organizer and participants as
+     * its participants. Refused if the resource or any of them is busy.
+     */
+    public Meeting bookResource(Long resourceId, Long organizerId, LocalDateTime startTime, Duration duration, List<Long> participantIds) {
+        logger.debug("Attempting to book resource ID: {} for user ID: {}", resourceId, organizerId);
+        Timer.Sample sample = calendarMetrics.startTimer();
+        calendarMetrics.participants("book-resource", participantIds.size() + 1);
+        String outcome = "error";
+        try {
+            List<Long> userIds = new ArrayList<>(participantIds.size() + 1);
+            userIds.add(organizerId);
+            userIds.addAll(participantIds);
+            List<Long> routed = new ArrayList<>(userIds);
+            routed.add(resourceId);
+            int shard = shardRouter.commonShard(routed);
+            Resource resource = shardRouter.onShard(shard, () -> resourceRepository.findById(resourceId))
+                    .orElseThrow(() -> new ResourceNotFoundException("Resource " + resourceId + " not found."));
+            Long calendarId = resource.getCalendar().getId();
+            Map<Long, FreeBusyProfile> profiles = getProfiles(userIds);
+            Set<Long> attendeeCalendarIds = new TreeSet<>();
+            attendeeCalendarIds.add(calendarId);
+            userIds.forEach(id -> attendeeCalendarIds.add(profiles.get(id).getCalendarId()));
+            List<Long> calendarIds = new ArrayList<>(attendeeCalendarIds);
 
-        logger.info("Meeting successfully booked for user ID: {} from {} to {}", ownerId, startTime, endTime);
-        return meetingRepository.save(meeting);
+            Meeting saved = writeCalendars(calendarIds,
+                    status -> {
+                        lockCalendars(calendarIds);
+                        return doBookResource(calendarId, userIds, startTime, duration);
+                    },
+                    calendarSnapshots::meetingAdded);
+            outcome = "booked";
+            return saved;
+        } catch (MeetingConflictException e) {
+            outcome = "conflict";
+            calendarMetrics.conflictsDetected("book-resource", 1);
+            throw e;
+        } finally {
+            calendarMetrics.bookingFinished(sample, "resource", outcome);
+        }
     }
 
-    public List<User> checkConflicts(List<Long> participantIds, LocalDateTime startTime, Duration duration) {
+    private Meeting doBookResource(Long calendarId, List<Long> userIds, LocalDateTime startTime, Duration duration) {
+        Calendar calendar = calendarRepository.findById(calendarId)
+                .orElseThrow(() -> new ResourceNotFoundException("Calendar " + calendarId + " not found."));
+        List<Long> attendeeIds = userIds.stream().distinct().collect(Collectors.toList());
+        List<User> attendees = loadUsers(attendeeIds);
+
         LocalDateTime endTime = startTime.plus(duration);
-        List<User> conflicts = new ArrayList<>();
+        if (hasConflicts(calendar, startTime, endTime)) {
+            logger.debug("Resource calendar {} is booked in time range: {} - {}", calendarId, startTime, endTime);
+            throw new MeetingConflictException("Resource is already booked at that time");
+        }
+        List<Long> busyUserIds = findBusyUserIds(attendees, startTime, endTime);
+        if (!busyUserIds.isEmpty()) {
+            throw new MeetingConflictException("Meeting conflict detected for users: " + busyUserIds);
+        }
+
+        Meeting meeting = new Meeting();
+        meeting.setStartTime(startTime);
+        meeting.setEndTime(endTime);
+        meeting.setCalendar(calendar);
+        meeting.setParticipants(attendees);
+        Meeting saved = meetingRepository.save(meeting);
+        calendarChangeRepository.saveAll(changesOf(ChangeKind.MEETING_BOOKED, saved.getId(), null, calendar, attendees, startTime, endTime));
+
+        eventPublisher.publishEvent(new MeetingChangedEvent(attendeeIds, startTime, endTime));
+        return saved;
+    }
+
+    /**
+     * Books a batch of meetings in one transaction. Every request is checked against existing
+     * meetings and against the requests accepted before it in the same batch; accepted meetings are
+     * inserted with JDBC batching. Returns one result per request, in request order.
+     */
+    public List<BookingResultDTO> bookMeetings(List<MeetingRequestDTO> requests) {
+        return bookMeetings(requests, null);
+    }
+
+    /**
+     * Books a batch as {@link #bookMeetings(List)} does, storing each accepted meeting with the
+     * idempotency key at the same position, if any.
+     */
+    public List<BookingResultDTO> bookMeetings(List<MeetingRequestDTO> requests, List<String> idempotencyKeys) {
+        logger.debug("Attempting to book a batch of {} meetings", requests.size());
+        Timer.Sample sample = calendarMetrics.startTimer();
+        String outcome = "error";
+        try {
+            List<BookingResultDTO> results = shardRouter.isSharded()
+                    ? bookMeetingsByShard(requests, idempotencyKeys)
+                    : doBookMeetingsLocked(requests, idempotencyKeys);
+            calendarMetrics.conflictsDetected("batch",
+                    (int) results.stream().filter(result -> result.getStatus() == BookingStatus.CONFLICT).count());
+            outcome = "booked";
+            return results;
+        } finally {
+            calendarMetrics.bookingFinished(sample, "batch", outcome);
+        }
+    }
+
+    /**
+     * Books the requests of each owner's shard as a batch of their own and puts the results back in
+     * request order. A request whose participants are on another shard than its owner is invalid.
+     */
+    private List<BookingResultDTO> bookMeetingsByShard(List<MeetingRequestDTO> requests, List<String> idempotencyKeys) {
+        BookingResultDTO[] results = new BookingResultDTO[requests.size()];
+        Map<Integer, List<Integer>> byShard = new TreeMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            MeetingRequestDTO request = requests.get(i);
+            List<Long> userIds = new ArrayList<>();
+            userIds.add(request.getOwnerId());
+            if (request.getParticipantIds() != null) {
+                userIds.addAll(request.getParticipantIds());
+            }
+            if (shardRouter.partition(userIds).size() > 1) {
+                results[i] = new BookingResultDTO(i, BookingStatus.INVALID, null, "Owner and participants must be on the same shard");
+                continue;
+            }
+            byShard.computeIfAbsent(shardRouter.shardOf(request.getOwnerId()), shard -> new ArrayList<>()).add(i);
+        }
+        byShard.forEach((shard, indexes) -> {
+            List<MeetingRequestDTO> shardRequests = indexes.stream().map(requests::get).collect(Collectors.toList());
+            List<String> shardKeys = idempotencyKeys != null ? indexes.stream().map(idempotencyKeys::get).collect(Collectors.toList()) : null;
+            for (BookingResultDTO result : shardRouter.onShard(shard, () -> doBookMeetingsLocked(shardRequests, shardKeys))) {
+                int index = indexes.get(result.getIndex());
+                result.setIndex(index);
+                results[index] = result;
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    private List<BookingResultDTO> doBookMeetingsLocked(List<MeetingRequestDTO> requests, List<String> idempotencyKeys) {
+        Set<Long> userIds = new HashSet<>();
+        for (MeetingRequestDTO request : requests) {
+            if (request.getOwnerId() != null) {
+                userIds.add(request.getOwnerId());
+            }
+            if (request.getParticipantIds() != null) {
+                request.getParticipantIds().stream().filter(Objects::nonNull).forEach(userIds::add);
+            }
+        }
+        // every attendee's calendar, so a single booking for one of the participants waits for the batch
+        Set<Long> calendarIds = findProfiles(userIds).values().stream().map(FreeBusyProfile::getCalendarId)
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        BatchBooking booking = writeCalendars(calendarIds, status -> {
+                    lockCalendars(calendarIds);
+                    return doBookMeetings(requests, idempotencyKeys);
+                },
+                done -> done.saved.forEach(calendarSnapshots::meetingAdded));
+
+        logger.debug("Booked {} of {} meetings in batch", booking.saved.size(), requests.size());
+        if (logSampler.sample()) {
+            logger.info("op=bookMeetings requests={} booked={}", requests.size(), booking.saved.size());
+        }
+        return booking.results;
+    }
+
+    private BatchBooking doBookMeetings(List<MeetingRequestDTO> requests, List<String> idempotencyKeys) {
+        Set<Long> userIds = new HashSet<>();
+        for (MeetingRequestDTO request : requests) {
+            if (request.getOwnerId() != null) {
+                userIds.add(request.getOwnerId());
+            }
+            if (request.getParticipantIds() != null) {
+                userIds.addAll(request.getParticipantIds());
+            }
+        }
+        Map<Long, User> users = userIds.isEmpty() ? Map.of() : userRepository.findByIdIn(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        Map<Long, MeetingIntervalIndex> indexes = loadBatchIndexes(requests, users);
+        Map<Long, MeetingIntervalIndex> userIndexes = loadBatchUserIndexes(requests, users);
+
+        List<BookingResultDTO> results = new ArrayList<>(requests.size());
+        List<Meeting> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            MeetingRequestDTO request = requests.get(i);
+            if (request.getOwnerId() == null || request.getStartTime() == null || request.getDuration() == null
+                    || request.getDuration().isNegative() || request.getDuration().isZero()) {
+                results.add(new BookingResultDTO(i, BookingStatus.INVALID, null, "ownerId, startTime and a positive duration are required"));
+                continue;
+            }
+            // the owner is always an attendee, so listing them or anyone else twice changes nothing
+            List<Long> participantIds = request.getParticipantIds() == null ? List.of() : request.getParticipantIds().stream()
+                    .filter(id -> !Objects.equals(id, request.getOwnerId())).distinct().collect(Collectors.toList());
+            List<Long> missing = new ArrayList<>();
+            if (!users.containsKey(request.getOwnerId())) {
+                missing.add(request.getOwnerId());
+            }
+            participantIds.stream().filter(id -> !users.containsKey(id)).forEach(missing::add);
+            if (!missing.isEmpty()) {
+                results.add(new BookingResultDTO(i, BookingStatus.USER_NOT_FOUND, null, "Users not found with IDs: " + missing));
+                continue;
+            }
+
+            Calendar calendar = users.get(request.getOwnerId()).getCalendar();
+            LocalDateTime endTime = request.getStartTime().plus(request.getDuration());
+            MeetingIntervalIndex index = indexes.get(calendar.getId());
+            List<MeetingIntervalIndex> attendeeIndexes = new ArrayList<>(participantIds.size() + 1);
+            attendeeIndexes.add(userIndexes.get(request.getOwnerId()));
+            participantIds.forEach(id -> attendeeIndexes.add(userIndexes.get(id)));
+            if (index.hasOverlap(request.getStartTime(), endTime)
+                    || attendeeIndexes.stream().anyMatch(attendee -> attendee.hasOverlap(request.getStartTime(), endTime))) {
+                results.add(new BookingResultDTO(i, BookingStatus.CONFLICT, null, "Meeting conflict detected"));
+                continue;
+            }
+
+            Meeting meeting = new Meeting();
+            meeting.setStartTime(request.getStartTime());
+            meeting.setEndTime(endTime);
+            meeting.setCalendar(calendar);
+            meeting.setParticipants(participantIds.stream().map(users::get).collect(Collectors.toList()));
+            if (idempotencyKeys != null) {
+                meeting.setIdempotencyKey(idempotencyKeys.get(i));
+            }
+            index.add(meeting);
+            attendeeIndexes.forEach(attendee -> attendee.add(meeting));
+            accepted.add(meeting);
+            acceptedIndexes.add(i);
+            results.add(null);
+        }
+
+        List<Meeting> saved = meetingRepository.saveAll(accepted);
+        List<CalendarChange> changes = new ArrayList<>();
+        for (int i = 0; i < saved.size(); i++) {
+            Meeting meeting = saved.get(i);
+            int requestIndex = acceptedIndexes.get(i);
+            results.set(requestIndex, new BookingResultDTO(requestIndex, BookingStatus.BOOKED, meeting.getId(), null));
+
+            MeetingRequestDTO request = requests.get(requestIndex);
+            List<Long> affectedUserIds = new ArrayList<>(meeting.getParticipants().size() + 1);
+            affectedUserIds.add(request.getOwnerId());
+            meeting.getParticipants().forEach(participant -> affectedUserIds.add(participant.getId()));
+            eventPublisher.publishEvent(new MeetingChangedEvent(affectedUserIds, meeting.getStartTime(), meeting.getEndTime()));
+            changes.addAll(changesOf(ChangeKind.MEETING_BOOKED, meeting.getId(), null, meeting.getCalendar(), meeting.getParticipants(),
+                    meeting.getStartTime(), meeting.getEndTime()));
+        }
+        calendarChangeRepository.saveAll(changes);
+        return new BatchBooking(results, saved);
+    }
+
+    private static final class BatchBooking {
+        private final List<BookingResultDTO> results;
+        private final List<Meeting> saved;
+
+        private BatchBooking(List<BookingResultDTO> results, List<Meeting> saved) {
+            this.results = results;
+            this.saved = saved;
+        }
+    }
+
+    /**
+     * Builds a scratch interval index per user in the batch, owners and participants alike, seeded
+     * with what keeps them busy during the batch's time span, as {@link #findBusyMeetingsOfUsers}
+     * loads it.
+     */
+    private Map<Long, MeetingIntervalIndex> loadBatchUserIndexes(List<MeetingRequestDTO> requests, Map<Long, User> users) {
+        Map<Long, MeetingIntervalIndex> indexes = new HashMap<>();
+        users.keySet().forEach(userId -> indexes.put(userId, new MeetingIntervalIndex()));
+        LocalDateTime earliest = null;
+        LocalDateTime latest = null;
+        for (MeetingRequestDTO request : requests) {
+            if (request.getStartTime() == null || request.getDuration() == null) {
+                continue;
+            }
+            LocalDateTime end = request.getStartTime().plus(request.getDuration());
+            earliest = earliest == null || request.getStartTime().isBefore(earliest) ? request.getStartTime() : earliest;
+            latest = latest == null || end.isAfter(latest) ? end : latest;
+        }
+        if (!indexes.isEmpty() && earliest != null) {
+            findBusyMeetingsOfUsers(users.values(), earliest, latest)
+                    .forEach((userId, meetings) -> meetings.forEach(indexes.get(userId)::add));
+        }
+        return indexes;
+    }
+
+    /**
+     * Builds a scratch interval index per owner calendar in the batch, seeded with the existing
+     * meetings that overlap the batch's time span, loaded in one query. Series occurrences are in
+     * the owners' user indexes.
+     */
+    private Map<Long, MeetingIntervalIndex> loadBatchIndexes(List<MeetingRequestDTO> requests, Map<Long, User> users) {
+        Map<Long, MeetingIntervalIndex> indexes = new HashMap<>();
+        LocalDateTime earliest = null;
+        LocalDateTime latest = null;
+        for (MeetingRequestDTO request : requests) {
+            User owner = request.getOwnerId() != null ? users.get(request.getOwnerId()) : null;
+            if (owner == null || request.getStartTime() == null || request.getDuration() == null) {
+                continue;
+            }
+            indexes.putIfAbsent(owner.getCalendar().getId(), new MeetingIntervalIndex());
+            LocalDateTime end = request.getStartTime().plus(request.getDuration());
+            earliest = earliest == null || request.getStartTime().isBefore(earliest) ? request.getStartTime() : earliest;
+            latest = latest == null || end.isAfter(latest) ? end : latest;
+        }
+        if (!indexes.isEmpty()) {
+            for (Meeting existing : meetingRepository.findOverlappingInCalendars(indexes.keySet(), earliest, latest)) {
+                indexes.get(existing.getCalendar().getId()).add(existing);
+            }
+        }
+        return indexes;
+    }
+
+    public void cancelMeeting(Long meetingId) {
+        // meeting IDs carry no shard, so each is asked; the write then goes to the calendar's
+        Meeting found = shardRouter.findOnAnyShard(() -> meetingRepository.findById(meetingId))
+                .orElseThrow(() -> new MeetingNotFoundException("Meeting "+meetingId+" not found."));
+        List<Long> calendarIds = found.getCalendar() != null ? Collections.singletonList(found.getCalendar().getId()) : List.<Long>of();
+
+        writeCalendars(calendarIds, status -> {
+            lockCalendars(calendarIds);
+            Meeting meeting = meetingRepository.findById(meetingId)
+                    .orElseThrow(() -> new MeetingNotFoundException("Meeting "+meetingId+" not found."));
+
+            Calendar calendar = meeting.getCalendar();
+            if (calendar != null && Hibernate.isInitialized(calendar.getMeetings())) {
+                calendar.getMeetings().removeIf(m -> meetingId.equals(m.getId()));
+            }
+            List<Long> affectedUserIds = meeting.getParticipants().stream().map(User::getId).collect(Collectors.toCollection(ArrayList::new));
+            if (calendar != null) {
+                userRepository.findByCalendarId(calendar.getId()).ifPresent(owner -> affectedUserIds.add(owner.getId()));
+            }
 
-        for (Long id : participantIds) {
-            User user = userRepository.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
-            if (!getConflicts(user.getCalendar().getMeetings(), startTime, endTime).isEmpty()) {
-                conflicts.add(user);
+            meetingRepository.delete(meeting);
+            calendarChangeRepository.saveAll(changesOf(ChangeKind.MEETING_CANCELLED, meetingId, null, calendar, meeting.getParticipants(),
+                    meeting.getStartTime(), meeting.getEndTime()));
+            eventPublisher.publishEvent(new MeetingChangedEvent(affectedUserIds, meeting.getStartTime(), meeting.getEndTime()));
+            return meeting;
+        }, calendarSnapshots::meetingRemoved);
+
+        logger.info("Meeting {} cancelled", meetingId);
+    }
+
+    /**
+     * Books a recurring meeting as a single series row. Occurrences within the next year are
+     * checked against the meetings and series of the owner and every participant; later clashes
+     * are caught when the conflicting one-off meeting is booked, since that check expands series
+     * as well.
+     */
+    public MeetingSeries bookSeries(Long ownerId, LocalDateTime startTime, Duration duration, String recurrenceRule, List<Long> participantIds) {
+        logger.debug("Attempting to book a meeting series for user ID: {}", ownerId);
+        RecurrenceRule rule = RecurrenceRule.parse(recurrenceRule);
+        if (duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("A positive duration is required");
+        }
+        Timer.Sample sample = calendarMetrics.startTimer();
+        String outcome = "error";
+        try {
+            List<Long> userIds = new ArrayList<>(participantIds.size() + 1);
+            userIds.add(ownerId);
+            userIds.addAll(participantIds);
+            shardRouter.commonShard(userIds);
+            Map<Long, FreeBusyProfile> profiles = getProfiles(userIds);
+            List<Long> calendarIds = userIds.stream().map(id -> profiles.get(id).getCalendarId())
+                    .distinct().sorted().collect(Collectors.toList());
+            MeetingSeries saved = writeCalendars(calendarIds,
+                    status -> {
+                        lockCalendars(calendarIds);
+                        return doBookSeries(ownerId, startTime, duration, rule, recurrenceRule, participantIds);
+                    },
+                    done -> { });
+
+            logger.info("Meeting series {} booked for user ID: {} with rule {}", saved.getId(), ownerId, recurrenceRule);
+            outcome = "booked";
+            return saved;
+        } catch (MeetingConflictException e) {
+            outcome = "conflict";
+            calendarMetrics.conflictsDetected("book", 1);
+            throw e;
+        } finally {
+            calendarMetrics.bookingFinished(sample, "series", outcome);
+        }
+    }
+
+    private MeetingSeries doBookSeries(Long ownerId, LocalDateTime startTime, Duration duration, RecurrenceRule rule,
+                                       String recurrenceRule, List<Long> participantIds) {
+        List<Long> userIds = new ArrayList<>(participantIds.size() + 1);
+        userIds.add(ownerId);
+        userIds.addAll(participantIds);
+        List<User> users = loadUsers(userIds);
+        Calendar calendar = users.get(0).getCalendar();
+
+        MeetingSeries series = new MeetingSeries();
+        series.setStartTime(startTime);
+        series.setEndTime(startTime.plus(duration));
+        series.setRecurrenceRule(recurrenceRule);
+        LocalDateTime lastStart = rule.lastStart(startTime);
+        series.setRecurrenceEnd(lastStart != null ? lastStart.plus(duration) : null);
+        series.setCalendar(calendar);
+        series.setParticipants(new ArrayList<>(users.subList(1, users.size())));
+
+        LocalDateTime horizonEnd = startTime.plus(SERIES_CONFLICT_HORIZON);
+        if (series.getRecurrenceEnd() != null && series.getRecurrenceEnd().isBefore(horizonEnd)) {
+            horizonEnd = series.getRecurrenceEnd();
+        }
+        CalendarSnapshot snapshot = calendarSnapshots.current(calendar, this::loadMeetingTimes);
+        MeetingIntervalIndex busy = MeetingIntervalIndex.of(getBusyMeetings(snapshot, calendar, startTime, horizonEnd));
+        findBusyMeetingsOfUsers(users, startTime, horizonEnd).values().forEach(meetings -> meetings.forEach(busy::add));
+        Iterator<BusyInterval> occurrences = SeriesOccurrences.between(series, startTime, horizonEnd);
+        while (occurrences.hasNext()) {
+            BusyInterval occurrence = occurrences.next();
+            if (busy.hasOverlap(occurrence.getStart(), occurrence.getEnd())) {
+                logger.debug("Meeting series conflicts with an existing meeting at {}", occurrence.getStart());
+                throw new MeetingConflictException("Meeting series conflicts with an existing meeting at " + occurrence.getStart());
             }
         }
 
+        if (Hibernate.isInitialized(calendar.getSeries())) {
+            calendar.getSeries().add(series);
+        }
+        MeetingSeries saved = meetingSeriesRepository.save(series);
+        calendarChangeRepository.saveAll(changesOf(ChangeKind.SERIES_BOOKED, null, saved.getId(), calendar, users,
+                startTime, series.getRecurrenceEnd()));
+        eventPublisher.publishEvent(new MeetingChangedEvent(userIds, startTime, series.getRecurrenceEnd()));
+        return saved;
+    }
+
+    public void cancelSeries(Long seriesId) {
+        writeSeries(seriesId, series -> {
+            Calendar calendar = series.getCalendar();
+            if (calendar != null && Hibernate.isInitialized(calendar.getSeries())) {
+                calendar.getSeries().removeIf(s -> seriesId.equals(s.getId()));
+            }
+            meetingSeriesRepository.delete(series);
+            calendarChangeRepository.saveAll(changesOf(ChangeKind.SERIES_CANCELLED, null, seriesId, calendar, series.getParticipants(),
+                    series.getStartTime(), series.getRecurrenceEnd()));
+            return new MeetingChangedEvent(affectedUserIds(series), series.getStartTime(), series.getRecurrenceEnd());
+        });
+        logger.info("Meeting series {} cancelled", seriesId);
+    }
+
+    /**
+     * Skips the occurrence of the series starting at occurrenceStart, leaving the rest in place.
+     */
+    public void skipOccurrence(Long seriesId, LocalDateTime occurrenceStart) {
+        writeSeries(seriesId, series -> {
+            if (!SeriesOccurrences.isOccurrence(series, occurrenceStart)) {
+                throw new IllegalArgumentException("Series " + seriesId + " has no occurrence starting at " + occurrenceStart);
+            }
+            series.getExceptions().add(occurrenceStart);
+            meetingSeriesRepository.save(series);
+            Duration length = Duration.between(series.getStartTime(), series.getEndTime());
+            calendarChangeRepository.saveAll(changesOf(ChangeKind.OCCURRENCE_SKIPPED, null, seriesId, series.getCalendar(),
+                    series.getParticipants(), occurrenceStart, occurrenceStart.plus(length)));
+            return new MeetingChangedEvent(affectedUserIds(series), occurrenceStart, occurrenceStart.plus(length));
+        });
+        logger.info("Skipped occurrence {} of meeting series {}", occurrenceStart, seriesId);
+    }
+
+    private void writeSeries(Long seriesId, Function<MeetingSeries, MeetingChangedEvent> change) {
+        MeetingSeries found = shardRouter.onShard(shardRouter.shardOf(seriesId), () -> meetingSeriesRepository.findById(seriesId))
+                .orElseThrow(() -> new MeetingNotFoundException("Meeting series "+seriesId+" not found."));
+        List<Long> calendarIds = found.getCalendar() != null ? Collections.singletonList(found.getCalendar().getId()) : List.<Long>of();
+
+        writeCalendars(calendarIds, status -> {
+            lockCalendars(calendarIds);
+            MeetingSeries series = meetingSeriesRepository.findById(seriesId)
+                    .orElseThrow(() -> new MeetingNotFoundException("Meeting series "+seriesId+" not found."));
+            eventPublisher.publishEvent(change.apply(series));
+            return series;
+        }, done -> { });
+    }
+
+    /**
+     * Builds the outbox records of a change, one for the calendar and one for each user's calendar.
+     * They are saved in the transaction making the change, so they are published if and only if it
+     * commits.
+     */
+    private static List<CalendarChange> changesOf(ChangeKind kind, Long meetingId, Long seriesId, Calendar calendar,
+                                                  Collection<User> users, LocalDateTime start, LocalDateTime end) {
+        Set<Long> calendarIds = new LinkedHashSet<>();
+        calendarIds.add(calendar != null ? calendar.getId() : null);
+        users.forEach(user -> calendarIds.add(user.getCalendar() != null ? user.getCalendar().getId() : null));
+        calendarIds.remove(null);
+        LocalDateTime now = LocalDateTime.now();
+        List<CalendarChange> changes = new ArrayList<>(calendarIds.size());
+        for (Long calendarId : calendarIds) {
+            CalendarChange change = new CalendarChange();
+            change.setCalendarId(calendarId);
+            change.setKind(kind);
+            change.setMeetingId(meetingId);
+            change.setSeriesId(seriesId);
+            change.setStartTime(start);
+            change.setEndTime(end);
+            change.setCreatedAt(now);
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    private List<Long> affectedUserIds(MeetingSeries series) {
+        List<Long> userIds = series.getParticipants().stream().map(User::getId).collect(Collectors.toCollection(ArrayList::new));
+        if (series.getCalendar() != null) {
+            userRepository.findByCalendarId(series.getCalendar().getId()).ifPresent(owner -> userIds.add(owner.getId()));
+        }
+        return userIds;
+    }
+
+    /**
+     * Runs a write to the given calendars under their striped locks and in its own transaction.
+     * The write must start with {@link #lockCalendars}, before the calendars are loaded any other
+     * way, so that each commit bumps their versions, a concurrent write from another instance waits,
+     * and a write based on a stale read fails and is retried. afterCommit runs while the locks are
+     * still held. All the calendars must be on one shard, which the write goes to.
+     */
+    private <T> T writeCalendars(Collection<Long> calendarIds, TransactionCallback<T> write, Consumer<T> afterCommit) {
+        return shardRouter.onShard(shardRouter.commonShard(calendarIds), () -> bookingLocks.withLocks(calendarIds, () -> {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    T result = transactionOperations.execute(write);
+                    afterCommit.accept(result);
+                    return result;
+                } catch (OptimisticLockingFailureException e) {
+                    if (attempt >= MAX_WRITE_ATTEMPTS) {
+                        throw new MeetingConflictException("Calendar was modified concurrently, please retry");
+                    }
+                    logger.warn("Concurrent write to calendars {}, retrying (attempt {})", calendarIds, attempt);
+                }
+            }
+        }));
+    }
+
+    private void lockCalendars(Collection<Long> calendarIds) {
+        // in ID order, so two writes sharing calendars cannot each hold a row the other waits for
+        List<Long> persisted = calendarIds.stream().filter(Objects::nonNull).distinct().sorted().collect(Collectors.toList());
+        if (!persisted.isEmpty()) {
+            calendarRepository.lockForWrite(persisted);
+        }
+    }
+
+    public User updateWorkingHours(Long userId, WorkingHoursDTO workingHours) {
+        int shard = shardRouter.shardOf(userId);
+        User user = shardRouter.onShard(shard, () -> userRepository.findById(userId))
+                .orElseThrow(() -> new UserNotFoundException("User "+userId+" not found."));
+
+        if ((workingHours.getWorkdayStart() == null) != (workingHours.getWorkdayEnd() == null)) {
+            // a missing side would silently fall back to the default and leave a day nobody asked for
+            throw new IllegalArgumentException("Workday start and workday end must be given together");
+        }
+        if (workingHours.getWorkdayStart() != null
+                && !workingHours.getWorkdayStart().isBefore(workingHours.getWorkdayEnd())) {
+            throw new IllegalArgumentException("Workday start must be before workday end");
+        }
+        if (workingHours.getTimeZone() != null) {
+            ZoneId.of(workingHours.getTimeZone());
+        }
+
+        user.setWorkdayStart(workingHours.getWorkdayStart());
+        user.setWorkdayEnd(workingHours.getWorkdayEnd());
+        user.setTimeZone(workingHours.getTimeZone());
+        User saved = shardRouter.onShard(shard, () -> userRepository.save(user));
+        freeBusyCache.evictProfile(userId);
+        return saved;
+    }
+
+    /**
+     * Returns the participants with a meeting or series occurrence overlapping the range, in request
+     * order, each with the IDs of the overlapping meetings and series. Meetings and series are
+     * those in their own calendars and those they take part in, as when booking; meetings come
+     * from projection queries, so no meeting or user entity is loaded for them.
+     */
+    public List<ConflictDTO> findConflicts(List<Long> participantIds, LocalDateTime startTime, Duration duration) {
+        LocalDateTime endTime = startTime.plus(duration);
+        List<Long> distinctIds = participantIds.stream().distinct().collect(Collectors.toList());
+        calendarMetrics.participants("check", distinctIds.size());
+
+        Map<Long, ConflictDTO> byUser = new HashMap<>();
+        Map<Long, List<ConflictDTO>> byCalendar = new HashMap<>();
+        for (UserSummaryView user : mapChunksByShard(distinctIds, userRepository::findSummaries)) {
+            ConflictDTO conflict = new ConflictDTO(user.getUserId(), user.getName(), new ArrayList<>(), new ArrayList<>());
+            byUser.put(user.getUserId(), conflict);
+            byCalendar.computeIfAbsent(user.getCalendarId(), calendarId -> new ArrayList<>()).add(conflict);
+        }
+        List<Long> missing = distinctIds.stream().filter(id -> !byUser.containsKey(id)).collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new UserNotFoundException("Users not found with IDs: " + missing);
+        }
+
+        List<UserMeetingView> busy = mapChunksByShard(distinctIds,
+                chunk -> meetingRepository.findBusyMeetingsOfUsers(chunk, startTime, endTime));
+        busy.sort(Comparator.comparing(UserMeetingView::getStartTime).thenComparing(UserMeetingView::getMeetingId));
+        for (UserMeetingView row : busy) {
+            byUser.get(row.getUserId()).getConflictingMeetingIds().add(row.getMeetingId());
+        }
+        List<Long> calendarIds = byCalendar.keySet().stream().filter(Objects::nonNull).collect(Collectors.toList());
+        for (MeetingSeries series : mapChunksByShard(calendarIds,
+                chunk -> meetingSeriesRepository.findActiveInCalendars(chunk, startTime, endTime))) {
+            if (SeriesOccurrences.between(series, startTime, endTime).hasNext()) {
+                byCalendar.get(series.getCalendar().getId())
+                        .forEach(conflict -> conflict.getConflictingSeriesIds().add(series.getId()));
+            }
+        }
+        for (MeetingSeries series : mapChunksByShard(distinctIds,
+                chunk -> meetingSeriesRepository.findActiveOfParticipants(chunk, startTime, endTime))) {
+            if (SeriesOccurrences.between(series, startTime, endTime).hasNext()) {
+                series.getParticipants().stream().map(User::getId).map(byUser::get).filter(Objects::nonNull)
+                        .filter(conflict -> !conflict.getConflictingSeriesIds().contains(series.getId()))
+                        .forEach(conflict -> conflict.getConflictingSeriesIds().add(series.getId()));
+            }
+        }
+        List<ConflictDTO> conflicts = distinctIds.stream().map(byUser::get)
+                .filter(conflict -> !conflict.getConflictingMeetingIds().isEmpty() || !conflict.getConflictingSeriesIds().isEmpty())
+                .collect(Collectors.toList());
+
+        calendarMetrics.conflictsDetected("check", conflicts.size());
+        if (logSampler.sample()) {
+            logger.info("op=findConflicts participants={} conflicts={}", distinctIds.size(), conflicts.size());
+        }
         return conflicts;
     }
+
+    /**
+     * Returns the calendar ID of the owner of a booking, from the cached profiles, after checking
+     * that the owner and all participants exist.
+     */
+    public Long getOwnerCalendarId(Long ownerId, List<Long> participantIds) {
+        List<Long> userIds = new ArrayList<>(participantIds.size() + 1);
+        userIds.add(ownerId);
+        userIds.addAll(participantIds);
+        return getProfiles(userIds).get(ownerId).getCalendarId();
+    }
+
+    /**
+     * Returns the IDs of the meetings stored with any of the idempotency keys, by key.
+     */
+    public Map<String, Long> findBookedMeetingIds(Collection<String> idempotencyKeys) {
+        if (idempotencyKeys.isEmpty()) {
+            return Map.of();
+        }
+        return shardRouter.onEveryShard(() -> meetingRepository.findByIdempotencyKeyIn(idempotencyKeys)).stream()
+                .collect(Collectors.toMap(Meeting::getIdempotencyKey, Meeting::getId));
+    }
+
+    /**
+     * Checks a range against the in-memory snapshot of a calendar only, loading it once if needed.
+     * Series occurrences and writers on other instances are left to the booking itself.
+     */
+    public boolean hasSnapshotConflict(Long calendarId, LocalDateTime start, LocalDateTime end) {
+        return calendarSnapshots.snapshot(calendarId, this::loadMeetingTimes).hasOverlap(start, end);
+    }
+
+    /**
+     * Answers from the calendar's in-memory snapshot, loading it once if needed.
+     */
+    public List<Meeting> getConflicts(Calendar calendar, LocalDateTime start, LocalDateTime end) {
+        logger.debug("Checking for meeting conflicts between {} and {}", start, end);
+
+        List<Meeting> conflicts = getBusyMeetings(calendar, start, end);
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Found {} conflicting meetings during the specified time range", conflicts.size());
+        }
+
+        return conflicts;
+    }
+
+    /**
+     * Checks the calendar's snapshot, rebuilt first if another writer has moved the calendar on.
+     */
+    private boolean hasConflicts(Calendar calendar, LocalDateTime start, LocalDateTime end) {
+        return calendarSnapshots.current(calendar, this::loadMeetingTimes).hasOverlap(start, end)
+                || SeriesOccurrences.overlaps(getActiveSeries(calendar, start, end), start, end);
+    }
+
+    private List<CalendarMeetingView> loadMeetingTimes(List<Long> calendarIds) {
+        return mapChunksByShard(calendarIds, calendarRepository::findMeetingTimes);
+    }
+
+    /**
+     * Runs a query on the IDs owned by each shard, in chunks as {@link FanOutExecutor#mapChunks}
+     * does, and concatenates the results.
+     */
+    private <R> List<R> mapChunksByShard(Collection<Long> ids, Function<List<Long>, List<R>> query) {
+        List<R> results = new ArrayList<>();
+        shardRouter.partition(ids).forEach((shard, shardIds) ->
+                results.addAll(fanOutExecutor.mapChunks(shardIds, chunk -> shardRouter.onShard(shard, () -> query.apply(chunk)))));
+        return results;
+    }
+
+    /**
+     * Runs a set-based query once per shard on the IDs it owns and concatenates the results.
+     */
+    private <R> List<R> findByShard(Collection<? extends Long> ids, Function<List<Long>, List<R>> query) {
+        List<R> results = new ArrayList<>();
+        shardRouter.partition(ids).forEach((shard, shardIds) -> results.addAll(shardRouter.onShard(shard, () -> query.apply(shardIds))));
+        return results;
+    }
+
+    /**
+     * Returns the calendar's series that may occur in [start, end): the loaded ones when its
+     * series are in memory, otherwise those the database finds for the window.
+     */
+    private List<MeetingSeries> getActiveSeries(Calendar calendar, LocalDateTime start, LocalDateTime end) {
+        if (calendar.getId() == null || Hibernate.isInitialized(calendar.getSeries())) {
+            return calendar.getSeries();
+        }
+        return shardRouter.onShard(shardRouter.shardOf(calendar.getId()), () -> meetingSeriesRepository.findActive(calendar.getId(), start, end));
+    }
+
     public List<Meeting> getConflicts(List<Meeting> existingMeetings, LocalDateTime start, LocalDateTime end) {
-        logger.info("Checking for meeting conflicts between {} and {}", start, end);
+        logger.debug("Checking for meeting conflicts between {} and {}", start, end);
 
         List<Meeting> conflicts = existingMeetings.stream()
                 .filter(meeting -> meeting.getEndTime().isAfter(start) && meeting.getStartTime().isBefore(end))
                 .collect(Collectors.toList());
 
-        if (!conflicts.isEmpty()) {
-            logger.warn("Found {} conflicting meetings during the specified time range", conflicts.size());
-        } else {
-            logger.info("No conflicts found during the specified time range");
+        if (logger.isDebugEnabled()) {
+            logger.debug("Found {} conflicting meetings during the specified time range", conflicts.size());
         }
 
         return conflicts;
     }
 
     public List<LocalDateTime[]> getFreeSlots(Calendar calendar1, Calendar calendar2, Duration duration) {
+        return getFreeSlots(List.of(calendar1, calendar2), duration);
+    }
+
+    public List<LocalDateTime[]> getFreeSlotsForUsers(List<Long> userIds, Duration duration) {
+        return collect(searchFreeSlots(userIds, duration));
+    }
+
+    /**
+     * Prepares a search for the common free slots of the given users within today's 09:00-17:00.
+     */
+    public FreeSlotSearch searchFreeSlots(List<Long> userIds, Duration duration) {
+        LocalDateTime workStartToday = LocalDateTime.now().with(LocalTime.of(9, 0)).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime workEndToday = LocalDateTime.now().with(LocalTime.of(17, 0)).truncatedTo(ChronoUnit.SECONDS);
+
+        Map<Long, FreeBusyProfile> profiles = getProfiles(userIds);
+        return sink -> {
+            List<BusyTimeline[]> participants = new ArrayList<>(userIds.size());
+            for (Long userId : userIds) {
+                participants.add(new BusyTimeline[]{getBusyTimeline(userId, profiles.get(userId), workStartToday, workEndToday)});
+            }
+
+            int[] slots = new int[1];
+            findFreeSlots(participants, EpochSeconds.of(workStartToday), EpochSeconds.of(workEndToday), duration, (slotStart, slotEnd) -> {
+                slots[0]++;
+                sink.accept(EpochSeconds.toDateTime(slotStart), EpochSeconds.toDateTime(slotEnd));
+            });
+
+            if (logger.isDebugEnabled()) {
+                logger.debug("Found {} free slots for {} participants and duration {}", slots[0], userIds.size(), duration);
+            }
+            if (logSampler.sample()) {
+                logger.info("op=getFreeSlots participants={} slots={}", userIds.size(), slots[0]);
+            }
+            calendarMetrics.participants("availability", userIds.size());
+            calendarMetrics.freeSlots("availability", slots[0]);
+        };
+    }
+
+    public List<LocalDateTime[]> getFreeSlots(List<Calendar> calendars, Duration duration) {
         LocalTime workStart = LocalTime.of(9, 0);
         LocalTime workEnd = LocalTime.of(17, 0);
-        List<LocalDateTime[]> freeSlots = new ArrayList<>();
-        LocalDateTime currentStart = LocalDateTime.now().with(workStart).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime workStartToday = LocalDateTime.now().with(workStart).truncatedTo(ChronoUnit.SECONDS);
         LocalDateTime workEndToday = LocalDateTime.now().with(workEnd).truncatedTo(ChronoUnit.SECONDS);
 
-        List<Meeting> allMeetings = new ArrayList<>(calendar1.getMeetings());
-        allMeetings.addAll(calendar2.getMeetings());
-        allMeetings.sort((m1, m2) -> m1.getStartTime().compareTo(m2.getStartTime()));
+        long windowStart = EpochSeconds.of(workStartToday);
+        long windowEnd = EpochSeconds.of(workEndToday);
+        List<BusyTimeline[]> participants = new ArrayList<>(calendars.size());
+        for (Calendar calendar : calendars) {
+            BusyTimeline meetings = calendarSnapshots.snapshot(calendar, this::loadMeetingTimes).timeline(windowStart, windowEnd);
+            List<BusyInterval> occurrences = SeriesOccurrences.between(
+                    getActiveSeries(calendar, workStartToday, workEndToday), workStartToday, workEndToday);
+            participants.add(occurrences.isEmpty()
+                    ? new BusyTimeline[]{meetings}
+                    : new BusyTimeline[]{meetings, BusyTimeline.of(occurrences.iterator())});
+        }
 
-        for (Meeting meeting : allMeetings) {
-            LocalDateTime meetingStart = meeting.getStartTime().truncatedTo(ChronoUnit.MINUTES);
-            LocalDateTime meetingEnd = meeting.getEndTime().truncatedTo(ChronoUnit.MINUTES);
+        List<LocalDateTime[]> freeSlots = new ArrayList<>();
+        findFreeSlots(participants, windowStart, windowEnd, duration, (slotStart, slotEnd) ->
+                freeSlots.add(new LocalDateTime[]{EpochSeconds.toDateTime(slotStart), EpochSeconds.toDateTime(slotEnd)}));
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Found {} free slots for {} participants and duration {}", freeSlots.size(), calendars.size(), duration);
+        }
+        return freeSlots;
+    }
+
+    /**
+     * Finds the common free slots of the given users between the start of startDate and the end of
+     * endDate in the given zone, honouring each user's own working hours and time zone. The whole
+     * range is computed in one pass; slots are returned as local times in that zone.
+     */
+    public List<LocalDateTime[]> getFreeSlots(List<Long> userIds, LocalDate startDate, LocalDate endDate, ZoneId zone, Duration duration) {
+        return collect(searchFreeSlots(userIds, startDate, endDate, zone, duration));
+    }
 
-            if (meetingStart.isAfter(workEndToday)) break;
-            if (meetingEnd.isBefore(currentStart)) continue;
+    /**
+     * Prepares the range search of {@link #getFreeSlots(List, LocalDate, LocalDate, ZoneId, Duration)}.
+     * Running it keeps no list of slots, so a long range streams in memory bounded by the busy data.
+     */
+    public FreeSlotSearch searchFreeSlots(List<Long> userIds, LocalDate startDate, LocalDate endDate, ZoneId zone, Duration duration) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_AVAILABILITY_DAYS) {
+            throw new IllegalArgumentException("Availability range is limited to " + MAX_AVAILABILITY_DAYS + " days");
+        }
+        LocalDateTime rangeStart = toStorageTime(startDate.atStartOfDay(zone));
+        LocalDateTime rangeEnd = toStorageTime(endDate.plusDays(1).atStartOfDay(zone));
 
-            if (meetingStart.isBefore(currentStart)) {
-                meetingStart = currentStart;
+        Map<Long, FreeBusyProfile> profiles = getProfiles(userIds);
+        return sink -> {
+            List<BusyTimeline[]> participants = new ArrayList<>(userIds.size());
+            for (Long userId : userIds) {
+                FreeBusyProfile profile = profiles.get(userId);
+                participants.add(new BusyTimeline[]{
+                        getBusyTimeline(userId, profile, rangeStart, rangeEnd),
+                        BusyTimeline.of(profile.getWorkingHours().offHours(rangeStart, rangeEnd, STORAGE_ZONE))});
             }
 
-            if (Duration.between(currentStart, meetingStart).compareTo(duration) >= 0) {
-                freeSlots.add(new LocalDateTime[]{currentStart, meetingStart});
+            int[] slots = new int[1];
+            findFreeSlots(participants, EpochSeconds.of(rangeStart), EpochSeconds.of(rangeEnd), duration, (slotStart, slotEnd) -> {
+                slots[0]++;
+                sink.accept(fromStorageTime(EpochSeconds.toDateTime(slotStart), zone),
+                        fromStorageTime(EpochSeconds.toDateTime(slotEnd), zone));
+            });
+
+            if (logger.isDebugEnabled()) {
+                logger.debug("Found {} free slots for {} participants between {} and {}", slots[0], userIds.size(), startDate, endDate);
             }
+            if (logSampler.sample()) {
+                logger.info("op=getFreeSlotsInRange participants={} days={} slots={}", userIds.size(),
+                        ChronoUnit.DAYS.between(startDate, endDate) + 1, slots[0]);
+            }
+            calendarMetrics.participants("availability-range", userIds.size());
+            calendarMetrics.freeSlots("availability-range", slots[0]);
+        };
+    }
 
-            if (meetingEnd.isAfter(currentStart)) {
-                currentStart = meetingEnd;
+    /**
+     * Returns the best slots of exactly the given duration for the given users between the start of
+     * startDate and the end of endDate in the given zone, honouring working hours as the range search
+     * does. Without preferred hours the earliest slots win and the search stops at the limit;
+     * otherwise slots are ranked by how much of them falls in the preferred hours, earlier first on
+     * ties. The range is scanned a week at a time, so an early stop also skips loading later weeks.
+     */
+    public List<LocalDateTime[]> findSlots(List<Long> userIds, LocalDate startDate, LocalDate endDate, ZoneId zone,
+                                           Duration duration, SlotSearchOptions options) {
+        validateSlotSearch(startDate, endDate, options.getLimit(), duration);
+        if (options.getBuffer() != null && options.getBuffer().isNegative()) {
+            throw new IllegalArgumentException("Buffer must not be negative");
+        }
+        LocalDateTime rangeStart = toStorageTime(startDate.atStartOfDay(zone));
+        LocalDateTime rangeEnd = toStorageTime(endDate.plusDays(1).atStartOfDay(zone));
+        if (options.getEarliestAfter() != null) {
+            LocalDateTime earliest = toStorageTime(options.getEarliestAfter().atZone(zone));
+            if (earliest.isAfter(rangeStart)) {
+                rangeStart = earliest.isBefore(rangeEnd) ? earliest : rangeEnd;
             }
         }
+        long[] preferred = preferredHours(options.getPreferredStart(), options.getPreferredEnd(), rangeStart, rangeEnd, zone);
+        long buffer = options.getBuffer() != null ? EpochSeconds.ceilSeconds(options.getBuffer()) : 0;
+
+        SlotRanker ranker = new SlotRanker(EpochSeconds.ceilSeconds(duration), options.getLimit(), preferred);
+        int chunks = scanCommonFreeTime(userIds, rangeStart, rangeEnd, buffer, ranker);
+        ranker.finish();
 
-        if (Duration.between(currentStart, workEndToday).compareTo(duration) >= 0) {
-            freeSlots.add(new LocalDateTime[]{currentStart, workEndToday});
+        List<LocalDateTime[]> slots = new ArrayList<>(options.getLimit());
+        ranker.forEachRanked((slotStart, slotEnd) -> slots.add(new LocalDateTime[]{
+                fromStorageTime(EpochSeconds.toDateTime(slotStart), zone),
+                fromStorageTime(EpochSeconds.toDateTime(slotEnd), zone)}));
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Found {} of {} requested slots for {} participants in {} weeks scanned", slots.size(),
+                    options.getLimit(), userIds.size(), chunks);
+        }
+        if (logSampler.sample()) {
+            logger.info("op=findSlots participants={} limit={} slots={} chunks={}", userIds.size(), options.getLimit(),
+                    slots.size(), chunks);
         }
+        calendarMetrics.participants("slot-search", userIds.size());
+        calendarMetrics.freeSlots("slot-search", slots.size());
+        return slots;
+    }
+
+    /**
+     * Returns up to limit slots, earliest first, in which all the users and at least one room
+     * seating minCapacity are free, each with the smallest such room. Times are local to zone.
+     *
+     * Rooms too small are left out by the database; the rest are checked from their in-memory
+     * snapshots and series by a {@link RoomAllocator} fed with the users' common free time.
+     */
+    public List<RoomSlotDTO> findRoomSlots(List<Long> userIds, int minCapacity, LocalDate startDate, LocalDate endDate,
+                                           ZoneId zone, Duration duration, int limit) {
+        validateSlotSearch(startDate, endDate, limit, duration);
+        if (minCapacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        LocalDateTime rangeStart = toStorageTime(startDate.atStartOfDay(zone));
+        LocalDateTime rangeEnd = toStorageTime(endDate.plusDays(1).atStartOfDay(zone));
+
+        List<Resource> rooms = shardRouter.onEveryShard(() -> resourceRepository.findWithCapacity(ResourceKind.ROOM, minCapacity));
+        if (shardRouter.isSharded()) {
+            rooms.sort(Comparator.comparing(Resource::getCapacity).thenComparing(Resource::getId));
+        }
+        RoomAllocator allocator = new RoomAllocator(EpochSeconds.ceilSeconds(duration), limit, getRoomTimelines(rooms, rangeStart, rangeEnd));
+        int chunks = scanCommonFreeTime(userIds, rangeStart, rangeEnd, 0, allocator);
+        allocator.finish();
+
+        List<RoomSlotDTO> slots = new ArrayList<>(limit);
+        allocator.forEachAllocated((slotStart, slotEnd, room) -> slots.add(new RoomSlotDTO(
+                fromStorageTime(EpochSeconds.toDateTime(slotStart), zone),
+                fromStorageTime(EpochSeconds.toDateTime(slotEnd), zone),
+                rooms.get(room).getId(), rooms.get(room).getName(), rooms.get(room).getCapacity())));
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Found {} of {} requested room slots for {} participants among {} rooms in {} weeks scanned",
+                    slots.size(), limit, userIds.size(), rooms.size(), chunks);
+        }
+        if (logSampler.sample()) {
+            logger.info("op=findRoomSlots participants={} rooms={} limit={} slots={} chunks={}", userIds.size(), rooms.size(),
+                    limit, slots.size(), chunks);
+        }
+        calendarMetrics.participants("room-search", userIds.size());
+        calendarMetrics.freeSlots("room-search", slots.size());
+        return slots;
+    }
+
+    /**
+     * Returns each room's busy timelines over [start, end): the meetings of its snapshot and the
+     * occurrences of its series. Missing snapshots and all series are loaded with one query each.
+     */
+    private BusyTimeline[][] getRoomTimelines(List<Resource> rooms, LocalDateTime start, LocalDateTime end) {
+        BusyTimeline[][] timelines = new BusyTimeline[rooms.size()][];
+        if (rooms.isEmpty()) {
+            return timelines;
+        }
+        List<Calendar> calendars = rooms.stream().map(Resource::getCalendar).collect(Collectors.toList());
+        List<Long> calendarIds = calendars.stream().map(Calendar::getId).collect(Collectors.toList());
+        List<CalendarSnapshot> snapshots = calendarSnapshots.snapshots(calendars, this::loadMeetingTimes);
+        Map<Long, List<MeetingSeries>> series = findByShard(calendarIds, ids -> meetingSeriesRepository.findActiveInCalendars(ids, start, end)).stream()
+                .collect(Collectors.groupingBy(each -> each.getCalendar().getId()));
+        long from = EpochSeconds.of(start);
+        long to = EpochSeconds.of(end);
+        for (int i = 0; i < timelines.length; i++) {
+            List<MeetingSeries> roomSeries = series.get(calendarIds.get(i));
+            timelines[i] = roomSeries == null
+                    ? new BusyTimeline[]{snapshots.get(i).timeline(from, to)}
+                    : new BusyTimeline[]{snapshots.get(i).timeline(from, to),
+                            BusyTimeline.of(SeriesOccurrences.between(roomSeries, start, end).iterator())};
+        }
+        return timelines;
+    }
+
+    /**
+     * Feeds the users' common free time in [rangeStart, rangeEnd) to the sink a week at a time until
+     * it is done, with their meetings padded by buffer seconds. Returns the number of weeks scanned.
+     */
+    private int scanCommonFreeTime(List<Long> userIds, LocalDateTime rangeStart, LocalDateTime rangeEnd, long buffer, SlotSink sink) {
+        Map<Long, FreeBusyProfile> profiles = getProfiles(userIds);
+        int chunks = 0;
+        for (LocalDateTime chunkStart = rangeStart; chunkStart.isBefore(rangeEnd) && !sink.isDone(); chunks++) {
+            LocalDateTime chunkEnd = chunkStart.plusDays(SLOT_SEARCH_CHUNK_DAYS);
+            if (chunkEnd.isAfter(rangeEnd)) {
+                chunkEnd = rangeEnd;
+            }
+            List<BusyTimeline[]> participants = new ArrayList<>(userIds.size());
+            for (Long userId : userIds) {
+                FreeBusyProfile profile = profiles.get(userId);
+                // meetings just outside the chunk still reach into it by the buffer
+                BusyTimeline meetings = getBusyTimeline(userId, profile, chunkStart.minusSeconds(buffer), chunkEnd.plusSeconds(buffer));
+                participants.add(new BusyTimeline[]{
+                        BusyTimeline.padded(meetings, buffer),
+                        BusyTimeline.of(profile.getWorkingHours().offHours(chunkStart, chunkEnd, STORAGE_ZONE))});
+            }
+            // pass on every gap: one cut at a chunk boundary may only be long enough once joined
+            findFreeSlots(participants, EpochSeconds.of(chunkStart), EpochSeconds.of(chunkEnd), Duration.ofSeconds(1), sink);
+            chunkStart = chunkEnd;
+        }
+        return chunks;
+    }
 
-        logger.info("Found {} free slots for duration {}: {}", freeSlots.size(), duration, freeSlots);
+    private static void validateSlotSearch(LocalDate startDate, LocalDate endDate, int limit, Duration duration) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_SLOT_SEARCH_DAYS) {
+            throw new IllegalArgumentException("Slot search range is limited to " + MAX_SLOT_SEARCH_DAYS + " days");
+        }
+        if (limit < 1 || limit > MAX_SLOT_SEARCH_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SLOT_SEARCH_LIMIT);
+        }
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+    }
+
+    /**
+     * Returns the preferred hours of every day touching [rangeStart, rangeEnd) as alternating start
+     * and end epoch seconds of storage time, or null when no preference was given.
+     */
+    private static long[] preferredHours(LocalTime preferredStart, LocalTime preferredEnd, LocalDateTime rangeStart,
+                                         LocalDateTime rangeEnd, ZoneId zone) {
+        if (preferredStart == null && preferredEnd == null) {
+            return null;
+        }
+        if (preferredStart == null || preferredEnd == null || !preferredStart.isBefore(preferredEnd)) {
+            throw new IllegalArgumentException("Preferred hours need a start before their end");
+        }
+        LocalDate firstDay = rangeStart.atZone(STORAGE_ZONE).withZoneSameInstant(zone).toLocalDate();
+        LocalDate lastDay = rangeEnd.atZone(STORAGE_ZONE).withZoneSameInstant(zone).toLocalDate();
+        long[] hours = new long[2 * ((int) ChronoUnit.DAYS.between(firstDay, lastDay) + 1)];
+        int position = 0;
+        for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            hours[position++] = EpochSeconds.of(toStorageTime(day.atTime(preferredStart).atZone(zone)));
+            hours[position++] = EpochSeconds.of(toStorageTime(day.atTime(preferredEnd).atZone(zone)));
+        }
+        return hours;
+    }
+
+    private static List<LocalDateTime[]> collect(FreeSlotSearch search) {
+        List<LocalDateTime[]> freeSlots = new ArrayList<>();
+        search.forEach((slotStart, slotEnd) -> freeSlots.add(new LocalDateTime[]{slotStart, slotEnd}));
         return freeSlots;
     }
 
+    /**
+     * Loads the given users and their calendars in one query, in the requested order, reporting
+     * every unknown ID at once.
+     */
+    private List<User> loadUsers(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, User> found = findByShard(userIds, userRepository::findByIdIn).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
 
-}
+        List<Long> missing = userIds.stream().filter(id -> !found.containsKey(id)).distinct().collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new UserNotFoundException("Users not found with IDs: " + missing);
+        }
+        return userIds.stream().map(found::get).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the IDs of the given users who are busy at some point in [start, end), in the order
+     * given.
+     */
+    private List<Long> findBusyUserIds(List<User> users, LocalDateTime start, LocalDateTime end) {
+        Map<Long, List<Meeting>> busy = findBusyMeetingsOfUsers(users, start, end);
+        return busy.keySet().stream().filter(userId -> !busy.get(userId).isEmpty()).collect(Collectors.toList());
+    }
 
+    /**
+     * Returns what keeps each of the given users busy in [start, end), by user ID in the order
+     * given: the meetings in their own calendars and those they take part in, from one query, and
+     * the occurrences of the series in their calendars and of those they are invited to, from one
+     * query each, as unsaved meetings without an ID.
+     */
+    private Map<Long, List<Meeting>> findBusyMeetingsOfUsers(Collection<User> users, LocalDateTime start, LocalDateTime end) {
+        Map<Long, List<Meeting>> busy = new LinkedHashMap<>();
+        Map<Long, List<Long>> userIdsByCalendar = new HashMap<>();
+        for (User user : users) {
+            if (busy.putIfAbsent(user.getId(), new ArrayList<>()) == null
+                    && user.getCalendar() != null && user.getCalendar().getId() != null) {
+                userIdsByCalendar.computeIfAbsent(user.getCalendar().getId(), calendarId -> new ArrayList<>()).add(user.getId());
+            }
+        }
+        if (busy.isEmpty()) {
+            return busy;
+        }
+        for (UserMeetingView row : meetingRepository.findBusyMeetingsOfUsers(new ArrayList<>(busy.keySet()), start, end)) {
+            Meeting meeting = new Meeting();
+            meeting.setId(row.getMeetingId());
+            meeting.setStartTime(row.getStartTime());
+            meeting.setEndTime(row.getEndTime());
+            busy.get(row.getUserId()).add(meeting);
+        }
+        if (!userIdsByCalendar.isEmpty()) {
+            for (MeetingSeries series : meetingSeriesRepository.findActiveInCalendars(userIdsByCalendar.keySet(), start, end)) {
+                List<Meeting> occurrences = occurrencesOf(series, start, end);
+                userIdsByCalendar.get(series.getCalendar().getId()).forEach(userId -> busy.get(userId).addAll(occurrences));
+            }
+        }
+        for (MeetingSeries series : meetingSeriesRepository.findActiveOfParticipants(new ArrayList<>(busy.keySet()), start, end)) {
+            List<Meeting> occurrences = occurrencesOf(series, start, end);
+            series.getParticipants().stream().map(User::getId).filter(busy::containsKey)
+                    .forEach(userId -> busy.get(userId).addAll(occurrences));
+        }
+        return busy;
+    }
+
+    private static List<Meeting> occurrencesOf(MeetingSeries series, LocalDateTime start, LocalDateTime end) {
+        List<Meeting> occurrences = new ArrayList<>();
+        Iterator<BusyInterval> intervals = SeriesOccurrences.between(series, start, end);
+        while (intervals.hasNext()) {
+            BusyInterval occurrence = intervals.next();
+            Meeting meeting = new Meeting();
+            meeting.setStartTime(occurrence.getStart());
+            meeting.setEndTime(occurrence.getEnd());
+            occurrences.add(meeting);
+        }
+        return occurrences;
+    }
+
+    private Map<Long, FreeBusyProfile> getProfiles(List<Long> userIds) {
+        Map<Long, FreeBusyProfile> profiles = findProfiles(userIds);
+        List<Long> missing = userIds.stream().filter(id -> !profiles.containsKey(id)).distinct().collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new UserNotFoundException("Users not found with IDs: " + missing);
+        }
+        return profiles;
+    }
+
+    /**
+     * Returns the cached profiles of the given users, loading the missing ones in one query.
+     * Unknown users are left out of the result.
+     */
+    private Map<Long, FreeBusyProfile> findProfiles(Collection<Long> userIds) {
+        return freeBusyCache.profiles(userIds, missing -> {
+            Map<Long, FreeBusyProfile> loaded = new HashMap<>();
+            for (User user : findByShard(missing, userRepository::findByIdIn)) {
+                loaded.put(user.getId(), new FreeBusyProfile(user.getCalendar().getId(), WorkingHours.of(user, STORAGE_ZONE)));
+            }
+            return loaded;
+        });
+    }
+
+    /**
+     * Returns the user's busy time between start and end from the free/busy cache, loading any
+     * missing days with one range query for the meetings and one for each kind of series: those in
+     * the user's calendar and those they are invited to.
+     */
+    private BusyTimeline getBusyTimeline(Long userId, FreeBusyProfile profile, LocalDateTime start, LocalDateTime end) {
+        return freeBusyCache.timeline(userId, start.toLocalDate(), end.minusNanos(1).toLocalDate(), (first, last) -> {
+            LocalDateTime from = first.atStartOfDay();
+            LocalDateTime to = last.plusDays(1).atStartOfDay();
+            int shard = shardRouter.shardOf(userId);
+            List<UserMeetingView> meetings = shardRouter.onShard(shard, () -> meetingRepository.findBusyMeetingsOfUsers(List.of(userId), from, to));
+            List<MeetingSeries> series = new ArrayList<>(
+                    shardRouter.onShard(shard, () -> meetingSeriesRepository.findActive(profile.getCalendarId(), from, to)));
+            series.addAll(shardRouter.onShard(shard, () -> meetingSeriesRepository.findActiveOfParticipants(List.of(userId), from, to)));
+            List<BusyInterval> occurrences = SeriesOccurrences.between(series, from, to);
+            List<BusyInterval> busy = new ArrayList<>(meetings.size() + occurrences.size());
+            meetings.forEach(meeting -> busy.add(new BusyInterval(meeting.getStartTime(), meeting.getEndTime())));
+            busy.addAll(occurrences);
+            busy.sort(Comparator.comparing(BusyInterval::getStart));
+            return busy;
+        });
+    }
+
+    /**
+     * Each participant contributes one or more sorted busy timelines; the window and the emitted
+     * slots are {@link EpochSeconds}, converted by the callers only once a slot leaves the service.
+     * Large groups take the bitmap fast path; one-minute quanta keep its result identical to the
+     * merge-based engine, which also truncates busy boundaries to the minute.
+     */
+    private void findFreeSlots(List<BusyTimeline[]> participants, long start, long end, Duration duration, SlotSink sink) {
+        int count = 0;
+        for (BusyTimeline[] timelines : participants) {
+            count += timelines.length;
+        }
+        BusyTimeline[] timelines = new BusyTimeline[count];
+        int position = 0;
+        for (BusyTimeline[] participant : participants) {
+            System.arraycopy(participant, 0, timelines, position, participant.length);
+            position += participant.length;
+        }
+
+        long minimumSeconds = EpochSeconds.ceilSeconds(duration);
+        if (participants.size() >= BITMAP_MIN_PARTICIPANTS && minimumSeconds > 0) {
+            FreeBusyBitmap.of(timelines, start, end, 1).forEachFreeSlot(minimumSeconds, sink);
+            return;
+        }
+        AvailabilityEngine.findFreeSlots(timelines, start, end, minimumSeconds, sink);
+    }
+
+    private static LocalDateTime toStorageTime(ZonedDateTime time) {
+        return time.withZoneSameInstant(STORAGE_ZONE).toLocalDateTime();
+    }
+
+    private static LocalDateTime fromStorageTime(LocalDateTime time, ZoneId zone) {
+        return time.atZone(STORAGE_ZONE).withZoneSameInstant(zone).toLocalDateTime();
+    }
+
+    /**
+     * Returns the calendar's meetings overlapping [start, end), sorted by start time. Occurrences of
+     * its series are included as unsaved meetings without an ID.
+     */
+    private List<Meeting> getBusyMeetings(Calendar calendar, LocalDateTime start, LocalDateTime end) {
+        return getBusyMeetings(calendarSnapshots.snapshot(calendar, this::loadMeetingTimes), calendar, start, end);
+    }
+
+    private List<Meeting> getBusyMeetings(CalendarSnapshot snapshot, Calendar calendar, LocalDateTime start, LocalDateTime end) {
+        List<Meeting> meetings = snapshot.overlapping(start, end, calendar);
+        List<BusyInterval> occurrences = SeriesOccurrences.between(getActiveSeries(calendar, start, end), start, end);
+        if (occurrences.isEmpty()) {
+            return meetings;
+        }
+        List<Meeting> busy = new ArrayList<>(meetings.size() + occurrences.size());
+        busy.addAll(meetings);
+        for (BusyInterval occurrence : occurrences) {
+            Meeting meeting = new Meeting();
+            meeting.setStartTime(occurrence.getStart());
+            meeting.setEndTime(occurrence.getEnd());
+            meeting.setCalendar(calendar);
+            busy.add(meeting);
+        }
+        busy.sort(Comparator.comparing(Meeting::getStartTime));
+        return busy;
+    }
+}
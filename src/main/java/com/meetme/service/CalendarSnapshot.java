@@ -0,0 +1,224 @@
+package com.meetme.service;
+
+import com.meetme.entities.Calendar;
+import com.meetme.entities.Meeting;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable read model of one calendar's meetings: parallel arrays of meeting IDs and
+ * {@link EpochSeconds} start and end times sorted by start, plus the running maximum of the end
+ * times so overlap checks are a binary search. Queries work on primitives and allocate nothing until results are turned
+ * back into meetings at the API boundary. Changes produce a patched copy.
+ *
+ * The snapshot remembers the calendar version it reflects, so writers can tell whether it is
+ * still current.
+ */
+public final class CalendarSnapshot {
+
+    static final long NO_ID = -1L;
+
+    private final Long version;
+    private final long[] ids;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+
+    private CalendarSnapshot(Long version, long[] ids, long[] starts, long[] ends) {
+        this.version = version;
+        this.ids = ids;
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnds = new long[ends.length];
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < ends.length; i++) {
+            max = Math.max(max, ends[i]);
+            maxEnds[i] = max;
+        }
+    }
+
+    public static CalendarSnapshot of(List<Meeting> meetings, Long version) {
+        List<Meeting> sorted = new ArrayList<>(meetings);
+        sorted.sort((a, b) -> a.getStartTime().compareTo(b.getStartTime()));
+        Builder builder = new Builder(version, sorted.size());
+        for (Meeting meeting : sorted) {
+            builder.add(meeting.getId(), meeting.getStartTime(), meeting.getEndTime());
+        }
+        return builder.build();
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    public boolean hasOverlap(LocalDateTime start, LocalDateTime end) {
+        return hasOverlap(EpochSeconds.of(start), EpochSeconds.of(end));
+    }
+
+    /**
+     * Tells whether any meeting overlaps the half-open range [from, to) of epoch seconds.
+     */
+    public boolean hasOverlap(long from, long to) {
+        int candidates = firstStartAtOrAfter(to);
+        return candidates > 0 && maxEnds[candidates - 1] > from;
+    }
+
+    /**
+     * Returns the meetings overlapping [start, end) ordered by start time, as unattached meetings
+     * carrying only their ID, times and the given calendar.
+     */
+    public List<Meeting> overlapping(LocalDateTime start, LocalDateTime end, Calendar calendar) {
+        long from = EpochSeconds.of(start);
+        int last = firstStartAtOrAfter(EpochSeconds.of(end)) - 1;
+        int first = last;
+        while (first >= 0 && maxEnds[first] > from) {
+            first--;
+        }
+        if (first == last) {
+            return Collections.emptyList();
+        }
+        List<Meeting> result = new ArrayList<>(last - first);
+        for (int i = first + 1; i <= last; i++) {
+            if (ends[i] > from) {
+                Meeting meeting = new Meeting();
+                meeting.setId(ids[i] != NO_ID ? ids[i] : null);
+                meeting.setStartTime(EpochSeconds.toDateTime(starts[i]));
+                meeting.setEndTime(EpochSeconds.toDateTime(ends[i]));
+                meeting.setCalendar(calendar);
+                result.add(meeting);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the meetings overlapping [from, to) of epoch seconds as a busy timeline over this
+     * snapshot's arrays, ordered by start time.
+     */
+    public BusyTimeline timeline(long from, long to) {
+        int last = firstStartAtOrAfter(to) - 1;
+        int first = last;
+        while (first >= 0 && maxEnds[first] > from) {
+            first--;
+        }
+        int end = last + 1;
+        int begin = first + 1;
+        return new BusyTimeline() {
+            private int position = begin - 1;
+
+            @Override
+            public boolean next() {
+                while (++position < end) {
+                    if (ends[position] > from) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public long start() {
+                return starts[position];
+            }
+
+            @Override
+            public long end() {
+                return ends[position];
+            }
+        };
+    }
+
+    /**
+     * Returns a copy with the meeting added, at the given calendar version.
+     */
+    public CalendarSnapshot with(Long meetingId, LocalDateTime start, LocalDateTime end, Long newVersion) {
+        long startKey = EpochSeconds.of(start);
+        int position = firstStartAtOrAfter(startKey + 1);
+        return new CalendarSnapshot(newVersion,
+                insert(ids, position, meetingId != null ? meetingId : NO_ID),
+                insert(starts, position, startKey),
+                insert(ends, position, EpochSeconds.of(end)));
+    }
+
+    /**
+     * Returns a copy without the meeting, at the given calendar version.
+     */
+    public CalendarSnapshot without(Long meetingId, Long newVersion) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == meetingId) {
+                return new CalendarSnapshot(newVersion, remove(ids, i), remove(starts, i), remove(ends, i));
+            }
+        }
+        return new CalendarSnapshot(newVersion, ids, starts, ends);
+    }
+
+    private int firstStartAtOrAfter(long key) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long[] insert(long[] values, int position, long value) {
+        long[] copy = new long[values.length + 1];
+        System.arraycopy(values, 0, copy, 0, position);
+        copy[position] = value;
+        System.arraycopy(values, position, copy, position + 1, values.length - position);
+        return copy;
+    }
+
+    private static long[] remove(long[] values, int position) {
+        long[] copy = Arrays.copyOf(values, values.length - 1);
+        System.arraycopy(values, position + 1, copy, position, values.length - position - 1);
+        return copy;
+    }
+
+    /**
+     * Collects meetings that arrive sorted by start time, as from a query ordered by start.
+     */
+    static final class Builder {
+        private final Long version;
+        private long[] ids;
+        private long[] starts;
+        private long[] ends;
+        private int size;
+
+        Builder(Long version, int expectedSize) {
+            this.version = version;
+            this.ids = new long[Math.max(expectedSize, 4)];
+            this.starts = new long[ids.length];
+            this.ends = new long[ids.length];
+        }
+
+        void add(Long meetingId, LocalDateTime start, LocalDateTime end) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            ids[size] = meetingId != null ? meetingId : NO_ID;
+            starts[size] = EpochSeconds.of(start);
+            ends[size] = EpochSeconds.of(end);
+            size++;
+        }
+
+        CalendarSnapshot build() {
+            return new CalendarSnapshot(version, Arrays.copyOf(ids, size), Arrays.copyOf(starts, size), Arrays.copyOf(ends, size));
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.meetme.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.meetme.entities.Calendar;
+import com.meetme.entities.Meeting;
+import com.meetme.repository.CalendarMeetingView;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Keeps one {@link CalendarSnapshot} per persisted calendar, bounded by the total number of
+ * meetings held. A snapshot is built once, from the calendar's meetings when they are already
+ * loaded or else from a projection query, and then patched as meetings are booked or cancelled.
+ * A snapshot is only trusted at the calendar version it was built or patched at: reads compare it
+ * with the version of the calendar entity they loaded, and the booking path with the version it
+ * locked, so changes committed by other instances are picked up on the next read. Snapshots are
+ * also dropped a while after they were built.
+ */
+@Component
+public class CalendarSnapshotStore {
+
+    private final Cache<Long, CalendarSnapshot> snapshots;
+    private final BookingLocks bookingLocks;
+
+    public CalendarSnapshotStore(BookingLocks bookingLocks,
+                                 @Value("${meetme.snapshots.maximum-meetings:5000000}") long maximumMeetings,
+                                 @Value("${meetme.snapshots.expire-after-load:PT10M}") Duration expireAfterLoad) {
+        this.bookingLocks = bookingLocks;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(maximumMeetings)
+                .weigher((Long calendarId, CalendarSnapshot snapshot) -> snapshot.size() + 1)
+                .expireAfter(new Expiry<Long, CalendarSnapshot>() {
+                    @Override
+                    public long expireAfterCreate(Long calendarId, CalendarSnapshot snapshot, long currentTime) {
+                        return expireAfterLoad.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long calendarId, CalendarSnapshot snapshot, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long calendarId, CalendarSnapshot snapshot, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public CalendarSnapshot snapshot(Calendar calendar, Function<List<Long>, List<CalendarMeetingView>> loader) {
+        return snapshots(List.of(calendar), loader).get(0);
+    }
+
+    /**
+     * Returns a snapshot of each calendar, in order. Missing snapshots of calendars whose meetings
+     * are not loaded come from a single loader call, which receives their IDs and returns their
+     * rows of {@code CalendarRepository#findMeetingTimes}. Loading holds the calendars' booking
+     * locks, so no booking can commit between the read and the snapshot being stored. A stored
+     * snapshot at another version than a loaded calendar entity is rebuilt.
+     */
+    public List<CalendarSnapshot> snapshots(List<Calendar> calendars, Function<List<Long>, List<CalendarMeetingView>> loader) {
+        for (Calendar calendar : calendars) {
+            if (calendar.getId() != null && Hibernate.isInitialized(calendar) && calendar.getVersion() != null) {
+                snapshots.asMap().computeIfPresent(calendar.getId(), (id, snapshot) ->
+                        snapshot.getVersion() == null || snapshot.getVersion().equals(calendar.getVersion()) ? snapshot : null);
+            }
+        }
+        return lookup(calendars, loader);
+    }
+
+    private List<CalendarSnapshot> lookup(List<Calendar> calendars, Function<List<Long>, List<CalendarMeetingView>> loader) {
+        List<CalendarSnapshot> result = new ArrayList<>(calendars.size());
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Calendar calendar : calendars) {
+            CalendarSnapshot snapshot = calendar.getId() == null
+                    ? CalendarSnapshot.of(calendar.getMeetings(), calendar.getVersion())
+                    : snapshots.getIfPresent(calendar.getId());
+            if (snapshot == null) {
+                missing.add(calendar.getId());
+            }
+            result.add(snapshot);
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, CalendarSnapshot> loaded = bookingLocks.withLocks(missing, () -> load(calendars, missing, loader));
+        for (int i = 0; i < calendars.size(); i++) {
+            if (result.get(i) == null) {
+                result.set(i, loaded.get(calendars.get(i).getId()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the snapshot of a persisted calendar known only by its ID, loading it through the
+     * loader under the calendar's booking lock if it is missing. Without a calendar entity to
+     * compare versions with, a stored snapshot may lag changes made by other instances until it
+     * expires.
+     */
+    public CalendarSnapshot snapshot(Long calendarId, Function<List<Long>, List<CalendarMeetingView>> loader) {
+        return snapshotsOf(List.of(calendarId), loader).get(0);
+    }
+
+    /**
+     * Returns the snapshots of persisted calendars known only by their IDs, in order, loading the
+     * missing ones with a single loader call under their booking locks.
+     */
+    public List<CalendarSnapshot> snapshotsOf(List<Long> calendarIds, Function<List<Long>, List<CalendarMeetingView>> loader) {
+        Map<Long, CalendarSnapshot> found = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long calendarId : calendarIds) {
+            CalendarSnapshot snapshot = snapshots.getIfPresent(calendarId);
+            if (snapshot != null) {
+                found.put(calendarId, snapshot);
+            } else {
+                missing.add(calendarId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            found.putAll(bookingLocks.withLocks(missing, () -> {
+                Map<Long, CalendarSnapshot> loaded = new HashMap<>();
+                Set<Long> query = new LinkedHashSet<>();
+                for (Long calendarId : missing) {
+                    CalendarSnapshot present = snapshots.getIfPresent(calendarId);
+                    if (present != null) {
+                        loaded.put(calendarId, present);
+                    } else {
+                        query.add(calendarId);
+                    }
+                }
+                if (!query.isEmpty()) {
+                    loaded.putAll(query(query, loader));
+                }
+                return loaded;
+            }));
+        }
+        List<CalendarSnapshot> result = new ArrayList<>(calendarIds.size());
+        calendarIds.forEach(calendarId -> result.add(found.get(calendarId)));
+        return result;
+    }
+
+    /**
+     * Returns a snapshot that reflects the last committed version of a calendar the caller has
+     * locked for write, rebuilding it if it has fallen behind. Locking already moved the
+     * calendar's version one past that commit.
+     */
+    public CalendarSnapshot current(Calendar calendar, Function<List<Long>, List<CalendarMeetingView>> loader) {
+        if (calendar.getId() != null) {
+            CalendarSnapshot snapshot = snapshots.getIfPresent(calendar.getId());
+            Long committed = calendar.getVersion() != null ? calendar.getVersion() - 1 : null;
+            if (snapshot != null && !Objects.equals(snapshot.getVersion(), committed)) {
+                snapshots.invalidate(calendar.getId());
+            }
+        }
+        return lookup(List.of(calendar), loader).get(0);
+    }
+
+    public void meetingAdded(Meeting meeting) {
+        Calendar calendar = meeting.getCalendar();
+        if (calendar == null || calendar.getId() == null) {
+            return;
+        }
+        snapshots.asMap().computeIfPresent(calendar.getId(), (id, snapshot) -> follows(snapshot, calendar.getVersion())
+                ? snapshot.with(meeting.getId(), meeting.getStartTime(), meeting.getEndTime(), calendar.getVersion())
+                : null);
+    }
+
+    public void meetingRemoved(Meeting meeting) {
+        Calendar calendar = meeting.getCalendar();
+        if (calendar == null || calendar.getId() == null || meeting.getId() == null) {
+            return;
+        }
+        snapshots.asMap().computeIfPresent(calendar.getId(), (id, snapshot) -> follows(snapshot, calendar.getVersion())
+                ? snapshot.without(meeting.getId(), calendar.getVersion())
+                : null);
+    }
+
+    /**
+     * A commit moves the calendar one version on, and several changes in one commit share it; any
+     * other gap means a change was missed and the snapshot is dropped instead of patched.
+     */
+    private static boolean follows(CalendarSnapshot snapshot, Long newVersion) {
+        return snapshot.getVersion() == null || newVersion == null
+                || newVersion.equals(snapshot.getVersion()) || newVersion == snapshot.getVersion() + 1;
+    }
+
+    private Map<Long, CalendarSnapshot> load(List<Calendar> calendars, Set<Long> calendarIds,
+                                             Function<List<Long>, List<CalendarMeetingView>> loader) {
+        Map<Long, CalendarSnapshot> loaded = new HashMap<>();
+        Set<Long> query = new LinkedHashSet<>();
+        for (Calendar calendar : calendars) {
+            Long id = calendar.getId();
+            if (id == null || !calendarIds.contains(id) || loaded.containsKey(id) || query.contains(id)) {
+                continue;
+            }
+            CalendarSnapshot present = snapshots.getIfPresent(id);
+            if (present != null) {
+                loaded.put(id, present);
+            } else if (Hibernate.isInitialized(calendar.getMeetings())) {
+                loaded.put(id, CalendarSnapshot.of(calendar.getMeetings(), calendar.getVersion()));
+            } else {
+                query.add(id);
+            }
+        }
+
+        loaded.forEach((id, snapshot) -> snapshots.asMap().putIfAbsent(id, snapshot));
+        if (!query.isEmpty()) {
+            loaded.putAll(query(query, loader));
+        }
+        return loaded;
+    }
+
+    /**
+     * Builds and stores the snapshots of the given calendars from one loader call.
+     */
+    private Map<Long, CalendarSnapshot> query(Set<Long> calendarIds, Function<List<Long>, List<CalendarMeetingView>> loader) {
+        Map<Long, CalendarSnapshot.Builder> builders = new HashMap<>();
+        for (CalendarMeetingView row : loader.apply(new ArrayList<>(calendarIds))) {
+            CalendarSnapshot.Builder builder = builders.computeIfAbsent(row.getCalendarId(),
+                    id -> new CalendarSnapshot.Builder(row.getVersion(), 16));
+            if (row.getStartTime() != null) {
+                builder.add(row.getMeetingId(), row.getStartTime(), row.getEndTime());
+            }
+        }
+        Map<Long, CalendarSnapshot> loaded = new HashMap<>();
+        for (Long id : calendarIds) {
+            CalendarSnapshot.Builder builder = builders.get(id);
+            CalendarSnapshot snapshot = builder != null ? builder.build() : CalendarSnapshot.of(List.of(), null);
+            snapshots.asMap().putIfAbsent(id, snapshot);
+            loaded.put(id, snapshot);
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,36 @@
+package com.meetme.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * The primitive time representation used inside the conflict and slot algorithms: a storage-zone
+ * local date-time as whole seconds since 1970-01-01T00:00, read as if it were UTC. Conversions
+ * happen only where times enter or leave those algorithms.
+ */
+public final class EpochSeconds {
+
+    private EpochSeconds() {
+    }
+
+    public static long of(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static LocalDateTime toDateTime(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    public static long truncateToMinute(long seconds) {
+        return seconds - Math.floorMod(seconds, 60L);
+    }
+
+    /**
+     * Returns the duration rounded up to whole seconds, so that a gap of that many seconds is
+     * exactly as long as needed.
+     */
+    public static long ceilSeconds(Duration duration) {
+        return duration.getSeconds() + (duration.getNano() > 0 ? 1 : 0);
+    }
+}
@@ -0,0 +1,149 @@
+package com.meetme.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs independent blocking lookups, such as per-participant database round-trips, concurrently.
+ *
+ * Disabled by default, in which case every task runs inline on the caller's thread. When enabled
+ * the tasks run on virtual threads if the JVM has them (Java 21+) and on a small platform pool
+ * otherwise; either way at most maxConcurrency of them are in flight, so one large request cannot
+ * drain the connection pool.
+ */
+@Component
+public class FanOutExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(FanOutExecutor.class);
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int chunkSize;
+
+    public FanOutExecutor(@Value("${meetme.virtual-threads.enabled:false}") boolean enabled,
+                          @Value("${meetme.fan-out.max-concurrency:8}") int maxConcurrency,
+                          @Value("${meetme.fan-out.chunk-size:50}") int chunkSize) {
+        this.chunkSize = chunkSize;
+        if (!enabled) {
+            this.executor = null;
+            this.permits = null;
+            return;
+        }
+        this.executor = newVirtualThreadPerTaskExecutor().orElseGet(() -> {
+            logger.warn("Virtual threads need Java 21, fanning out on {} platform threads instead", maxConcurrency);
+            AtomicInteger threadCount = new AtomicInteger();
+            return Executors.newFixedThreadPool(maxConcurrency, task -> {
+                Thread thread = new Thread(task, "fan-out-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        });
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * Returns a virtual-thread-per-task executor when running on Java 21 or later. Looked up
+     * reflectively because the code is compiled for Java 17.
+     */
+    public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        try {
+            return Optional.of((ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null));
+        } catch (ReflectiveOperationException e) {
+            return Optional.empty();
+        }
+    }
+
+    public boolean isConcurrent() {
+        return executor != null;
+    }
+
+    /**
+     * Applies the task to every input and returns the results in input order. A failing task
+     * fails the whole call with its exception once all tasks have finished.
+     */
+    public <T, R> List<R> map(List<T> inputs, Function<T, R> task) {
+        if (executor == null || inputs.size() <= 1) {
+            List<R> results = new ArrayList<>(inputs.size());
+            for (T input : inputs) {
+                results.add(task.apply(input));
+            }
+            return results;
+        }
+
+        List<Future<R>> futures = new ArrayList<>(inputs.size());
+        for (T input : inputs) {
+            futures.add(executor.submit(() -> {
+                permits.acquire();
+                try {
+                    return task.apply(input);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+
+        List<R> results = new ArrayList<>(inputs.size());
+        RuntimeException failure = null;
+        for (Future<R> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(pending -> pending.cancel(true));
+                throw new IllegalStateException("Interrupted while waiting for fanned-out tasks", e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException
+                            ? (RuntimeException) e.getCause()
+                            : new IllegalStateException(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    /**
+     * Splits the inputs into chunks of chunkSize, applies the task to the chunks concurrently and
+     * concatenates the results. When running sequentially the inputs are passed as one chunk, so
+     * a set-based query still costs a single round-trip.
+     */
+    public <T, R> List<R> mapChunks(List<T> inputs, Function<List<T>, List<R>> task) {
+        if (inputs.isEmpty()) {
+            return List.of();
+        }
+        if (executor == null || inputs.size() <= chunkSize) {
+            return task.apply(inputs);
+        }
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < inputs.size(); from += chunkSize) {
+            chunks.add(inputs.subList(from, Math.min(inputs.size(), from + chunkSize)));
+        }
+        List<R> results = new ArrayList<>(inputs.size());
+        map(chunks, task).forEach(results::addAll);
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
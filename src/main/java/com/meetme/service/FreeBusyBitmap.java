@@ -0,0 +1,159 @@
+
+package com.meetme.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Compact free/busy encoding of a time window: one bit per quantum, set when busy, packed into
+ * a {@code long[]}. Intersecting the availability of a group is a word-wise OR of the members'
+ * bitmaps, and free slots fall out of a run-length scan over the clear bits.
+ *
+ * Busy time is rounded outwards to whole quanta, so a bitmap never reports a busy minute as free.
+ */
+public final class FreeBusyBitmap {
+
+    private final long origin;
+    private final int quantumMinutes;
+    private final int quanta;
+    private final long[] words;
+
+    public FreeBusyBitmap(LocalDateTime origin, LocalDateTime end, int quantumMinutes) {
+        this(EpochSeconds.of(origin), EpochSeconds.of(end), quantumMinutes);
+    }
+
+    /**
+     * Creates an empty bitmap of [origin, end) in {@link EpochSeconds}.
+     */
+    public FreeBusyBitmap(long origin, long end, int quantumMinutes) {
+        if (quantumMinutes <= 0) {
+            throw new IllegalArgumentException("Quantum must be at least one minute");
+        }
+        this.origin = origin;
+        this.quantumMinutes = quantumMinutes;
+        long minutes = Math.max(0, (end - origin) / 60);
+        this.quanta = (int) (minutes / quantumMinutes);
+        this.words = new long[(quanta + 63) >>> 6];
+    }
+
+    public static FreeBusyBitmap of(List<Iterator<BusyInterval>> timelines, LocalDateTime origin, LocalDateTime end, int quantumMinutes) {
+        BusyTimeline[] cursors = new BusyTimeline[timelines.size()];
+        for (int i = 0; i < cursors.length; i++) {
+            cursors[i] = BusyTimeline.of(timelines.get(i));
+        }
+        return of(cursors, EpochSeconds.of(origin), EpochSeconds.of(end), quantumMinutes);
+    }
+
+    public static FreeBusyBitmap of(BusyTimeline[] timelines, long origin, long end, int quantumMinutes) {
+        FreeBusyBitmap bitmap = new FreeBusyBitmap(origin, end, quantumMinutes);
+        for (BusyTimeline timeline : timelines) {
+            while (timeline.next()) {
+                bitmap.markBusy(timeline.start(), timeline.end());
+            }
+        }
+        return bitmap;
+    }
+
+    public void markBusy(LocalDateTime start, LocalDateTime end) {
+        markBusy(EpochSeconds.of(start), EpochSeconds.of(end));
+    }
+
+    /**
+     * Marks [start, end) in {@link EpochSeconds} busy, rounded outwards to whole quanta.
+     */
+    public void markBusy(long start, long end) {
+        long fromMinute = (EpochSeconds.truncateToMinute(start) - origin) / 60;
+        long toMinute = (EpochSeconds.truncateToMinute(end) - origin) / 60;
+        long from = Math.floorDiv(fromMinute, quantumMinutes);
+        long to = Math.floorDiv(toMinute + quantumMinutes - 1, quantumMinutes);
+        setRange((int) Math.max(0, from), (int) Math.min(quanta, to));
+    }
+
+    /**
+     * Merges another bitmap of the same window into this one, marking its busy quanta busy here.
+     */
+    public void or(FreeBusyBitmap other) {
+        if (origin != other.origin || quantumMinutes != other.quantumMinutes || quanta != other.quanta) {
+            throw new IllegalArgumentException("Bitmaps cover different windows");
+        }
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    public void forEachFreeSlot(Duration minimum, BiConsumer<LocalDateTime, LocalDateTime> sink) {
+        forEachFreeSlot(EpochSeconds.ceilSeconds(minimum),
+                (start, end) -> sink.accept(EpochSeconds.toDateTime(start), EpochSeconds.toDateTime(end)));
+    }
+
+    /**
+     * Emits the free runs of at least minimumSeconds, rounded up to whole quanta, as
+     * {@link EpochSeconds}.
+     */
+    public void forEachFreeSlot(long minimumSeconds, SlotSink sink) {
+        long minimumMinutes = Math.floorDiv(minimumSeconds + 59, 60);
+        long minimumQuanta = Math.max(1, (minimumMinutes + quantumMinutes - 1) / quantumMinutes);
+        long quantumSeconds = quantumMinutes * 60L;
+        int position = 0;
+        while (position < quanta) {
+            int free = nextClear(position);
+            if (free >= quanta) {
+                break;
+            }
+            int busy = nextSet(free);
+            if (busy - free >= minimumQuanta) {
+                sink.accept(origin + free * quantumSeconds, origin + busy * quantumSeconds);
+                if (sink.isDone()) {
+                    return;
+                }
+            }
+            position = busy;
+        }
+    }
+
+    private void setRange(int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> (63 - ((to - 1) & 63));
+        if (firstWord == lastWord) {
+            words[firstWord] |= firstMask & lastMask;
+            return;
+        }
+        words[firstWord] |= firstMask;
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            words[i] = -1L;
+        }
+        words[lastWord] |= lastMask;
+    }
+
+    private int nextClear(int from) {
+        int index = from >>> 6;
+        long word = ~words[index] & (-1L << from);
+        while (word == 0) {
+            if (++index == words.length) {
+                return quanta;
+            }
+            word = ~words[index];
+        }
+        return Math.min(quanta, (index << 6) + Long.numberOfTrailingZeros(word));
+    }
+
+    private int nextSet(int from) {
+        int index = from >>> 6;
+        long word = words[index] & (-1L << from);
+        while (word == 0) {
+            if (++index == words.length) {
+                return quanta;
+            }
+            word = words[index];
+        }
+        return Math.min(quanta, (index << 6) + Long.numberOfTrailingZeros(word));
+    }
+}
@@ -0,0 +1,196 @@
+
+package com.meetme.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.meetme.event.MeetingChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Bounded, expiring cache of each user's free/busy data: their {@link FreeBusyProfile} and their
+ * busy intervals per day, clipped to that day. Entries are evicted for exactly the users and days
+ * named by a {@link MeetingChangedEvent} once the change is committed.
+ *
+ * A day is kept as a {@code long[]} of alternating start and end {@link EpochSeconds}, so reading a
+ * cached timeline hands the slot finder primitives without materialising an object per interval.
+ */
+@Component
+public class FreeBusyCache {
+
+    private final Cache<Long, FreeBusyProfile> profiles;
+    private final Cache<DayKey, long[]> days;
+
+    public FreeBusyCache(@Value("${meetme.cache.free-busy.maximum-size:10000}") long maximumSize,
+                         @Value("${meetme.cache.free-busy.expire-after-write:PT5M}") Duration expireAfterWrite) {
+        this.profiles = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(expireAfterWrite).build();
+        this.days = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(expireAfterWrite).build();
+    }
+
+    public FreeBusyProfile profile(Long userId, Function<Long, FreeBusyProfile> loader) {
+        return profiles.get(userId, loader);
+    }
+
+    /**
+     * Returns the profiles of all given users, loading the missing ones with a single loader call.
+     */
+    public Map<Long, FreeBusyProfile> profiles(Collection<Long> userIds,
+                                               Function<Set<? extends Long>, Map<Long, FreeBusyProfile>> loader) {
+        return profiles.getAll(userIds, loader);
+    }
+
+    /**
+     * Returns the user's busy intervals on the days from first to last as one sorted timeline.
+     * Missing days are loaded with a single call to the loader, which receives the first and last
+     * missing day and must return the busy intervals overlapping them, sorted by start time.
+     */
+    public BusyTimeline timeline(Long userId, LocalDate first, LocalDate last,
+                                 BiFunction<LocalDate, LocalDate, List<BusyInterval>> loader) {
+        List<DayKey> keys = new ArrayList<>();
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            keys.add(new DayKey(userId, day));
+        }
+        Map<DayKey, long[]> cached = days.getAll(keys, missing -> loadDays(missing, loader));
+
+        long[][] timeline = new long[keys.size()][];
+        for (int i = 0; i < timeline.length; i++) {
+            timeline[i] = cached.get(keys.get(i));
+        }
+        return new DayTimeline(timeline);
+    }
+
+    public void evictProfile(Long userId) {
+        profiles.invalidate(userId);
+    }
+
+    public void evictDays(Long userId, LocalDate first, LocalDate last) {
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            days.invalidate(new DayKey(userId, day));
+        }
+    }
+
+    /**
+     * Evicts the user's cached days from first onwards, however far ahead they were loaded.
+     */
+    public void evictDaysFrom(Long userId, LocalDate first) {
+        days.asMap().keySet().removeIf(key -> key.userId.equals(userId) && !key.day.isBefore(first));
+    }
+
+    public void evictAll() {
+        profiles.invalidateAll();
+        days.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMeetingChanged(MeetingChangedEvent event) {
+        LocalDate first = event.getStart().toLocalDate();
+        if (event.getEnd() == null) {
+            for (Long userId : event.getUserIds()) {
+                evictDaysFrom(userId, first);
+            }
+            return;
+        }
+        LocalDate last = event.getEnd().minusNanos(1).toLocalDate();
+        for (Long userId : event.getUserIds()) {
+            evictDays(userId, first, last);
+        }
+    }
+
+    private static Map<DayKey, long[]> loadDays(Set<? extends DayKey> missing,
+                                                BiFunction<LocalDate, LocalDate, List<BusyInterval>> loader) {
+        LocalDate first = null;
+        LocalDate last = null;
+        for (DayKey key : missing) {
+            first = first == null || key.day.isBefore(first) ? key.day : first;
+            last = last == null || key.day.isAfter(last) ? key.day : last;
+        }
+        List<BusyInterval> busy = loader.apply(first, last);
+
+        Map<LocalDate, List<BusyInterval>> byDay = new HashMap<>();
+        for (DayKey key : missing) {
+            byDay.put(key.day, new ArrayList<>());
+        }
+        for (BusyInterval interval : busy) {
+            LocalDate lastDay = interval.getEnd().minusNanos(1).toLocalDate();
+            for (LocalDate day = interval.getStart().toLocalDate(); !day.isAfter(lastDay); day = day.plusDays(1)) {
+                List<BusyInterval> dayIntervals = byDay.get(day);
+                if (dayIntervals != null) {
+                    dayIntervals.add(clip(interval, day.atStartOfDay(), day.plusDays(1).atStartOfDay()));
+                }
+            }
+        }
+
+        Map<DayKey, long[]> loaded = new HashMap<>();
+        for (DayKey key : missing) {
+            loaded.put(key, toSeconds(byDay.get(key.day)));
+        }
+        return loaded;
+    }
+
+    private static long[] toSeconds(List<BusyInterval> intervals) {
+        long[] seconds = new long[intervals.size() * 2];
+        for (int i = 0; i < intervals.size(); i++) {
+            seconds[2 * i] = EpochSeconds.of(intervals.get(i).getStart());
+            seconds[2 * i + 1] = EpochSeconds.of(intervals.get(i).getEnd());
+        }
+        return seconds;
+    }
+
+    private static BusyInterval clip(BusyInterval interval, LocalDateTime dayStart, LocalDateTime dayEnd) {
+        if (!interval.getStart().isBefore(dayStart) && !interval.getEnd().isAfter(dayEnd)) {
+            return interval;
+        }
+        return new BusyInterval(
+                interval.getStart().isBefore(dayStart) ? dayStart : interval.getStart(),
+                interval.getEnd().isAfter(dayEnd) ? dayEnd : interval.getEnd());
+    }
+
+    /**
+     * Walks consecutive cached days in place.
+     */
+    private static final class DayTimeline implements BusyTimeline {
+        private final long[][] days;
+        private int day;
+        private int position = -2;
+
+        private DayTimeline(long[][] days) {
+            this.days = days;
+        }
+
+        @Override
+        public boolean next() {
+            position += 2;
+            while (day < days.length && position >= days[day].length) {
+                day++;
+                position = 0;
+            }
+            return day < days.length;
+        }
+
+        @Override
+        public long start() {
+            return days[day][position];
+        }
+
+        @Override
+        public long end() {
+            return days[day][position + 1];
+        }
+    }
+
+    private record DayKey(Long userId, LocalDate day) {
+    }
+}
@@ -0,0 +1,14 @@
+
+package com.meetme.service;
+
+import lombok.Value;
+
+/**
+ * The parts of a user needed to compute their availability, cached so availability requests do
+ * not have to load the user entity.
+ */
+@Value
+public class FreeBusyProfile {
+    Long calendarId;
+    WorkingHours workingHours;
+}
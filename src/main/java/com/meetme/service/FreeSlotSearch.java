@@ -0,0 +1,15 @@
+package com.meetme.service;
+
+import java.time.LocalDateTime;
+import java.util.function.BiConsumer;
+
+/**
+ * A prepared free-slot search. The participants are resolved when the search is created, so unknown
+ * users fail before any result is written; the slots themselves are computed and handed to the sink
+ * one at a time, in order, when the search runs.
+ */
+@FunctionalInterface
+public interface FreeSlotSearch {
+
+    void forEach(BiConsumer<LocalDateTime, LocalDateTime> sink);
+}
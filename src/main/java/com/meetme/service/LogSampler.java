@@ -0,0 +1,28 @@
+package com.meetme.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which hot-path calls get an INFO summary line, so production logs keep a representative
+ * trickle of key=value records without paying for one per request. Detailed per-call logging stays
+ * at DEBUG.
+ */
+@Component
+public class LogSampler {
+
+    private final int oneIn;
+
+    /**
+     * @param oneIn log roughly one call in this many; 1 logs every call, 0 turns sampling off
+     */
+    public LogSampler(@Value("${meetme.logging.sample-rate:1000}") int oneIn) {
+        this.oneIn = oneIn;
+    }
+
+    public boolean sample() {
+        return oneIn > 0 && (oneIn == 1 || ThreadLocalRandom.current().nextInt(oneIn) == 0);
+    }
+}
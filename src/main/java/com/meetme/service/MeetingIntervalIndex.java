@@ -0,0 +1,286 @@
+
+package com.meetme.service;
+
+import com.meetme.entities.Meeting;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Augmented interval tree over the meetings of one calendar.
+ *
+ * Nodes are kept in an AVL tree ordered by start time, and every node carries the
+ * largest end time of its subtree so overlap queries can prune whole branches.
+ * Inserts and removals are O(log n), overlap queries are O(log n + k).
+ */
+public class MeetingIntervalIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Node> nodesByMeetingId = new HashMap<>();
+    private Node root;
+    private int size;
+    private long sequence;
+
+    public static MeetingIntervalIndex of(List<Meeting> meetings) {
+        MeetingIntervalIndex index = new MeetingIntervalIndex();
+        for (Meeting meeting : meetings) {
+            index.add(meeting);
+        }
+        return index;
+    }
+
+    public void add(Meeting meeting) {
+        lock.writeLock().lock();
+        try {
+            if (meeting.getId() != null && nodesByMeetingId.containsKey(meeting.getId())) {
+                return;
+            }
+            Node node = new Node(meeting, toKey(meeting.getStartTime()), toKey(meeting.getEndTime()), sequence++);
+            root = insert(root, node);
+            size++;
+            if (meeting.getId() != null) {
+                nodesByMeetingId.put(meeting.getId(), node);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(Long meetingId) {
+        lock.writeLock().lock();
+        try {
+            Node node = nodesByMeetingId.remove(meetingId);
+            if (node == null) {
+                return false;
+            }
+            root = delete(root, node.start, node.sequence);
+            size--;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the meetings overlapping the half-open range [start, end), ordered by start time.
+     */
+    public List<Meeting> overlapping(LocalDateTime start, LocalDateTime end) {
+        long from = toKey(start);
+        long to = toKey(end);
+        List<Meeting> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            collectOverlapping(root, from, to, result);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    public boolean hasOverlap(LocalDateTime start, LocalDateTime end) {
+        long from = toKey(start);
+        long to = toKey(end);
+        lock.readLock().lock();
+        try {
+            return anyOverlapping(root, from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns every indexed meeting ordered by start time.
+     */
+    public List<Meeting> meetings() {
+        lock.readLock().lock();
+        try {
+            List<Meeting> result = new ArrayList<>(size);
+            collectInOrder(root, result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long toKey(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static void collectOverlapping(Node node, long from, long to, List<Meeting> result) {
+        if (node == null || node.maxEnd <= from) {
+            return;
+        }
+        collectOverlapping(node.left, from, to, result);
+        if (node.start >= to) {
+            return;
+        }
+        if (node.end > from) {
+            result.add(node.meeting);
+        }
+        collectOverlapping(node.right, from, to, result);
+    }
+
+    private static boolean anyOverlapping(Node node, long from, long to) {
+        while (node != null && node.maxEnd > from) {
+            if (node.left != null && node.left.maxEnd > from) {
+                node = node.left;
+                continue;
+            }
+            if (node.start >= to) {
+                return false;
+            }
+            if (node.end > from) {
+                return true;
+            }
+            node = node.right;
+        }
+        return false;
+    }
+
+    private static void collectInOrder(Node node, List<Meeting> result) {
+        if (node == null) {
+            return;
+        }
+        collectInOrder(node.left, result);
+        result.add(node.meeting);
+        collectInOrder(node.right, result);
+    }
+
+    private static int compare(long start, long sequence, Node node) {
+        int byStart = Long.compare(start, node.start);
+        return byStart != 0 ? byStart : Long.compare(sequence, node.sequence);
+    }
+
+    private static Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (compare(inserted.start, inserted.sequence, node) < 0) {
+            node.left = insert(node.left, inserted);
+        } else {
+            node.right = insert(node.right, inserted);
+        }
+        return rebalance(node);
+    }
+
+    private static Node delete(Node node, long start, long sequence) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, sequence, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, start, sequence);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, start, sequence);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return rebalance(node);
+    }
+
+    private static Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return rebalance(node);
+    }
+
+    private static Node rebalance(Node node) {
+        node.update();
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static final class Node {
+        private final Meeting meeting;
+        private final long start;
+        private final long end;
+        private final long sequence;
+        private long maxEnd;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        private Node(Meeting meeting, long start, long end, long sequence) {
+            this.meeting = meeting;
+            this.start = start;
+            this.end = end;
+            this.sequence = sequence;
+            this.maxEnd = end;
+        }
+
+        private void update() {
+            height = 1 + Math.max(height(left), height(right));
+            long max = end;
+            if (left != null && left.maxEnd > max) {
+                max = left.maxEnd;
+            }
+            if (right != null && right.maxEnd > max) {
+                max = right.maxEnd;
+            }
+            maxEnd = max;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.meetme.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The subset of RFC 5545 RRULE that calendars use for meeting series: FREQ=DAILY, WEEKLY or
+ * MONTHLY, with optional INTERVAL, BYDAY (DAILY and WEEKLY only), and COUNT or UNTIL. For example
+ * "FREQ=WEEKLY;BYDAY=MO,WE,FR" or "FREQ=DAILY;BYDAY=MO,TU,WE,TH,FR;UNTIL=20251231".
+ *
+ * Occurrence starts are generated lazily and in order, and generation begins at the period that
+ * contains the requested instant, so expanding a window costs the same however old the series is.
+ * Occurrences keep the wall-clock time of the first one.
+ */
+public final class RecurrenceRule {
+
+    static final int MAX_COUNT = 5000;
+
+    /**
+     * Periods in a row without an occurrence after which a rule is taken to have no more. Valid
+     * rules never get near it; the longest legitimate run is a monthly rule on the 29th of February.
+     */
+    static final int MAX_EMPTY_PERIODS = 1000;
+
+    private static final DateTimeFormatter UNTIL_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter UNTIL_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private enum Frequency { DAILY, WEEKLY, MONTHLY }
+
+    private final Frequency frequency;
+    private final int interval;
+    private final Set<DayOfWeek> byDay;
+    private final Integer count;
+    private final LocalDateTime until;
+
+    private RecurrenceRule(Frequency frequency, int interval, Set<DayOfWeek> byDay, Integer count, LocalDateTime until) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.byDay = byDay;
+        this.count = count;
+        this.until = until;
+    }
+
+    public static RecurrenceRule parse(String rule) {
+        if (rule == null || rule.isBlank()) {
+            throw new IllegalArgumentException("Recurrence rule is required");
+        }
+        Frequency frequency = null;
+        int interval = 1;
+        Set<DayOfWeek> byDay = EnumSet.noneOf(DayOfWeek.class);
+        Integer count = null;
+        LocalDateTime until = null;
+        String body = rule.startsWith("RRULE:") ? rule.substring("RRULE:".length()) : rule;
+        for (String part : body.split(";")) {
+            String[] pair = part.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Malformed recurrence rule part: " + part);
+            }
+            String value = pair[1].trim();
+            try {
+                switch (pair[0].trim().toUpperCase(Locale.ROOT)) {
+                    case "FREQ" -> frequency = parseFrequency(value);
+                    case "INTERVAL" -> interval = Integer.parseInt(value);
+                    case "COUNT" -> count = Integer.parseInt(value);
+                    case "UNTIL" -> until = parseUntil(value);
+                    case "BYDAY" -> {
+                        for (String day : value.split(",")) {
+                            byDay.add(parseDay(day.trim()));
+                        }
+                    }
+                    default -> throw new IllegalArgumentException("Unsupported recurrence rule part: " + pair[0]);
+                }
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Malformed recurrence rule part: " + part);
+            }
+        }
+        if (frequency == null) {
+            throw new IllegalArgumentException("Recurrence rule needs a FREQ");
+        }
+        if (interval < 1) {
+            throw new IllegalArgumentException("INTERVAL must be positive");
+        }
+        if (count != null && (count < 1 || count > MAX_COUNT)) {
+            throw new IllegalArgumentException("COUNT must be between 1 and " + MAX_COUNT);
+        }
+        if (count != null && until != null) {
+            throw new IllegalArgumentException("COUNT and UNTIL cannot both be set");
+        }
+        if (frequency == Frequency.MONTHLY && !byDay.isEmpty()) {
+            throw new IllegalArgumentException("BYDAY is not supported for monthly rules");
+        }
+        if (frequency == Frequency.DAILY && !byDay.isEmpty() && interval % 7 == 0) {
+            // every occurrence falls on the first one's weekday, so BYDAY either never matches or says nothing
+            throw new IllegalArgumentException("BYDAY cannot be combined with a daily INTERVAL of whole weeks; use FREQ=WEEKLY");
+        }
+        return new RecurrenceRule(frequency, interval, byDay, count, until);
+    }
+
+    /**
+     * Returns the start of the last occurrence of a series that begins at firstStart, or null when
+     * the rule sets neither COUNT nor UNTIL.
+     */
+    public LocalDateTime lastStart(LocalDateTime firstStart) {
+        if (count != null) {
+            Iterator<LocalDateTime> starts = starts(firstStart, firstStart);
+            LocalDateTime last = firstStart;
+            for (int i = 0; i < count && starts.hasNext(); i++) {
+                last = starts.next();
+            }
+            return last;
+        }
+        return until;
+    }
+
+    /**
+     * Returns the occurrence starts of a series that begins at firstStart, from the first one at or
+     * after from, in ascending order and without end; callers stop at their window or at
+     * {@link #lastStart}. The starts only run out if {@link #MAX_EMPTY_PERIODS} periods in a row
+     * have none.
+     */
+    public Iterator<LocalDateTime> starts(LocalDateTime firstStart, LocalDateTime from) {
+        LocalTime time = firstStart.toLocalTime();
+        LocalDate anchor = periodStart(firstStart.toLocalDate());
+        long firstPeriod = 0;
+        if (from.isAfter(firstStart)) {
+            firstPeriod = periodsBetween(anchor, from.toLocalDate()) / interval * interval;
+        }
+        long startPeriod = firstPeriod;
+        return new Iterator<>() {
+            private long period = startPeriod;
+            private final List<LocalDateTime> pending = new ArrayList<>(7);
+            private int position;
+            private int emptyPeriods;
+
+            @Override
+            public boolean hasNext() {
+                while (position == pending.size()) {
+                    if (emptyPeriods == MAX_EMPTY_PERIODS) {
+                        return false;
+                    }
+                    pending.clear();
+                    position = 0;
+                    for (LocalDate date : candidates(anchor.plus(period, unit()), firstStart)) {
+                        LocalDateTime start = date.atTime(time);
+                        if (!start.isBefore(firstStart) && !start.isBefore(from)) {
+                            pending.add(start);
+                        }
+                    }
+                    period += interval;
+                    emptyPeriods = pending.isEmpty() ? emptyPeriods + 1 : 0;
+                }
+                return true;
+            }
+
+            @Override
+            public LocalDateTime next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return pending.get(position++);
+            }
+        };
+    }
+
+    private List<LocalDate> candidates(LocalDate periodStart, LocalDateTime firstStart) {
+        switch (frequency) {
+            case DAILY:
+                return byDay.isEmpty() || byDay.contains(periodStart.getDayOfWeek()) ? List.of(periodStart) : List.of();
+            case WEEKLY:
+                if (byDay.isEmpty()) {
+                    return List.of(periodStart.with(TemporalAdjusters.nextOrSame(firstStart.getDayOfWeek())));
+                }
+                List<LocalDate> days = new ArrayList<>(byDay.size());
+                for (DayOfWeek day : byDay) {
+                    days.add(periodStart.with(TemporalAdjusters.nextOrSame(day)));
+                }
+                return days;
+            default:
+                int dayOfMonth = firstStart.getDayOfMonth();
+                return dayOfMonth <= periodStart.lengthOfMonth() ? List.of(periodStart.withDayOfMonth(dayOfMonth)) : List.of();
+        }
+    }
+
+    private LocalDate periodStart(LocalDate date) {
+        switch (frequency) {
+            case WEEKLY:
+                return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTHLY:
+                return date.withDayOfMonth(1);
+            default:
+                return date;
+        }
+    }
+
+    private long periodsBetween(LocalDate anchor, LocalDate date) {
+        return Math.max(0, unit().between(anchor, periodStart(date)));
+    }
+
+    private ChronoUnit unit() {
+        switch (frequency) {
+            case WEEKLY:
+                return ChronoUnit.WEEKS;
+            case MONTHLY:
+                return ChronoUnit.MONTHS;
+            default:
+                return ChronoUnit.DAYS;
+        }
+    }
+
+    private static LocalDateTime parseUntil(String value) {
+        String local = value.endsWith("Z") ? value.substring(0, value.length() - 1) : value;
+        if (local.length() == 8) {
+            return LocalDate.parse(local, UNTIL_DATE).atTime(LocalTime.MAX);
+        }
+        return LocalDateTime.parse(local, UNTIL_DATE_TIME);
+    }
+
+    private static Frequency parseFrequency(String value) {
+        for (Frequency frequency : Frequency.values()) {
+            if (frequency.name().equalsIgnoreCase(value)) {
+                return frequency;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported recurrence frequency: " + value);
+    }
+
+    private static DayOfWeek parseDay(String day) {
+        switch (day.toUpperCase(Locale.ROOT)) {
+            case "MO": return DayOfWeek.MONDAY;
+            case "TU": return DayOfWeek.TUESDAY;
+            case "WE": return DayOfWeek.WEDNESDAY;
+            case "TH": return DayOfWeek.THURSDAY;
+            case "FR": return DayOfWeek.FRIDAY;
+            case "SA": return DayOfWeek.SATURDAY;
+            case "SU": return DayOfWeek.SUNDAY;
+            default: throw new IllegalArgumentException("Unknown BYDAY value: " + day);
+        }
+    }
+}
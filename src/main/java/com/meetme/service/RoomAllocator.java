@@ -0,0 +1,141 @@
+package com.meetme.service;
+
+/**
+ * Turns the attendees' common free gaps into meeting-sized slots that also have a free room, and
+ * keeps the earliest {@code limit} of them, each with the first room in preference order that is
+ * free for it.
+ *
+ * Candidates start on the quarter hour inside each gap, as with {@link SlotRanker}. Each room is a
+ * cursor over its sorted busy timelines that only moves forward: for a candidate ending at e it
+ * takes in every busy range starting before e and remembers the latest end seen, so the room is
+ * free exactly when that end is no later than the candidate's start. A room is therefore looked at
+ * once per busy range plus once per candidate that reaches it. When no room is free, the next
+ * candidate jumps to the earliest time any of them frees up, since none can be free before then.
+ *
+ * Gaps must arrive in start order; gaps that touch are joined before they are cut into candidates.
+ */
+final class RoomAllocator implements SlotSink {
+
+    private final long durationSeconds;
+    private final int limit;
+    private final Room[] rooms;
+    private final long[] starts;
+    private final int[] allocatedRooms;
+    private int size;
+    private boolean pending;
+    private long pendingStart;
+    private long pendingEnd;
+
+    /**
+     * @param rooms the busy timelines of each candidate room, in order of preference
+     */
+    RoomAllocator(long durationSeconds, int limit, BusyTimeline[][] rooms) {
+        this.durationSeconds = durationSeconds;
+        this.limit = limit;
+        this.rooms = new Room[rooms.length];
+        for (int i = 0; i < rooms.length; i++) {
+            this.rooms[i] = new Room(rooms[i]);
+        }
+        this.starts = new long[limit];
+        this.allocatedRooms = new int[limit];
+    }
+
+    @Override
+    public void accept(long start, long end) {
+        if (pending && start == pendingEnd) {
+            pendingEnd = end;
+            return;
+        }
+        if (pending) {
+            allocate(pendingStart, pendingEnd);
+        }
+        pending = true;
+        pendingStart = start;
+        pendingEnd = end;
+    }
+
+    @Override
+    public boolean isDone() {
+        return size == limit || rooms.length == 0;
+    }
+
+    /**
+     * Allocates the last gap; call once no more gaps will arrive.
+     */
+    void finish() {
+        if (pending) {
+            pending = false;
+            allocate(pendingStart, pendingEnd);
+        }
+    }
+
+    /**
+     * Emits the allocated slots in start order with the index of their room.
+     */
+    void forEachAllocated(Allocation allocation) {
+        for (int i = 0; i < size; i++) {
+            allocation.accept(starts[i], starts[i] + durationSeconds, allocatedRooms[i]);
+        }
+    }
+
+    interface Allocation {
+        void accept(long start, long end, int room);
+    }
+
+    private void allocate(long gapStart, long gapEnd) {
+        long start = alignUp(gapStart);
+        while (!isDone() && start + durationSeconds <= gapEnd) {
+            long end = start + durationSeconds;
+            long freeAt = Long.MAX_VALUE;
+            int free = -1;
+            for (int i = 0; i < rooms.length; i++) {
+                long busyUntil = rooms[i].busyUntil(end);
+                if (busyUntil <= start) {
+                    free = i;
+                    break;
+                }
+                freeAt = Math.min(freeAt, busyUntil);
+            }
+            if (free >= 0) {
+                starts[size] = start;
+                allocatedRooms[size++] = free;
+                start += SlotRanker.START_STEP;
+            } else {
+                start = alignUp(freeAt);
+            }
+        }
+    }
+
+    private static long alignUp(long time) {
+        return time + Math.floorMod(-time, SlotRanker.START_STEP);
+    }
+
+    private static final class Room {
+        private final BusyTimeline[] timelines;
+        private final boolean[] current;
+        private long busyUntil = Long.MIN_VALUE;
+
+        private Room(BusyTimeline[] timelines) {
+            this.timelines = timelines;
+            this.current = new boolean[timelines.length];
+            for (int i = 0; i < timelines.length; i++) {
+                current[i] = timelines[i].next();
+            }
+        }
+
+        /**
+         * Takes in the busy ranges starting before end and returns the latest end among all
+         * ranges taken in so far.
+         */
+        private long busyUntil(long end) {
+            for (int i = 0; i < timelines.length; i++) {
+                BusyTimeline timeline = timelines[i];
+                while (current[i] && timeline.start() < end) {
+                    busyUntil = Math.max(busyUntil, timeline.end());
+                    current[i] = timeline.next();
+                }
+            }
+            return busyUntil;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.meetme.service;
+
+import com.meetme.entities.MeetingSeries;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Expands the occurrences of meeting series inside a window. Generation starts at the first
+ * occurrence that can reach the window and stops at its end, so the cost depends on the window and
+ * not on how long the series has been running.
+ */
+public final class SeriesOccurrences {
+
+    private SeriesOccurrences() {
+    }
+
+    /**
+     * Returns the occurrences of the series overlapping [start, end), sorted by start time.
+     */
+    public static Iterator<BusyInterval> between(MeetingSeries series, LocalDateTime start, LocalDateTime end) {
+        Duration length = Duration.between(series.getStartTime(), series.getEndTime());
+        LocalDateTime lastEnd = series.getRecurrenceEnd() == null || series.getRecurrenceEnd().isAfter(end)
+                ? end.plus(length) : series.getRecurrenceEnd();
+        Iterator<LocalDateTime> starts = RecurrenceRule.parse(series.getRecurrenceRule())
+                .starts(series.getStartTime(), start.minus(length));
+        return new Iterator<>() {
+            private BusyInterval next = advance();
+
+            private BusyInterval advance() {
+                while (starts.hasNext()) {
+                    LocalDateTime occurrenceStart = starts.next();
+                    LocalDateTime occurrenceEnd = occurrenceStart.plus(length);
+                    if (!occurrenceStart.isBefore(end) || occurrenceEnd.isAfter(lastEnd)) {
+                        return null;
+                    }
+                    if (occurrenceEnd.isAfter(start) && !series.getExceptions().contains(occurrenceStart)) {
+                        return new BusyInterval(occurrenceStart, occurrenceEnd);
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public BusyInterval next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                BusyInterval current = next;
+                next = advance();
+                return current;
+            }
+        };
+    }
+
+    /**
+     * Returns the occurrences of all the series overlapping [start, end) as one list sorted by
+     * start time.
+     */
+    public static List<BusyInterval> between(Collection<MeetingSeries> series, LocalDateTime start, LocalDateTime end) {
+        List<BusyInterval> occurrences = new ArrayList<>();
+        for (MeetingSeries one : series) {
+            between(one, start, end).forEachRemaining(occurrences::add);
+        }
+        if (series.size() > 1) {
+            occurrences.sort(Comparator.comparing(BusyInterval::getStart));
+        }
+        return occurrences;
+    }
+
+    public static boolean overlaps(Collection<MeetingSeries> series, LocalDateTime start, LocalDateTime end) {
+        for (MeetingSeries one : series) {
+            if (between(one, start, end).hasNext()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tells whether the series has an occurrence, skipped or not, starting exactly at the given time.
+     */
+    public static boolean isOccurrence(MeetingSeries series, LocalDateTime occurrenceStart) {
+        Duration length = Duration.between(series.getStartTime(), series.getEndTime());
+        if (series.getRecurrenceEnd() != null && occurrenceStart.plus(length).isAfter(series.getRecurrenceEnd())) {
+            return false;
+        }
+        Iterator<LocalDateTime> starts = RecurrenceRule.parse(series.getRecurrenceRule()).starts(series.getStartTime(), occurrenceStart);
+        return starts.hasNext() && starts.next().equals(occurrenceStart);
+    }
+}
@@ -0,0 +1,151 @@
+package com.meetme.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Maps IDs to the database shard that owns them and runs work against a shard.
+ *
+ * Every shard hands out user, calendar, resource and series IDs from a range of its own,
+ * {@link #SHARD_ID_SPAN} values starting at {@link #firstId}, so an ID alone tells which shard holds
+ * its row and, as calendars and their owners are created together, a user's calendar lives next to
+ * them. Meeting IDs come from a pooled sequence and carry no shard.
+ *
+ * While a task runs on a shard, the shard is kept for the current thread, and the routing data
+ * source of the sharded profile hands out that shard's connections; outside any task it hands out
+ * shard 0's. With a single shard, the default, tasks simply run.
+ */
+@Component
+public class ShardRouter {
+
+    public static final long SHARD_ID_SPAN = 1L << 40;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final int shardCount;
+
+    public ShardRouter(@Value("${meetme.sharding.shards:1}") int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("meetme.sharding.shards must be at least 1");
+        }
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * Returns the shard the current thread works on, or null outside any task.
+     */
+    public static Integer currentShard() {
+        return CURRENT.get();
+    }
+
+    public static long firstId(int shard) {
+        return shard * SHARD_ID_SPAN + 1;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    /**
+     * Returns the shard owning the ID. IDs beyond the last shard's range are sent to the last shard,
+     * and null to shard 0, where they are simply not found.
+     */
+    public int shardOf(Long id) {
+        if (shardCount == 1 || id == null || id < 1) {
+            return 0;
+        }
+        return (int) Math.min(shardCount - 1, (id - 1) / SHARD_ID_SPAN);
+    }
+
+    /**
+     * Returns the one shard owning all of the IDs, or the current shard if there are none.
+     *
+     * @throws IllegalArgumentException if the IDs are spread over several shards
+     */
+    public int commonShard(Collection<? extends Long> ids) {
+        Map<Integer, List<Long>> shards = partition(ids);
+        if (shards.size() > 1) {
+            throw new IllegalArgumentException("IDs on different shards cannot be booked together: " + shards.values());
+        }
+        if (!shards.isEmpty()) {
+            return shards.keySet().iterator().next();
+        }
+        Integer current = CURRENT.get();
+        return current != null ? current : 0;
+    }
+
+    /**
+     * Splits the IDs by shard, in shard order, keeping their order within each shard.
+     */
+    public Map<Integer, List<Long>> partition(Collection<? extends Long> ids) {
+        Map<Integer, List<Long>> shards = new TreeMap<>();
+        for (Long id : ids) {
+            shards.computeIfAbsent(shardOf(id), shard -> new ArrayList<>()).add(id);
+        }
+        return shards;
+    }
+
+    /**
+     * Runs the task with its transactions and repository calls going to the shard. A task cannot
+     * move to another shard from inside a transaction, which stays on its own connection.
+     */
+    public <T> T onShard(int shard, Supplier<T> task) {
+        if (shardCount == 1) {
+            return task.get();
+        }
+        Integer previous = CURRENT.get();
+        if (previous != null && previous != shard && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot switch from shard " + previous + " to shard " + shard + " inside a transaction");
+        }
+        CURRENT.set(shard);
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Runs the query on every shard and concatenates the results in shard order.
+     */
+    public <T> List<T> onEveryShard(Supplier<List<T>> query) {
+        if (shardCount == 1) {
+            return query.get();
+        }
+        List<T> results = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            results.addAll(onShard(shard, query));
+        }
+        return results;
+    }
+
+    /**
+     * Looks a row up shard by shard, for IDs that carry no shard, and returns the first found.
+     */
+    public <T> Optional<T> findOnAnyShard(Supplier<Optional<T>> lookup) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            Optional<T> found = onShard(shard, lookup);
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,169 @@
+package com.meetme.service;
+
+/**
+ * Turns free gaps into meeting-sized candidate slots and keeps the best {@code limit} of them.
+ *
+ * Candidates start on the quarter hour inside each gap. A candidate scores the number of seconds it
+ * overlaps the preferred hours, and ties go to the earlier start; without preferred hours every
+ * candidate scores the same, so the ranking is simply the earliest. The best candidates are held in
+ * a bounded heap whose root is the worst of them, so each candidate costs O(log limit) and nothing
+ * is kept beyond the limit.
+ *
+ * Gaps must arrive in start order. Because a later candidate can only win on score, the ranker is
+ * done once the heap is full of candidates with the highest possible score. Gaps that touch, as when
+ * a range is scanned in pieces, are joined before they are cut into candidates.
+ */
+final class SlotRanker implements SlotSink {
+
+    static final long START_STEP = 15 * 60;
+
+    private final long durationSeconds;
+    private final int limit;
+    private final long[] preferred;
+    private final long bestScore;
+    private final long[] starts;
+    private final long[] scores;
+    private int size;
+    private int preferredPosition;
+    private boolean pending;
+    private long pendingStart;
+    private long pendingEnd;
+    private boolean done;
+
+    /**
+     * @param preferred alternating start and end {@link EpochSeconds} of the preferred hours, sorted,
+     *                  or null to rank by start time only
+     */
+    SlotRanker(long durationSeconds, int limit, long[] preferred) {
+        this.durationSeconds = durationSeconds;
+        this.limit = limit;
+        this.preferred = preferred;
+        this.bestScore = preferred != null ? durationSeconds : 0;
+        this.starts = new long[limit];
+        this.scores = new long[limit];
+    }
+
+    @Override
+    public void accept(long start, long end) {
+        if (pending && start == pendingEnd) {
+            pendingEnd = end;
+            return;
+        }
+        if (pending) {
+            rank(pendingStart, pendingEnd);
+        }
+        pending = true;
+        pendingStart = start;
+        pendingEnd = end;
+    }
+
+    @Override
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Ranks the last gap; call once no more gaps will arrive.
+     */
+    void finish() {
+        if (pending) {
+            pending = false;
+            rank(pendingStart, pendingEnd);
+        }
+    }
+
+    /**
+     * Emits the kept candidates best first.
+     */
+    void forEachRanked(SlotSink sink) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            int j = i;
+            while (j > 0 && worse(order[j - 1], i)) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = i;
+        }
+        for (int index : order) {
+            sink.accept(starts[index], starts[index] + durationSeconds);
+        }
+    }
+
+    private void rank(long gapStart, long gapEnd) {
+        for (long start = gapStart + Math.floorMod(-gapStart, START_STEP); !done && start + durationSeconds <= gapEnd; start += START_STEP) {
+            offer(start, score(start));
+        }
+    }
+
+    private long score(long start) {
+        if (preferred == null) {
+            return 0;
+        }
+        long end = start + durationSeconds;
+        while (preferredPosition < preferred.length && preferred[preferredPosition + 1] <= start) {
+            preferredPosition += 2;
+        }
+        long overlap = 0;
+        for (int i = preferredPosition; i < preferred.length && preferred[i] < end; i += 2) {
+            overlap += Math.min(end, preferred[i + 1]) - Math.max(start, preferred[i]);
+        }
+        return overlap;
+    }
+
+    private void offer(long start, long score) {
+        if (size < limit) {
+            starts[size] = start;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (score > scores[0]) {
+            starts[0] = start;
+            scores[0] = score;
+            siftDown(0);
+        }
+        done = size == limit && scores[0] == bestScore;
+    }
+
+    private boolean worse(int a, int b) {
+        return scores[a] < scores[b] || (scores[a] == scores[b] && starts[a] > starts[b]);
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!worse(position, parent)) {
+                break;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int worst = position;
+            int left = (position << 1) + 1;
+            int right = left + 1;
+            if (left < size && worse(left, worst)) {
+                worst = left;
+            }
+            if (right < size && worse(right, worst)) {
+                worst = right;
+            }
+            if (worst == position) {
+                return;
+            }
+            swap(position, worst);
+            position = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long start = starts[a];
+        starts[a] = starts[b];
+        starts[b] = start;
+        long score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
@@ -0,0 +1,21 @@
+package com.meetme.service;
+
+import lombok.Value;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * How a slot search picks its results: at most limit slots, none starting before earliestAfter,
+ * ranked by overlap with the preferred hours when both are given, and kept buffer away from other
+ * meetings. All times are in the zone of the search; the optional fields may be null.
+ */
+@Value
+public class SlotSearchOptions {
+    int limit;
+    LocalDateTime earliestAfter;
+    LocalTime preferredStart;
+    LocalTime preferredEnd;
+    Duration buffer;
+}
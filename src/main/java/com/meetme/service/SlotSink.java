@@ -0,0 +1,18 @@
+package com.meetme.service;
+
+/**
+ * Receives free slots as [start, end) in {@link EpochSeconds}.
+ */
+@FunctionalInterface
+public interface SlotSink {
+
+    void accept(long start, long end);
+
+    /**
+     * Tells the producer that no further slots are wanted, so it can stop scanning. Checked after
+     * every accepted slot.
+     */
+    default boolean isDone() {
+        return false;
+    }
+}
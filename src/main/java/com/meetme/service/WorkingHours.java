@@ -0,0 +1,88 @@
+
+package com.meetme.service;
+
+import com.meetme.entities.User;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A participant's daily working hours in their own time zone.
+ */
+@Value
+public class WorkingHours {
+    public static final LocalTime DEFAULT_START = LocalTime.of(9, 0);
+    public static final LocalTime DEFAULT_END = LocalTime.of(17, 0);
+
+    LocalTime start;
+    LocalTime end;
+    ZoneId zone;
+
+    public static WorkingHours of(User user, ZoneId defaultZone) {
+        LocalTime start = user.getWorkdayStart() != null ? user.getWorkdayStart() : DEFAULT_START;
+        LocalTime end = user.getWorkdayEnd() != null ? user.getWorkdayEnd() : DEFAULT_END;
+        ZoneId zone = user.getTimeZone() != null ? ZoneId.of(user.getTimeZone()) : defaultZone;
+        return new WorkingHours(start, end, zone);
+    }
+
+    /**
+     * Returns the time outside these working hours between rangeStart and rangeEnd as a sorted busy
+     * timeline, generated one day at a time. Both bounds and the produced intervals are local times
+     * in storageZone.
+     */
+    public Iterator<BusyInterval> offHours(LocalDateTime rangeStart, LocalDateTime rangeEnd, ZoneId storageZone) {
+        LocalDate firstDay = rangeStart.atZone(storageZone).withZoneSameInstant(zone).toLocalDate();
+        LocalDate lastDay = rangeEnd.atZone(storageZone).withZoneSameInstant(zone).toLocalDate();
+
+        return new Iterator<>() {
+            private LocalDate day = firstDay;
+            private LocalDateTime cursor = rangeStart;
+            private BusyInterval next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public BusyInterval next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                BusyInterval current = next;
+                next = advance();
+                return current;
+            }
+
+            private BusyInterval advance() {
+                while (!day.isAfter(lastDay)) {
+                    LocalDateTime workStart = toStorage(day.atTime(start));
+                    LocalDateTime workEnd = toStorage(day.atTime(end));
+                    day = day.plusDays(1);
+                    BusyInterval gap = cursor.isBefore(workStart) ? new BusyInterval(cursor, workStart) : null;
+                    if (workEnd.isAfter(cursor)) {
+                        cursor = workEnd;
+                    }
+                    if (gap != null) {
+                        return gap;
+                    }
+                }
+                if (cursor.isBefore(rangeEnd)) {
+                    BusyInterval tail = new BusyInterval(cursor, rangeEnd);
+                    cursor = rangeEnd;
+                    return tail;
+                }
+                return null;
+            }
+
+            private LocalDateTime toStorage(LocalDateTime local) {
+                return local.atZone(zone).withZoneSameInstant(storageZone).toLocalDateTime();
+            }
+        };
+    }
+}
@@ -1,12 +1,19 @@
 DROP SEQUENCE IF EXISTS calendar_seq;
 CREATE SEQUENCE calendar_seq START WITH 1 INCREMENT BY 1;
 
-INSERT INTO calendar (id) VALUES (NEXT VALUE FOR calendar_seq);
-INSERT INTO calendar (id) VALUES (NEXT VALUE FOR calendar_seq);
-INSERT INTO calendar (id) VALUES (NEXT VALUE FOR calendar_seq);
+INSERT INTO calendar (id, version) VALUES (NEXT VALUE FOR calendar_seq, 0);
+INSERT INTO calendar (id, version) VALUES (NEXT VALUE FOR calendar_seq, 0);
+INSERT INTO calendar (id, version) VALUES (NEXT VALUE FOR calendar_seq, 0);
 
 INSERT INTO app_user (name, calendar_id) VALUES ('sachin', 1);
 INSERT INTO app_user (name, calendar_id) VALUES ('virat', 2);
 INSERT INTO app_user (name, calendar_id) VALUES ('ponting', 3);
 
 
+
+INSERT INTO calendar (id, version) VALUES (NEXT VALUE FOR calendar_seq, 0);
+INSERT INTO resource (name, kind, capacity, calendar_id) VALUES ('Lords', 'ROOM', 4, CURRENT VALUE FOR calendar_seq);
+INSERT INTO calendar (id, version) VALUES (NEXT VALUE FOR calendar_seq, 0);
+INSERT INTO resource (name, kind, capacity, calendar_id) VALUES ('Eden Gardens', 'ROOM', 12, CURRENT VALUE FOR calendar_seq);
+INSERT INTO calendar (id, version) VALUES (NEXT VALUE FOR calendar_seq, 0);
+INSERT INTO resource (name, kind, capacity, calendar_id) VALUES ('Projector', 'EQUIPMENT', NULL, CURRENT VALUE FOR calendar_seq);
@@ -0,0 +1,75 @@
+-- Schema of the entities in com.meetme.entities. The prod profile validates the mapping against it
+-- (spring.jpa.hibernate.ddl-auto=validate), so entity changes need a new migration.
+
+CREATE SEQUENCE meeting_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE calendar (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    version BIGINT,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE app_user (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name VARCHAR(255),
+    calendar_id BIGINT,
+    workday_start TIME(6),
+    workday_end TIME(6),
+    time_zone VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_app_user_calendar UNIQUE (calendar_id),
+    CONSTRAINT fk_app_user_calendar FOREIGN KEY (calendar_id) REFERENCES calendar (id)
+);
+
+CREATE TABLE meeting (
+    id BIGINT NOT NULL,
+    calendar_id BIGINT,
+    start_time TIMESTAMP(6),
+    end_time TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_meeting_calendar FOREIGN KEY (calendar_id) REFERENCES calendar (id)
+);
+
+CREATE TABLE meeting_participants (
+    meeting_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    CONSTRAINT fk_meeting_participants_meeting FOREIGN KEY (meeting_id) REFERENCES meeting (id),
+    CONSTRAINT fk_meeting_participants_user FOREIGN KEY (user_id) REFERENCES app_user (id)
+);
+
+CREATE TABLE meeting_series (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    calendar_id BIGINT,
+    start_time TIMESTAMP(6),
+    end_time TIMESTAMP(6),
+    recurrence_rule VARCHAR(255),
+    recurrence_end TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_meeting_series_calendar FOREIGN KEY (calendar_id) REFERENCES calendar (id)
+);
+
+CREATE TABLE meeting_series_exceptions (
+    series_id BIGINT NOT NULL,
+    occurrence_start TIMESTAMP(6),
+    CONSTRAINT fk_meeting_series_exceptions_series FOREIGN KEY (series_id) REFERENCES meeting_series (id)
+);
+
+CREATE TABLE meeting_series_participants (
+    series_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    CONSTRAINT fk_meeting_series_participants_series FOREIGN KEY (series_id) REFERENCES meeting_series (id),
+    CONSTRAINT fk_meeting_series_participants_user FOREIGN KEY (user_id) REFERENCES app_user (id)
+);
+
+-- Time-range lookups: overlap queries per calendar filter on calendar_id and a start_time range,
+-- and read end_time from the index.
+CREATE INDEX idx_meeting_calendar_time ON meeting (calendar_id, start_time, end_time);
+CREATE INDEX idx_series_calendar_range ON meeting_series (calendar_id, start_time, recurrence_end);
+
+-- Participant lookups go from a user to their meetings and series; loading a meeting's or series'
+-- participants goes the other way.
+CREATE INDEX idx_meeting_participants_user ON meeting_participants (user_id, meeting_id);
+CREATE INDEX idx_meeting_participants_meeting ON meeting_participants (meeting_id);
+CREATE INDEX idx_series_participants_user ON meeting_series_participants (user_id, series_id);
+CREATE INDEX idx_series_participants_series ON meeting_series_participants (series_id);
+CREATE INDEX idx_series_exceptions_series ON meeting_series_exceptions (series_id, occurrence_start);
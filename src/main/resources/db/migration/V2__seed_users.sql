@@ -0,0 +1,9 @@
+-- The users of data.sql, created once. There is no endpoint that creates users.
+
+INSERT INTO calendar (version) VALUES (0);
+INSERT INTO calendar (version) VALUES (0);
+INSERT INTO calendar (version) VALUES (0);
+
+INSERT INTO app_user (name, calendar_id) VALUES ('sachin', 1);
+INSERT INTO app_user (name, calendar_id) VALUES ('virat', 2);
+INSERT INTO app_user (name, calendar_id) VALUES ('ponting', 3);
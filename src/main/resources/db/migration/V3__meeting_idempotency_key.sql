@@ -0,0 +1,5 @@
+-- Idempotency key of an asynchronously booked meeting; replaying the booking journal looks meetings
+-- up by it to skip bookings that committed before a crash.
+
+ALTER TABLE meeting ADD COLUMN idempotency_key VARCHAR(128);
+CREATE UNIQUE INDEX uk_meeting_idempotency_key ON meeting (idempotency_key);
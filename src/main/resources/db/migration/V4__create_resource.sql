@@ -0,0 +1,23 @@
+-- Rooms and equipment, each owning a calendar like a user does. Room searches filter on kind and
+-- a minimum capacity.
+
+CREATE TABLE resource (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name VARCHAR(255),
+    kind VARCHAR(32),
+    capacity INTEGER,
+    calendar_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_resource_calendar UNIQUE (calendar_id),
+    CONSTRAINT fk_resource_calendar FOREIGN KEY (calendar_id) REFERENCES calendar (id)
+);
+
+CREATE INDEX idx_resource_kind_capacity ON resource (kind, capacity);
+
+-- Each resource takes the calendar inserted just before it, whatever ID the calendar got.
+INSERT INTO calendar (version) VALUES (0);
+INSERT INTO resource (name, kind, capacity, calendar_id) SELECT 'Lords', 'ROOM', 4, MAX(id) FROM calendar;
+INSERT INTO calendar (version) VALUES (0);
+INSERT INTO resource (name, kind, capacity, calendar_id) SELECT 'Eden Gardens', 'ROOM', 12, MAX(id) FROM calendar;
+INSERT INTO calendar (version) VALUES (0);
+INSERT INTO resource (name, kind, capacity, calendar_id) SELECT 'Projector', 'EQUIPMENT', NULL, MAX(id) FROM calendar;
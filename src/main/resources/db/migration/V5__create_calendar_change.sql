@@ -0,0 +1,17 @@
+-- Outbox of calendar changes, streamed to subscribers in ID order. Subscribers resuming after a
+-- reconnect read the changes of their calendars past their last position.
+
+CREATE TABLE calendar_change (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    calendar_id BIGINT NOT NULL,
+    kind VARCHAR(32) NOT NULL,
+    meeting_id BIGINT,
+    series_id BIGINT,
+    start_time TIMESTAMP(6),
+    end_time TIMESTAMP(6),
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_calendar_change_calendar ON calendar_change (calendar_id, id);
+CREATE INDEX idx_calendar_change_created ON calendar_change (created_at);
@@ -0,0 +1,83 @@
+package com.meetme.config;
+
+import com.meetme.service.ShardRouter;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardingConfigTest {
+
+    private final ShardRouter shardRouter = new ShardRouter(2);
+
+    private List<DataSource> shards;
+    private ShardRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        String name = UUID.randomUUID().toString();
+        shards = List.of(embedded(name + "-0"), embedded(name + "-1"));
+        routing = ShardingConfig.routingDataSource(shards);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shards.forEach(shard -> new JdbcTemplate(shard).execute("SHUTDOWN"));
+    }
+
+    private static DataSource embedded(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+
+    private long count(String table) {
+        return new JdbcTemplate(routing).queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    private long insertCalendar() {
+        JdbcTemplate jdbc = new JdbcTemplate(routing);
+        jdbc.update("INSERT INTO calendar (version) VALUES (0)");
+        return jdbc.queryForObject("SELECT MAX(id) FROM calendar", Long.class);
+    }
+
+    @Test
+    void testRoutingDataSource_SeedsShardZeroOnlyAndRoutesByCurrentShard() {
+        assertEquals(3L, count("app_user"));
+        assertEquals(3L, (long) shardRouter.onShard(0, () -> count("resource")));
+        assertEquals(0L, (long) shardRouter.onShard(1, () -> count("app_user")));
+        assertEquals(0L, (long) shardRouter.onShard(1, () -> count("resource")));
+
+        long created = shardRouter.onShard(1, this::insertCalendar);
+
+        assertEquals(ShardRouter.firstId(1), created);
+        assertEquals(1, shardRouter.shardOf(created));
+        assertEquals(6L, count("calendar"));
+
+        // as the README provisions a user on another shard
+        long user = shardRouter.onShard(1, () -> {
+            JdbcTemplate jdbc = new JdbcTemplate(routing);
+            jdbc.update("INSERT INTO app_user (name, calendar_id) SELECT 'dravid', MAX(id) FROM calendar");
+            return jdbc.queryForObject("SELECT id FROM app_user WHERE calendar_id = ?", Long.class, created);
+        });
+        assertEquals(1, shardRouter.shardOf(user));
+    }
+
+    @Test
+    void testRoutingDataSource_KeepsRowsOfExistingShards() {
+        long created = shardRouter.onShard(1, this::insertCalendar);
+
+        routing = ShardingConfig.routingDataSource(shards);
+
+        assertEquals(1L, (long) shardRouter.onShard(1, () -> count("calendar")));
+        assertEquals(created + 1, (long) shardRouter.onShard(1, this::insertCalendar));
+    }
+}
@@ -1,27 +1,40 @@
 package com.meetme.controller;
 
+import com.meetme.dto.AsyncBookingDTO;
+import com.meetme.dto.BookingResultDTO;
+import com.meetme.dto.BookingStatus;
+import com.meetme.dto.ConflictDTO;
 import com.meetme.dto.MeetingRequestDTO;
-import com.meetme.entities.Calendar;
-import com.meetme.entities.User;
+import com.meetme.dto.TimeSlotDTO;
 import com.meetme.exception.MeetingConflictException;
 import com.meetme.exception.UserNotFoundException;
-import com.meetme.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.meetme.service.AsyncBookingService;
 import com.meetme.service.CalendarService;
+import com.meetme.service.FreeSlotSearch;
+import com.meetme.service.SlotSearchOptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -34,7 +47,11 @@ class CalendarControllerTest {
     private CalendarService calendarService;
 
     @Mock
-    private UserRepository userRepository;
+    private AsyncBookingService asyncBookingService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 
     @BeforeEach
     void setUp() {
@@ -94,7 +111,39 @@ class CalendarControllerTest {
         verify(calendarService, times(1)).bookMeeting(anyLong(), any(LocalDateTime.class), any(Duration.class), anyList());
     }
 
+    @Test
+    void testBookMeetings_ReturnsPerItemResults() {
+        MeetingRequestDTO meetingRequest = new MeetingRequestDTO();
+        meetingRequest.setOwnerId(1L);
+        meetingRequest.setStartTime(LocalDateTime.now().plusHours(1));
+        meetingRequest.setDuration(Duration.ofMinutes(30));
+        meetingRequest.setParticipantIds(List.of(2L));
+
+        when(calendarService.bookMeetings(anyList()))
+                .thenReturn(List.of(new BookingResultDTO(0, BookingStatus.BOOKED, 1L, null), new BookingResultDTO(1, BookingStatus.CONFLICT, null, "Meeting conflict detected")));
+
+        ResponseEntity<List<BookingResultDTO>> response = calendarController.bookMeetings(List.of(meetingRequest, meetingRequest));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().size());
+        assertEquals(BookingStatus.CONFLICT, response.getBody().get(1).getStatus());
+    }
+
     // Test for checking conflicts successfully
+    @Test
+    void testSubmitBooking_MalformedKeyReturnsReason() {
+        MeetingRequestDTO meetingRequest = new MeetingRequestDTO();
+        meetingRequest.setOwnerId(1L);
+        when(asyncBookingService.submit(eq("bad key"), any(MeetingRequestDTO.class)))
+                .thenThrow(new IllegalArgumentException("Idempotency key must be 1 to 128 letters, digits or any of . _ : -"));
+
+        ResponseEntity<AsyncBookingDTO> response = calendarController.submitBooking("bad key", meetingRequest);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(BookingStatus.INVALID, response.getBody().getStatus());
+        assertEquals("Idempotency key must be 1 to 128 letters, digits or any of . _ : -", response.getBody().getMessage());
+    }
+
     @Test
     void testCheckConflicts_Success() {
 
@@ -104,14 +153,15 @@ class CalendarControllerTest {
         meetingRequest.setDuration(Duration.ofMinutes(30));
         meetingRequest.setParticipantIds(List.of(2L,3L));
 
-        when(calendarService.checkConflicts(anyList(), any(LocalDateTime.class), any(Duration.class)))
-                .thenReturn(Collections.emptyList());
+        when(calendarService.findConflicts(anyList(), any(LocalDateTime.class), any(Duration.class)))
+                .thenReturn(List.of(new ConflictDTO(3L, "ponting", List.of(7L), List.of())));
 
-        ResponseEntity<List<User>> response = calendarController.checkConflicts(meetingRequest);
+        ResponseEntity<List<ConflictDTO>> response = calendarController.checkConflicts(meetingRequest);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(0, response.getBody().size());
-        verify(calendarService, times(1)).checkConflicts(anyList(), any(LocalDateTime.class), any(Duration.class));
+        assertEquals(1, response.getBody().size());
+        assertEquals(List.of(7L), response.getBody().get(0).getConflictingMeetingIds());
+        verify(calendarService, times(1)).findConflicts(anyList(), any(LocalDateTime.class), any(Duration.class));
     }
 
     // Test for server error during conflict check
@@ -123,61 +173,116 @@ class CalendarControllerTest {
         meetingRequest.setDuration(Duration.ofMinutes(30));
         meetingRequest.setParticipantIds(List.of(2L,3L));
 
-        doThrow(new RuntimeException("Unexpected error")).when(calendarService).checkConflicts(anyList(), any(LocalDateTime.class), any(Duration.class));
+        doThrow(new RuntimeException("Unexpected error")).when(calendarService).findConflicts(anyList(), any(LocalDateTime.class), any(Duration.class));
 
-        ResponseEntity<List<User>> response = calendarController.checkConflicts(meetingRequest);
+        ResponseEntity<List<ConflictDTO>> response = calendarController.checkConflicts(meetingRequest);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals(null, response.getBody());
-        verify(calendarService, times(1)).checkConflicts(anyList(), any(LocalDateTime.class), any(Duration.class));
+        verify(calendarService, times(1)).findConflicts(anyList(), any(LocalDateTime.class), any(Duration.class));
     }
 
     // Test for retrieving available slots successfully
     @Test
     void testGetAvailableSlots_Success() {
         Duration duration = Duration.ofMinutes(30);
-        User user1 = new User();
-        user1.setId(1L);
-        user1.setCalendar(new Calendar());
-        User user2 = new User();
-        user2.setId(2L);
-        user2.setCalendar(new Calendar());
-
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
-        when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
-        when(calendarService.getFreeSlots(any(), any(), eq(duration)))
+
+        when(calendarService.getFreeSlotsForUsers(eq(List.of(1L, 2L)), eq(duration)))
                 .thenReturn(List.<LocalDateTime[]>of(new LocalDateTime[]{LocalDateTime.now(), LocalDateTime.now().plusMinutes(30)}));
 
-        ResponseEntity<List<LocalDateTime[]>> response = calendarController.getAvailableSlots(1L, 2L, duration.toString());
+        ResponseEntity<List<LocalDateTime[]>> response = calendarController.getAvailableSlots(null, 1L, 2L, duration.toString());
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(1, response.getBody().size());
-        verify(calendarService, times(1)).getFreeSlots(any(), any(), eq(duration));
+        verify(calendarService, times(1)).getFreeSlotsForUsers(eq(List.of(1L, 2L)), eq(duration));
+    }
+
+    // Test for retrieving available slots for a whole group
+    @Test
+    void testGetAvailableSlots_UserIdList() {
+        Duration duration = Duration.ofMinutes(30);
+        List<Long> userIds = List.of(1L, 2L, 3L, 4L);
+
+        when(calendarService.getFreeSlotsForUsers(eq(userIds), eq(duration))).thenReturn(Collections.emptyList());
+
+        ResponseEntity<List<LocalDateTime[]>> response = calendarController.getAvailableSlots(userIds, null, null, duration.toString());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(calendarService, times(1)).getFreeSlotsForUsers(eq(userIds), eq(duration));
+    }
+
+    @Test
+    void testGetAvailableSlots_NoUsers() {
+        ResponseEntity<List<LocalDateTime[]>> response = calendarController.getAvailableSlots(null, null, null, "PT30M");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(calendarService);
     }
 
     // Test for user not found in availability check
     @Test
     void testGetAvailableSlots_UserNotFound() {
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        doThrow(new UserNotFoundException("User not found with ID: 1")).when(calendarService).getFreeSlotsForUsers(anyList(), any(Duration.class));
 
-        ResponseEntity<List<LocalDateTime[]>> response = calendarController.getAvailableSlots(1L, 2L, "PT30M");
+        ResponseEntity<List<LocalDateTime[]>> response = calendarController.getAvailableSlots(null, 1L, 2L, "PT30M");
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertEquals(null, response.getBody());
-        verify(userRepository, times(1)).findById(1L);
+        verify(calendarService, times(1)).getFreeSlotsForUsers(anyList(), any(Duration.class));
     }
 
     // Test for unexpected server error in availability check
     @Test
     void testGetAvailableSlots_ServerError() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
-        when(userRepository.findById(2L)).thenReturn(Optional.of(new User()));
-        doThrow(new RuntimeException("Unexpected error")).when(calendarService).getFreeSlots(any(), any(), any(Duration.class));
+        doThrow(new RuntimeException("Unexpected error")).when(calendarService).getFreeSlotsForUsers(anyList(), any(Duration.class));
 
-        ResponseEntity<List<LocalDateTime[]>> response = calendarController.getAvailableSlots(1L, 2L, "PT30M");
+        ResponseEntity<List<LocalDateTime[]>> response = calendarController.getAvailableSlots(null, 1L, 2L, "PT30M");
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals(null, response.getBody());
-        verify(calendarService, times(1)).getFreeSlots(any(), any(), any(Duration.class));
+        verify(calendarService, times(1)).getFreeSlotsForUsers(anyList(), any(Duration.class));
+    }
+
+    @Test
+    void testSearchSlots_ReturnsTimeSlots() {
+        LocalDate day = LocalDate.of(2024, 11, 6);
+        when(calendarService.findSlots(eq(List.of(1L, 2L)), eq(day), eq(day), any(ZoneId.class), eq(Duration.ofMinutes(30)), any(SlotSearchOptions.class)))
+                .thenReturn(List.<LocalDateTime[]>of(new LocalDateTime[]{day.atTime(9, 0), day.atTime(9, 30)}));
+
+        ResponseEntity<List<TimeSlotDTO>> response = calendarController.searchSlots(List.of(1L, 2L), day, day, "UTC", "PT30M",
+                3, null, null, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(new TimeSlotDTO(day.atTime(9, 0), day.atTime(9, 30))), response.getBody());
+    }
+
+    @Test
+    void testStreamAvailableSlotsInRange_WritesOneSlotPerLine() throws Exception {
+        LocalDate day = LocalDate.of(2024, 11, 6);
+        FreeSlotSearch search = sink -> {
+            sink.accept(day.atTime(9, 0), day.atTime(10, 0));
+            sink.accept(day.atTime(14, 0), day.atTime(17, 0));
+        };
+        when(calendarService.searchFreeSlots(anyList(), eq(day), eq(day), any(ZoneId.class), eq(Duration.ofMinutes(30)))).thenReturn(search);
+
+        ResponseEntity<StreamingResponseBody> response = calendarController.streamAvailableSlotsInRange(List.of(1L, 2L), day, day, "UTC", "PT30M");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        assertEquals("{\"start\":\"2024-11-06T09:00:00\",\"end\":\"2024-11-06T10:00:00\"}\n"
+                        + "{\"start\":\"2024-11-06T14:00:00\",\"end\":\"2024-11-06T17:00:00\"}\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testStreamAvailableSlots_UserNotFoundBeforeStreaming() {
+        doThrow(new UserNotFoundException("Users not found with IDs: [2]")).when(calendarService).searchFreeSlots(anyList(), any(Duration.class));
+
+        ResponseEntity<StreamingResponseBody> response = calendarController.streamAvailableSlots(null, 1L, 2L, "PT30M");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertNull(response.getBody());
     }
 }
@@ -0,0 +1,171 @@
+package com.meetme.service;
+
+import com.meetme.dto.AsyncBookingDTO;
+import com.meetme.dto.BookingResultDTO;
+import com.meetme.dto.BookingStatus;
+import com.meetme.dto.MeetingRequestDTO;
+import com.meetme.exception.IdempotencyKeyReusedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AsyncBookingServiceTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2024, 11, 6, 9, 0);
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private CalendarService calendarService;
+
+    private AsyncBookingService asyncBookingService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        asyncBookingService = newService();
+
+        when(calendarService.getOwnerCalendarId(anyLong(), anyList())).thenReturn(10L);
+        when(calendarService.findBookedMeetingIds(anyCollection())).thenReturn(Map.of());
+    }
+
+    private AsyncBookingService newService() {
+        AsyncBookingService service = new AsyncBookingService(directory.resolve("journal.log"), 100, Duration.ofMillis(5), 2,
+                1000, Duration.ofHours(1), 1000);
+        ReflectionTestUtils.setField(service, "calendarService", calendarService);
+        ReflectionTestUtils.setField(service, "bookingLocks", new BookingLocks(16));
+        ReflectionTestUtils.setField(service, "calendarMetrics", new CalendarMetrics(new SimpleMeterRegistry()));
+        return service;
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        asyncBookingService.stop();
+    }
+
+    private static MeetingRequestDTO request(LocalDateTime startTime, Long... participantIds) {
+        MeetingRequestDTO request = new MeetingRequestDTO();
+        request.setOwnerId(1L);
+        request.setStartTime(startTime);
+        request.setDuration(Duration.ofMinutes(30));
+        request.setParticipantIds(List.of(participantIds));
+        return request;
+    }
+
+    private void givenBookingsSucceed(CountDownLatch writable) {
+        when(calendarService.bookMeetings(anyList(), anyList())).thenAnswer(invocation -> {
+            assertTrue(writable.await(5, TimeUnit.SECONDS));
+            List<BookingResultDTO> results = new ArrayList<>();
+            List<MeetingRequestDTO> requests = invocation.getArgument(0);
+            for (int i = 0; i < requests.size(); i++) {
+                results.add(new BookingResultDTO(i, BookingStatus.BOOKED, 100L + i, null));
+            }
+            return results;
+        });
+    }
+
+    @Test
+    void testSubmit_DeduplicatesRetriesAndHoldsQueuedTime() throws Exception {
+        CountDownLatch writable = new CountDownLatch(1);
+        givenBookingsSucceed(writable);
+        asyncBookingService.start();
+
+        assertEquals(BookingStatus.PENDING, asyncBookingService.submit("k1", request(NINE, 2L)).getStatus());
+        assertEquals(BookingStatus.PENDING, asyncBookingService.submit("k1", request(NINE, 2L)).getStatus());
+        assertThrows(IdempotencyKeyReusedException.class, () -> asyncBookingService.submit("k1", request(NINE, 3L)));
+        assertThrows(IllegalArgumentException.class, () -> asyncBookingService.submit("bad key", request(NINE)));
+
+        AsyncBookingDTO overlapping = asyncBookingService.submit("k2", request(NINE.plusMinutes(15)));
+        assertEquals(BookingStatus.CONFLICT, overlapping.getStatus());
+        assertEquals(BookingStatus.CONFLICT, asyncBookingService.submit("k2", request(NINE.plusMinutes(15))).getStatus());
+
+        writable.countDown();
+        AsyncBookingDTO booked = asyncBookingService.status("k1", Duration.ofSeconds(5)).orElseThrow();
+        assertEquals(BookingStatus.BOOKED, booked.getStatus());
+        assertEquals(100L, booked.getMeetingId());
+        assertEquals(booked, asyncBookingService.submit("k1", request(NINE, 2L)));
+        assertTrue(asyncBookingService.status("unknown", Duration.ZERO).isEmpty());
+
+        verify(calendarService, times(1)).bookMeetings(anyList(), eq(List.of("k1")));
+        verify(calendarService, times(1)).hasSnapshotConflict(10L, NINE, NINE.plusMinutes(30));
+    }
+
+    @Test
+    void testStart_ReplaysJournalWithoutRebookingCommittedKeys() throws Exception {
+        Path path = directory.resolve("journal.log");
+        try (BookingJournal journal = new BookingJournal(path)) {
+            journal.sync(journal.accepted("written", request(NINE)));
+            journal.sync(journal.accepted("queued", request(NINE.plusHours(1), 2L)));
+        }
+        when(calendarService.findBookedMeetingIds(anyCollection())).thenReturn(Map.of("written", 7L));
+        givenBookingsSucceed(new CountDownLatch(0));
+
+        asyncBookingService.start();
+
+        assertEquals(7L, asyncBookingService.status("written", Duration.ZERO).orElseThrow().getMeetingId());
+        assertEquals(BookingStatus.BOOKED, asyncBookingService.status("queued", Duration.ofSeconds(5)).orElseThrow().getStatus());
+        verify(calendarService).bookMeetings(eq(List.of(request(NINE.plusHours(1), 2L))), eq(List.of("queued")));
+
+        asyncBookingService.stop();
+        assertEquals(0, Files.size(path));
+    }
+
+    @Test
+    void testSubmit_AnswersKeysBookedBeforeARestartFromTheDatabase() throws Exception {
+        givenBookingsSucceed(new CountDownLatch(0));
+        asyncBookingService.start();
+        asyncBookingService.submit("k1", request(NINE, 2L));
+        assertEquals(BookingStatus.BOOKED, asyncBookingService.status("k1", Duration.ofSeconds(5)).orElseThrow().getStatus());
+        asyncBookingService.stop();
+
+        when(calendarService.findBookedMeetingIds(List.of("k1"))).thenReturn(Map.of("k1", 100L));
+        asyncBookingService = newService();
+        asyncBookingService.start();
+
+        assertEquals(100L, asyncBookingService.status("k1", Duration.ZERO).orElseThrow().getMeetingId());
+        AsyncBookingDTO retried = asyncBookingService.submit("k1", request(NINE, 2L));
+        assertEquals(BookingStatus.BOOKED, retried.getStatus());
+        assertEquals(100L, retried.getMeetingId());
+        verify(calendarService, times(1)).bookMeetings(anyList(), anyList());
+        verify(calendarService, times(1)).hasSnapshotConflict(anyLong(), any(), any());
+    }
+
+    @Test
+    void testWrite_FailsABatchTheDatabaseKeepsRefusingAndMovesOn() throws Exception {
+        when(calendarService.bookMeetings(anyList(), anyList())).thenAnswer(invocation -> {
+            if (invocation.<List<String>>getArgument(1).contains("poison")) {
+                throw new IllegalStateException("constraint violated");
+            }
+            return List.of(new BookingResultDTO(0, BookingStatus.BOOKED, 101L, null));
+        });
+        asyncBookingService.start();
+
+        asyncBookingService.submit("poison", request(NINE));
+        AsyncBookingDTO failed = asyncBookingService.status("poison", Duration.ofSeconds(5)).orElseThrow();
+        asyncBookingService.submit("next", request(NINE.plusHours(1)));
+
+        assertEquals(BookingStatus.FAILED, failed.getStatus());
+        assertEquals(BookingStatus.BOOKED, asyncBookingService.status("next", Duration.ofSeconds(5)).orElseThrow().getStatus());
+        verify(calendarService, times(2)).bookMeetings(anyList(), eq(List.of("poison")));
+    }
+}
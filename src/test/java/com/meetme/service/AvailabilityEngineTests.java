@@ -0,0 +1,105 @@
+package com.meetme.service;
+
+import com.meetme.entities.Meeting;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class AvailabilityEngineTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 11, 4, 0, 0);
+
+    private static List<Meeting> randomMeetings(Random random, int count, int days) {
+        List<Meeting> meetings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Meeting meeting = new Meeting();
+            meeting.setId((long) i);
+            meeting.setStartTime(BASE.plusSeconds(random.nextInt(days * 86_400)));
+            meeting.setEndTime(meeting.getStartTime().plusSeconds(60 + random.nextInt(7_200)));
+            meetings.add(meeting);
+        }
+        meetings.sort((a, b) -> a.getStartTime().compareTo(b.getStartTime()));
+        return meetings;
+    }
+
+    private static BusyTimeline[] timelines(List<CalendarSnapshot> snapshots, long from, long to) {
+        BusyTimeline[] timelines = new BusyTimeline[snapshots.size()];
+        for (int i = 0; i < timelines.length; i++) {
+            timelines[i] = snapshots.get(i).timeline(from, to);
+        }
+        return timelines;
+    }
+
+    @Test
+    void testFindFreeSlots_PrimitiveTimelinesMatchIntervalAdapter() {
+        Random random = new Random(11);
+        LocalDateTime windowStart = BASE.plusHours(9);
+        LocalDateTime windowEnd = BASE.plusDays(6).plusHours(17);
+        Duration duration = Duration.ofMinutes(25).plusSeconds(30);
+
+        List<List<Meeting>> calendars = new ArrayList<>();
+        List<CalendarSnapshot> snapshots = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            List<Meeting> meetings = randomMeetings(random, 150, 7);
+            calendars.add(meetings);
+            snapshots.add(CalendarSnapshot.of(meetings, null));
+        }
+
+        List<Iterator<BusyInterval>> intervals = new ArrayList<>();
+        calendars.forEach(meetings -> intervals.add(BusyInterval.fromMeetings(meetings)));
+        List<String> expected = new ArrayList<>();
+        AvailabilityEngine.findFreeSlots(intervals, windowStart, windowEnd, duration, (start, end) -> expected.add(start + "/" + end));
+
+        List<String> actual = new ArrayList<>();
+        AvailabilityEngine.findFreeSlots(timelines(snapshots, EpochSeconds.of(windowStart), EpochSeconds.of(windowEnd)),
+                EpochSeconds.of(windowStart), EpochSeconds.of(windowEnd), EpochSeconds.ceilSeconds(duration),
+                (start, end) -> actual.add(EpochSeconds.toDateTime(start) + "/" + EpochSeconds.toDateTime(end)));
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testFindFreeSlots_AllocationDoesNotGrowWithMeetings() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        Random random = new Random(5);
+        List<CalendarSnapshot> small = new ArrayList<>();
+        List<CalendarSnapshot> large = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            small.add(CalendarSnapshot.of(randomMeetings(random, 10, 30), null));
+            large.add(CalendarSnapshot.of(randomMeetings(random, 20_000, 30), null));
+        }
+        long from = EpochSeconds.of(BASE);
+        long to = EpochSeconds.of(BASE.plusDays(30));
+        long[] slots = new long[1];
+        SlotSink sink = (start, end) -> slots[0] += end - start;
+
+        long smallBytes = Long.MAX_VALUE;
+        long largeBytes = Long.MAX_VALUE;
+        for (int round = 0; round < 20; round++) {
+            long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            AvailabilityEngine.findFreeSlots(timelines(small, from, to), from, to, 900, sink);
+            long between = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            AvailabilityEngine.findFreeSlots(timelines(large, from, to), from, to, 900, sink);
+            long after = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            smallBytes = Math.min(smallBytes, between - before);
+            largeBytes = Math.min(largeBytes, after - between);
+        }
+
+        assertTrue(slots[0] > 0);
+        assertTrue(largeBytes - smallBytes < 256,
+                "merging 80,000 meetings allocated " + largeBytes + " bytes against " + smallBytes + " for 40");
+    }
+}
@@ -0,0 +1,82 @@
+package com.meetme.service;
+
+import com.meetme.exception.MeetingConflictException;
+import com.meetme.repository.MeetingRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Books the same slot from many threads against the embedded database. The in-process striped
+ * locks are bypassed, as they would be between instances, so only the calendar row lock stands
+ * between the writers.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:booking-concurrency;LOCK_TIMEOUT=10000",
+        "meetme.async-booking.journal=target/booking-concurrency/journal.log"
+})
+class BookingConcurrencyTest {
+
+    private static final int WRITERS = 20;
+
+    @Autowired
+    private CalendarService calendarService;
+
+    @Autowired
+    private MeetingRepository meetingRepository;
+
+    @SpyBean
+    private BookingLocks bookingLocks;
+
+    @Test
+    void testBookMeeting_ConcurrentBookingsOfOneSlotBookItOnce() throws Exception {
+        doAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get())
+                .when(bookingLocks).withLocks(any(Collection.class), any(Supplier.class));
+        LocalDateTime start = LocalDateTime.now().plusDays(30).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        long meetingsBefore = meetingRepository.count();
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Boolean>> outcomes = new ArrayList<>();
+        try {
+            for (int i = 0; i < WRITERS; i++) {
+                outcomes.add(executor.submit(() -> {
+                    go.await();
+                    try {
+                        calendarService.bookMeeting(1L, start, Duration.ofMinutes(30), List.of(2L));
+                        return true;
+                    } catch (MeetingConflictException e) {
+                        return false;
+                    }
+                }));
+            }
+            go.countDown();
+            int booked = 0;
+            for (Future<Boolean> outcome : outcomes) {
+                booked += outcome.get(30, TimeUnit.SECONDS) ? 1 : 0;
+            }
+
+            assertEquals(1, booked);
+            assertEquals(meetingsBefore + 1, meetingRepository.count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.meetme.service;
+
+import com.meetme.dto.MeetingRequestDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private static MeetingRequestDTO request(long ownerId, List<Long> participantIds) {
+        MeetingRequestDTO request = new MeetingRequestDTO();
+        request.setOwnerId(ownerId);
+        request.setStartTime(LocalDateTime.of(2024, 11, 6, 9, 30));
+        request.setDuration(Duration.ofMinutes(45));
+        request.setParticipantIds(participantIds);
+        return request;
+    }
+
+    @Test
+    void testReplay_ReturnsOpenBookingsAndDropsTornLine() throws Exception {
+        Path path = directory.resolve("journal.log");
+        try (BookingJournal journal = new BookingJournal(path)) {
+            journal.sync(journal.accepted("a", request(1L, List.of(2L, 3L))));
+            journal.sync(journal.accepted("b", request(2L, List.of())));
+            journal.sync(journal.accepted("c", request(3L, List.of(1L))));
+            journal.completed(List.of("b"));
+        }
+        Files.write(path, "A|d|1|2024-11".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        try (BookingJournal journal = new BookingJournal(path)) {
+            Map<String, MeetingRequestDTO> open = journal.replay();
+            assertEquals(List.of("a", "c"), List.copyOf(open.keySet()));
+            assertEquals(request(1L, List.of(2L, 3L)), open.get("a"));
+            assertEquals(request(3L, List.of(1L)), open.get("c"));
+
+            journal.sync(journal.accepted("e", request(2L, List.of())));
+        }
+
+        try (BookingJournal journal = new BookingJournal(path)) {
+            assertEquals(List.of("a", "c", "e"), List.copyOf(journal.replay().keySet()));
+        }
+    }
+
+    @Test
+    void testTruncateIf_EmptiesOnlyWhenIdle() throws Exception {
+        Path path = directory.resolve("journal.log");
+        try (BookingJournal journal = new BookingJournal(path)) {
+            journal.sync(journal.accepted("a", request(1L, List.of())));
+            journal.completed(List.of("a"));
+
+            journal.truncateIf(() -> false);
+            assertTrue(Files.size(path) > 0);
+
+            journal.truncateIf(() -> true);
+            assertEquals(0, Files.size(path));
+
+            journal.sync(journal.accepted("b", request(1L, List.of())));
+            assertEquals(List.of("b"), List.copyOf(journal.replay().keySet()));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.meetme.service;
+
+import com.meetme.dto.CalendarChangeDTO;
+import com.meetme.entities.CalendarChange;
+import com.meetme.entities.ChangeKind;
+import com.meetme.repository.CalendarChangeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CalendarChangeDispatcherTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2024, 11, 6, 9, 0);
+
+    @Mock
+    private CalendarChangeRepository calendarChangeRepository;
+
+    private CalendarChangeDispatcher dispatcher;
+
+    private List<Runnable> held;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // polls and heartbeats are left to the test
+        dispatcher = new CalendarChangeDispatcher(Duration.ofHours(1), Duration.ofSeconds(5), Duration.ofHours(24),
+                Duration.ofHours(1), Duration.ofMinutes(30), 100, 10, 100, 3, 1);
+        // queued events go out on the dispatching thread unless a test holds them
+        ReflectionTestUtils.setField(dispatcher, "senders", (Executor) this::send);
+        ReflectionTestUtils.setField(dispatcher, "calendarChangeRepository", calendarChangeRepository);
+        ReflectionTestUtils.setField(dispatcher, "shardRouter", new ShardRouter(1));
+        ReflectionTestUtils.setField(dispatcher, "transactionOperations", TransactionOperations.withoutTransaction());
+        ReflectionTestUtils.setField(dispatcher, "calendarMetrics", new CalendarMetrics(new SimpleMeterRegistry()));
+
+        when(calendarChangeRepository.findLastId()).thenReturn(3L);
+        when(calendarChangeRepository.findFirstId()).thenReturn(1L);
+        dispatcher.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        dispatcher.stop();
+    }
+
+    private void send(Runnable task) {
+        if (held != null) {
+            held.add(task);
+        } else {
+            task.run();
+        }
+    }
+
+    private static CalendarChange change(long id, long calendarId) {
+        CalendarChange change = new CalendarChange();
+        change.setId(id);
+        change.setCalendarId(calendarId);
+        change.setKind(ChangeKind.MEETING_BOOKED);
+        change.setMeetingId(100 + id);
+        change.setStartTime(NINE);
+        change.setEndTime(NINE.plusMinutes(30));
+        change.setCreatedAt(NINE);
+        return change;
+    }
+
+    @Test
+    void testSubscribe_CatchesUpFromLastPositionThenStreamsItsCalendarsOnly() throws Exception {
+        when(calendarChangeRepository.findOfCalendars(eq(Set.of(1L)), eq(1L), eq(3L), any()))
+                .thenReturn(List.of(change(3, 1)));
+        when(calendarChangeRepository.findAfter(eq(3L), any())).thenReturn(List.of(change(4, 2), change(5, 1)));
+        RecordingSink sink = new RecordingSink();
+
+        dispatcher.subscribe(List.of(1L), "1", sink);
+        dispatcher.dispatch(0);
+
+        assertEquals(List.of("change 3 meeting 103", "ready 3", "change 5 meeting 105"), sink.events);
+
+        RecordingSink ahead = new RecordingSink();
+        dispatcher.subscribe(List.of(1L), "9", ahead);
+        RecordingSink malformed = new RecordingSink();
+        dispatcher.subscribe(List.of(1L), "5,5", malformed);
+        assertEquals(List.of("reset 5"), ahead.events);
+        assertEquals(List.of("reset 5"), malformed.events);
+        assertThrows(IllegalArgumentException.class, () -> dispatcher.subscribe(List.of(), null, new RecordingSink()));
+    }
+
+    @Test
+    void testDispatch_WaitsAtAGapUntilItClosesOrTheGracePeriodEnds() throws Exception {
+        when(calendarChangeRepository.findAfter(eq(3L), any())).thenReturn(List.of(change(5, 1)), List.of(change(4, 1), change(5, 1)));
+        when(calendarChangeRepository.findAfter(eq(5L), any())).thenReturn(List.of(change(7, 1)));
+        RecordingSink sink = new RecordingSink();
+        CalendarChangeDispatcher.Subscription subscription = dispatcher.subscribe(List.of(1L), null, sink);
+
+        // 4 is not committed yet, so 5 waits for it
+        dispatcher.dispatch(0);
+        assertEquals(List.of("ready 3"), sink.events);
+        dispatcher.dispatch(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(List.of("ready 3", "change 4 meeting 104", "change 5 meeting 105"), sink.events);
+
+        // 6 never commits
+        dispatcher.dispatch(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(3, sink.events.size());
+        dispatcher.dispatch(TimeUnit.SECONDS.toNanos(8));
+        assertEquals("change 7 meeting 107", sink.events.get(3));
+
+        subscription.cancel();
+        when(calendarChangeRepository.findAfter(eq(7L), any())).thenReturn(List.of(change(8, 1)));
+        dispatcher.dispatch(TimeUnit.SECONDS.toNanos(9));
+        assertEquals(4, sink.events.size());
+    }
+
+    @Test
+    void testDispatch_ReplacesTheQueueOfASlowSubscriberWithAReset() throws Exception {
+        when(calendarChangeRepository.findAfter(eq(3L), any())).thenReturn(
+                List.of(change(4, 1), change(5, 1), change(6, 1), change(7, 1), change(8, 1)));
+        RecordingSink sink = new RecordingSink();
+        dispatcher.subscribe(List.of(1L), null, sink);
+
+        // nothing is written while the dispatcher queues, and the fourth change overflows the queue
+        held = new ArrayList<>();
+        dispatcher.dispatch(0);
+        assertEquals(List.of("ready 3"), sink.events);
+        assertEquals(1, held.size());
+        held.forEach(Runnable::run);
+
+        assertEquals(List.of("ready 3", "reset 7", "change 8 meeting 108"), sink.events);
+    }
+
+    private static final class RecordingSink implements CalendarChangeDispatcher.ChangeSink {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void change(String position, CalendarChangeDTO change) {
+            events.add("change " + position + " meeting " + change.getMeetingId());
+        }
+
+        @Override
+        public void ready(String position) {
+            events.add("ready " + position);
+        }
+
+        @Override
+        public void reset(String position) {
+            events.add("reset " + position);
+        }
+
+        @Override
+        public void heartbeat() {
+            events.add("heartbeat");
+        }
+    }
+}
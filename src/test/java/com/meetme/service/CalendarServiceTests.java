@@ -1,23 +1,58 @@
 package com.meetme.service;
 
+import com.meetme.dto.BookingResultDTO;
+import com.meetme.dto.BookingStatus;
+import com.meetme.dto.ConflictDTO;
+import com.meetme.dto.MeetingRequestDTO;
+import com.meetme.dto.RoomSlotDTO;
+import com.meetme.dto.WorkingHoursDTO;
 import com.meetme.entities.Calendar;
+import com.meetme.entities.CalendarChange;
+import com.meetme.entities.ChangeKind;
 import com.meetme.entities.Meeting;
+import com.meetme.entities.MeetingSeries;
+import com.meetme.entities.Resource;
+import com.meetme.entities.ResourceKind;
 import com.meetme.entities.User;
+import com.meetme.event.MeetingChangedEvent;
+import com.meetme.exception.MeetingConflictException;
+import com.meetme.exception.UserNotFoundException;
+import com.meetme.repository.CalendarChangeRepository;
+import com.meetme.repository.CalendarMeetingView;
+import com.meetme.repository.CalendarRepository;
 import com.meetme.repository.MeetingRepository;
+import com.meetme.repository.MeetingSeriesRepository;
+import com.meetme.repository.ResourceRepository;
+import com.meetme.repository.UserMeetingView;
 import com.meetme.repository.UserRepository;
+import com.meetme.repository.UserSummaryView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.collection.spi.PersistentBag;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -35,6 +70,47 @@ class CalendarServiceTest {
     @Mock
     private MeetingRepository meetingRepository;
 
+    @Mock
+    private MeetingSeriesRepository meetingSeriesRepository;
+
+    @Spy
+    private CalendarSnapshotStore calendarSnapshots = new CalendarSnapshotStore(new BookingLocks(16), 100_000, Duration.ofMinutes(5));
+
+    @Spy
+    private FreeBusyCache freeBusyCache = new FreeBusyCache(100, Duration.ofMinutes(5));
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CalendarRepository calendarRepository;
+
+    @Mock
+    private ResourceRepository resourceRepository;
+
+    @Mock
+    private CalendarChangeRepository calendarChangeRepository;
+
+    @Spy
+    private BookingLocks bookingLocks = new BookingLocks(16);
+
+    @Spy
+    private TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+
+    @Spy
+    private FanOutExecutor fanOutExecutor = new FanOutExecutor(false, 8, 50);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private CalendarMetrics calendarMetrics = new CalendarMetrics(meterRegistry);
+
+    @Spy
+    private LogSampler logSampler = new LogSampler(1);
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(1);
+
     private User owner;
     private Calendar calendar;
 
@@ -51,7 +127,9 @@ class CalendarServiceTest {
         owner.setCalendar(calendar);
 
         Calendar calendar1 = new Calendar();
+        calendar1.setId(101L);
         Calendar calendar2 = new Calendar();
+        calendar2.setId(102L);
 
         user1 = new User();
         user1.setId(1L);
@@ -62,12 +140,19 @@ class CalendarServiceTest {
         user2.setCalendar(calendar2);
     }
 
+    private void givenUsers(User... users) {
+        when(userRepository.findByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return Arrays.stream(users).filter(user -> ids.contains(user.getId())).collect(Collectors.toList());
+        });
+    }
+
     @Test
     void testBookMeeting_SuccessfulBooking() {
         LocalDateTime startTime = LocalDateTime.now().plusHours(1);
         Duration duration = Duration.ofMinutes(30);
 
-        when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
+        givenUsers(owner);
         when(meetingRepository.save(any(Meeting.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         Meeting meeting = calendarService.bookMeeting(owner.getId(), startTime, duration, Collections.emptyList());
@@ -88,7 +173,7 @@ class CalendarServiceTest {
         existingMeeting.setEndTime(startTime.plusMinutes(15));
         calendar.setMeetings(Collections.singletonList(existingMeeting));
 
-        when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
+        givenUsers(owner);
 
         RuntimeException exception = assertThrows(RuntimeException.class, () ->
                 calendarService.bookMeeting(owner.getId(), startTime, duration, Collections.emptyList())
@@ -100,41 +185,240 @@ class CalendarServiceTest {
 
 
     @Test
-    void testCheckConflicts_NoConflicts() {
+    void testBookMeeting_RecordsLatencyAndConflicts() {
+        calendar.setId(10L);
         LocalDateTime startTime = LocalDateTime.now().plusHours(1);
         Duration duration = Duration.ofMinutes(30);
-        User participant = new User();
-        participant.setId(2L);
-        participant.setCalendar(new Calendar());
 
-        when(userRepository.findById(participant.getId())).thenReturn(Optional.of(participant));
+        givenUsers(owner);
+        when(meetingRepository.save(any(Meeting.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        List<User> conflicts = calendarService.checkConflicts(Collections.singletonList(participant.getId()), startTime, duration);
+        calendarService.bookMeeting(owner.getId(), startTime, duration, Collections.emptyList());
+        assertThrows(MeetingConflictException.class, () ->
+                calendarService.bookMeeting(owner.getId(), startTime, duration, Collections.emptyList()));
 
-        assertTrue(conflicts.isEmpty());
+        assertEquals(1, meterRegistry.get("meetme.booking.latency").tag("outcome", "booked").timer().count());
+        assertEquals(1, meterRegistry.get("meetme.booking.latency").tag("outcome", "conflict").timer().count());
+        assertEquals(1.0, meterRegistry.get("meetme.conflicts.detected").tag("operation", "book").counter().count());
+        assertEquals(2, meterRegistry.get("meetme.request.participants").tag("operation", "book").summary().count());
     }
 
-
     @Test
-    void testCheckConflicts_WithConflicts() {
+    void testBookMeeting_IndexTracksBookedMeetings() {
+        calendar.setId(10L);
         LocalDateTime startTime = LocalDateTime.now().plusHours(1);
         Duration duration = Duration.ofMinutes(30);
-        User participant = new User();
-        participant.setId(2L);
+
+        givenUsers(owner);
+        when(meetingRepository.save(any(Meeting.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        calendarService.bookMeeting(owner.getId(), startTime, duration, Collections.emptyList());
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                calendarService.bookMeeting(owner.getId(), startTime.plusMinutes(15), duration, Collections.emptyList())
+        );
+        assertEquals("Meeting conflict detected", exception.getMessage());
+        assertEquals(1, calendarSnapshots.snapshot(calendar, ids -> List.of()).size());
+    }
+
+    @Test
+    void testCancelMeeting_RemovesFromIndex() {
+        calendar.setId(10L);
+        LocalDateTime startTime = LocalDateTime.now().plusHours(1);
+        Meeting existingMeeting = new Meeting();
+        existingMeeting.setId(5L);
+        existingMeeting.setStartTime(startTime);
+        existingMeeting.setEndTime(startTime.plusMinutes(30));
+        existingMeeting.setCalendar(calendar);
+        calendar.getMeetings().add(existingMeeting);
+
+        when(meetingRepository.findById(5L)).thenReturn(Optional.of(existingMeeting));
+        assertEquals(1, calendarService.getConflicts(calendar, startTime, startTime.plusMinutes(30)).size());
+
+        calendarService.cancelMeeting(5L);
+
+        assertTrue(calendarService.getConflicts(calendar, startTime, startTime.plusMinutes(30)).isEmpty());
+        verify(meetingRepository, times(1)).delete(existingMeeting);
+    }
+
+
+    @Test
+    void testGetConflicts_LoadsSnapshotOnceAndReloadsItWhenChangedElsewhere() {
+        LocalDateTime startTime = LocalDateTime.now().plusHours(1);
+        LocalDateTime endTime = startTime.plusMinutes(30);
         Calendar participantCalendar = new Calendar();
-        participant.setCalendar(participantCalendar);
+        participantCalendar.setId(20L);
+        participantCalendar.setVersion(3L);
+        participantCalendar.setMeetings(new PersistentBag<>());
 
-        Meeting conflictingMeeting = new Meeting();
-        conflictingMeeting.setStartTime(startTime.minusMinutes(15));
-        conflictingMeeting.setEndTime(startTime.plusMinutes(15));
-        participantCalendar.setMeetings(Collections.singletonList(conflictingMeeting));
+        when(calendarRepository.findMeetingTimes(List.of(20L))).thenReturn(
+                List.of(meetingTimes(20L, 3L, 99L, startTime, endTime)),
+                List.of(meetingTimes(20L, 4L, null, null, null)));
+
+        assertEquals(1, calendarService.getConflicts(participantCalendar, startTime, endTime).size());
+        assertEquals(1, calendarService.getConflicts(participantCalendar, startTime, endTime).size());
+        verify(calendarRepository, times(1)).findMeetingTimes(List.of(20L));
+
+        // the meeting was cancelled elsewhere, which bumped the calendar version
+        participantCalendar.setVersion(4L);
+        assertTrue(calendarService.getConflicts(participantCalendar, startTime, endTime).isEmpty());
+        assertTrue(calendarService.getConflicts(participantCalendar, startTime, endTime).isEmpty());
+        verify(calendarRepository, times(2)).findMeetingTimes(List.of(20L));
+    }
+
+    @Test
+    void testFindConflicts_FansOutDatabaseChecksWhenEnabled() {
+        FanOutExecutor concurrent = new FanOutExecutor(true, 4, 2);
+        ReflectionTestUtils.setField(calendarService, "fanOutExecutor", concurrent);
+        LocalDateTime startTime = LocalDateTime.now().plusHours(1);
+        LocalDateTime endTime = startTime.plusMinutes(30);
+        when(userRepository.findSummaries(anyCollection())).thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                .map(id -> summary(id, "user" + id, id * 10)).collect(Collectors.toList()));
+        when(meetingRepository.findBusyMeetingsOfUsers(anyCollection(), eq(startTime), eq(endTime))).thenAnswer(invocation ->
+                invocation.<Collection<Long>>getArgument(0).stream().filter(id -> id == 2L || id == 5L)
+                        .map(id -> busyRow(id, id, startTime.minusMinutes(15), startTime.plusMinutes(15)))
+                        .collect(Collectors.toList()));
+
+        try {
+            List<ConflictDTO> conflicts = calendarService.findConflicts(List.of(1L, 2L, 3L, 4L, 5L), startTime, Duration.ofMinutes(30));
+
+            assertEquals(List.of(2L, 5L), conflicts.stream().map(ConflictDTO::getUserId).collect(Collectors.toList()));
+            verify(meetingRepository, times(3)).findBusyMeetingsOfUsers(anyCollection(), eq(startTime), eq(endTime));
+        } finally {
+            concurrent.shutdown();
+        }
+    }
+
+    @Test
+    void testFindConflicts_GroupsMeetingIdsPerUserInRequestOrder() {
+        LocalDateTime startTime = LocalDateTime.now().plusHours(1);
+        LocalDateTime endTime = startTime.plusMinutes(30);
+        when(userRepository.findSummaries(anyCollection())).thenReturn(List.of(
+                summary(1L, "sachin", 101L), summary(2L, "virat", 102L), summary(3L, "ponting", 103L), summary(4L, "dhoni", 104L)));
+        // virat attends 12 in somebody else's calendar, as ponting does 13
+        when(meetingRepository.findBusyMeetingsOfUsers(anyCollection(), eq(startTime), eq(endTime))).thenReturn(List.of(
+                busyRow(2L, 12L, startTime.plusMinutes(10), endTime),
+                busyRow(3L, 13L, startTime, endTime),
+                busyRow(2L, 11L, startTime.minusMinutes(10), startTime.plusMinutes(5))));
+        Calendar sachinsCalendar = new Calendar();
+        sachinsCalendar.setId(101L);
+        Calendar dhonisCalendar = new Calendar();
+        dhonisCalendar.setId(104L);
+        MeetingSeries standUp = series(sachinsCalendar, startTime.minusDays(3).plusMinutes(15), Duration.ofMinutes(15), "FREQ=DAILY");
+        standUp.setId(7L);
+        MeetingSeries weekly = series(dhonisCalendar, startTime.minusDays(1), Duration.ofMinutes(30), "FREQ=WEEKLY");
+        weekly.setId(8L);
+        when(meetingSeriesRepository.findActiveInCalendars(anyCollection(), eq(startTime), eq(endTime))).thenReturn(List.of(standUp, weekly));
+
+        List<ConflictDTO> conflicts = calendarService.findConflicts(List.of(3L, 1L, 2L, 4L), startTime, Duration.ofMinutes(30));
+
+        assertEquals(List.of(new ConflictDTO(3L, "ponting", List.of(13L), List.of()),
+                new ConflictDTO(1L, "sachin", List.of(), List.of(7L)),
+                new ConflictDTO(2L, "virat", List.of(11L, 12L), List.of())), conflicts);
+        verify(userRepository, never()).findByIdIn(any());
+
+        when(userRepository.findSummaries(anyCollection())).thenReturn(List.of(summary(1L, "sachin", 101L)));
+        UserNotFoundException exception = assertThrows(UserNotFoundException.class, () ->
+                calendarService.findConflicts(List.of(1L, 9L), startTime, Duration.ofMinutes(30)));
+        assertEquals("Users not found with IDs: [9]", exception.getMessage());
+    }
+
+    private static CalendarMeetingView meetingTimes(Long calendarId, Long version, Long meetingId, LocalDateTime start, LocalDateTime end) {
+        return new CalendarMeetingView() {
+            @Override
+            public Long getCalendarId() {
+                return calendarId;
+            }
+
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+
+            @Override
+            public Long getMeetingId() {
+                return meetingId;
+            }
+
+            @Override
+            public LocalDateTime getStartTime() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEndTime() {
+                return end;
+            }
+        };
+    }
+
+    private static UserSummaryView summary(Long userId, String name, Long calendarId) {
+        return new UserSummaryView() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Long getCalendarId() {
+                return calendarId;
+            }
+        };
+    }
 
-        when(userRepository.findById(participant.getId())).thenReturn(Optional.of(participant));
+    private static UserMeetingView busyRow(Long userId, Long meetingId, LocalDateTime start, LocalDateTime end) {
+        return new UserMeetingView() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
 
-        List<User> conflicts = calendarService.checkConflicts(Collections.singletonList(participant.getId()), startTime, duration);
+            @Override
+            public Long getMeetingId() {
+                return meetingId;
+            }
+
+            @Override
+            public LocalDateTime getStartTime() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEndTime() {
+                return end;
+            }
+        };
+    }
+
+    @Test
+    void testFindConflicts_NoConflicts() {
+        LocalDateTime startTime = LocalDateTime.now().plusHours(1);
+        Duration duration = Duration.ofMinutes(30);
+        when(userRepository.findSummaries(anyCollection())).thenReturn(List.of(summary(2L, "virat", 20L)));
+
+        List<ConflictDTO> conflicts = calendarService.findConflicts(Collections.singletonList(2L), startTime, duration);
+
+        assertTrue(conflicts.isEmpty());
+    }
+
+
+    @Test
+    void testFindConflicts_WithConflicts() {
+        LocalDateTime startTime = LocalDateTime.now().plusHours(1);
+        Duration duration = Duration.ofMinutes(30);
+        when(userRepository.findSummaries(anyCollection())).thenReturn(List.of(summary(2L, "virat", 20L)));
+        when(meetingRepository.findBusyMeetingsOfUsers(anyCollection(), eq(startTime), eq(startTime.plus(duration))))
+                .thenReturn(List.of(busyRow(2L, 50L, startTime.minusMinutes(15), startTime.plusMinutes(15))));
+
+        List<ConflictDTO> conflicts = calendarService.findConflicts(Collections.singletonList(2L), startTime, duration);
 
         assertEquals(1, conflicts.size());
-        assertEquals(participant.getId(), conflicts.get(0).getId());
+        assertEquals(2L, conflicts.get(0).getUserId());
     }
 
     @Test
@@ -198,4 +482,593 @@ class CalendarServiceTest {
 
         assertTrue(freeSlots.isEmpty());  // Expect no free slots for a 2-hour meeting
     }
+
+    @Test
+    void testGetFreeSlots_MergesManyCalendars() {
+        Duration duration = Duration.ofMinutes(30);
+        LocalDateTime nine = LocalDateTime.now().withHour(9).withMinute(0).truncatedTo(ChronoUnit.MINUTES);
+
+        List<Calendar> calendars = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Calendar participantCalendar = new Calendar();
+            Meeting meeting = new Meeting();
+            meeting.setStartTime(nine.plusHours(i + 1));
+            meeting.setEndTime(nine.plusHours(i + 1).plusMinutes(30));
+            participantCalendar.getMeetings().add(meeting);
+            calendars.add(participantCalendar);
+        }
+
+        List<LocalDateTime[]> freeSlots = calendarService.getFreeSlots(calendars, duration);
+
+        assertEquals(6, freeSlots.size());
+        assertEquals(LocalTime.of(9, 0), freeSlots.get(0)[0].toLocalTime());
+        assertEquals(LocalTime.of(10, 0), freeSlots.get(0)[1].toLocalTime());
+        for (int i = 1; i < 5; i++) {
+            assertEquals(LocalTime.of(9 + i, 30), freeSlots.get(i)[0].toLocalTime());
+            assertEquals(LocalTime.of(10 + i, 0), freeSlots.get(i)[1].toLocalTime());
+        }
+        assertEquals(LocalTime.of(14, 30), freeSlots.get(5)[0].toLocalTime());
+        assertEquals(LocalTime.of(17, 0), freeSlots.get(5)[1].toLocalTime());
+    }
+
+    @Test
+    void testGetFreeSlotsForUsers_UnknownUser() {
+        givenUsers(user1);
+
+        assertThrows(UserNotFoundException.class, () ->
+                calendarService.getFreeSlotsForUsers(List.of(1L, 9L), Duration.ofMinutes(30)));
+    }
+
+    @Test
+    void testUpdateWorkingHours_RejectsHalfAWorkday() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
+        WorkingHoursDTO startOnly = new WorkingHoursDTO();
+        startOnly.setWorkdayStart(LocalTime.of(8, 0));
+
+        assertThrows(IllegalArgumentException.class, () -> calendarService.updateWorkingHours(1L, startOnly));
+
+        WorkingHoursDTO both = new WorkingHoursDTO();
+        both.setWorkdayStart(LocalTime.of(8, 0));
+        both.setWorkdayEnd(LocalTime.of(16, 0));
+        when(userRepository.save(user1)).thenReturn(user1);
+        calendarService.updateWorkingHours(1L, both);
+
+        verify(userRepository, times(1)).save(user1);
+        assertEquals(LocalTime.of(16, 0), user1.getWorkdayEnd());
+    }
+
+    @Test
+    void testGetFreeSlots_RangeHonoursEachUsersWorkingHoursAndZone() {
+        ZoneId utc = ZoneId.of("UTC");
+        LocalDate day = LocalDate.now(utc).plusDays(7);
+        user1.setWorkdayStart(LocalTime.of(9, 0));
+        user1.setWorkdayEnd(LocalTime.of(17, 0));
+        user1.setTimeZone("UTC");
+        user2.setWorkdayStart(LocalTime.of(9, 0));
+        user2.setWorkdayEnd(LocalTime.of(17, 0));
+        user2.setTimeZone("Etc/GMT-3");
+
+        LocalDateTime meetingStart = day.atTime(10, 0).atZone(utc).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        Meeting meeting = new Meeting();
+        meeting.setStartTime(meetingStart);
+        meeting.setEndTime(meetingStart.plusMinutes(30));
+        when(meetingRepository.findBusyMeetingsOfUsers(eq(List.of(2L)), any(), any()))
+                .thenReturn(List.of(busyRow(2L, 50L, meeting.getStartTime(), meeting.getEndTime())));
+
+        givenUsers(user1, user2);
+
+        List<LocalDateTime[]> freeSlots = calendarService.getFreeSlots(List.of(1L, 2L), day, day.plusDays(1), utc, Duration.ofMinutes(30));
+
+        // user2 works 06:00-14:00 UTC, so the overlap is 09:00-14:00 UTC on each day
+        assertEquals(3, freeSlots.size());
+        assertEquals(day.atTime(9, 0), freeSlots.get(0)[0]);
+        assertEquals(day.atTime(10, 0), freeSlots.get(0)[1]);
+        assertEquals(day.atTime(10, 30), freeSlots.get(1)[0]);
+        assertEquals(day.atTime(14, 0), freeSlots.get(1)[1]);
+        assertEquals(day.plusDays(1).atTime(9, 0), freeSlots.get(2)[0]);
+        assertEquals(day.plusDays(1).atTime(14, 0), freeSlots.get(2)[1]);
+    }
+
+    @Test
+    void testSearchFreeSlots_ResolvesUsersUpFrontAndLoadsMeetingsWhenRun() {
+        LocalDate day = LocalDate.now().plusDays(7);
+        givenUsers(user1, user2);
+
+        assertThrows(UserNotFoundException.class, () ->
+                calendarService.searchFreeSlots(List.of(1L, 3L), day, day, ZoneId.systemDefault(), Duration.ofMinutes(30)));
+
+        FreeSlotSearch search = calendarService.searchFreeSlots(List.of(1L, 2L), day, day, ZoneId.systemDefault(), Duration.ofMinutes(30));
+        verifyNoInteractions(meetingRepository);
+
+        List<LocalDateTime> starts = new ArrayList<>();
+        search.forEach((start, end) -> starts.add(start));
+
+        assertEquals(List.of(day.atTime(9, 0)), starts);
+        verify(meetingRepository, atLeastOnce()).findBusyMeetingsOfUsers(any(), any(), any());
+    }
+
+    @Test
+    void testGetFreeSlots_RangeRejectsReversedDates() {
+        LocalDate day = LocalDate.now();
+
+        assertThrows(IllegalArgumentException.class, () ->
+                calendarService.getFreeSlots(List.of(1L), day, day.minusDays(1), ZoneId.systemDefault(), Duration.ofMinutes(30)));
+    }
+
+    @Test
+    void testGetFreeSlotsForUsers_ServedFromCacheUntilMeetingChanges() {
+        LocalDateTime nine = LocalDateTime.now().withHour(9).withMinute(0).truncatedTo(ChronoUnit.MINUTES);
+        Meeting meeting = new Meeting();
+        meeting.setStartTime(nine.plusHours(1));
+        meeting.setEndTime(nine.plusHours(2));
+
+        givenUsers(user1, user2);
+        when(meetingRepository.findBusyMeetingsOfUsers(eq(List.of(1L)), any(), any()))
+                .thenReturn(List.of(busyRow(1L, 50L, meeting.getStartTime(), meeting.getEndTime())));
+
+        List<LocalDateTime[]> first = calendarService.getFreeSlotsForUsers(List.of(1L, 2L), Duration.ofMinutes(30));
+        List<LocalDateTime[]> second = calendarService.getFreeSlotsForUsers(List.of(1L, 2L), Duration.ofMinutes(30));
+
+        assertEquals(2, first.size());
+        assertEquals(2, second.size());
+        verify(userRepository, times(1)).findByIdIn(anyCollection());
+        verify(meetingRepository, times(1)).findBusyMeetingsOfUsers(eq(List.of(1L)), any(), any());
+
+        freeBusyCache.onMeetingChanged(new MeetingChangedEvent(List.of(1L), nine, nine.plusHours(1)));
+        calendarService.getFreeSlotsForUsers(List.of(1L, 2L), Duration.ofMinutes(30));
+
+        verify(meetingRepository, times(2)).findBusyMeetingsOfUsers(eq(List.of(1L)), any(), any());
+        verify(meetingRepository, times(1)).findBusyMeetingsOfUsers(eq(List.of(2L)), any(), any());
+    }
+
+    @Test
+    void testBookMeeting_PublishesChangeAndRecordsItForEachCalendar() {
+        LocalDateTime startTime = LocalDateTime.now().plusHours(1);
+        Duration duration = Duration.ofMinutes(30);
+        calendar.setId(100L);
+
+        givenUsers(owner, user2);
+        when(meetingRepository.save(any(Meeting.class))).thenAnswer(invocation -> {
+            Meeting meeting = invocation.getArgument(0);
+            meeting.setId(55L);
+            return meeting;
+        });
+
+        calendarService.bookMeeting(owner.getId(), startTime, duration, List.of(2L));
+
+        verify(eventPublisher, times(1)).publishEvent(new MeetingChangedEvent(List.of(2L, 1L), startTime, startTime.plus(duration)));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CalendarChange>> changes = ArgumentCaptor.forClass(List.class);
+        verify(calendarChangeRepository, times(1)).saveAll(changes.capture());
+        assertEquals(List.of(100L, 102L), changes.getValue().stream().map(CalendarChange::getCalendarId).collect(Collectors.toList()));
+        CalendarChange change = changes.getValue().get(0);
+        assertEquals(ChangeKind.MEETING_BOOKED, change.getKind());
+        assertEquals(55L, change.getMeetingId());
+        assertEquals(startTime.plus(duration), change.getEndTime());
+    }
+
+    @Test
+    void testFindConflicts_LoadsParticipantsInOneQueryAndReportsAllMissing() {
+        LocalDateTime startTime = LocalDateTime.now().plusHours(1);
+        when(userRepository.findSummaries(anyCollection())).thenReturn(List.of(summary(1L, "sachin", 101L), summary(2L, "virat", 102L)));
+
+        UserNotFoundException exception = assertThrows(UserNotFoundException.class, () ->
+                calendarService.findConflicts(List.of(1L, 7L, 2L, 8L), startTime, Duration.ofMinutes(30)));
+
+        assertEquals("Users not found with IDs: [7, 8]", exception.getMessage());
+        verify(userRepository, times(1)).findSummaries(anyCollection());
+        verify(meetingRepository, never()).findBusyMeetingsOfUsers(anyCollection(), any(), any());
+    }
+
+    @Test
+    void testBookMeetings_ValidatesAgainstExistingAndEarlierRequests() {
+        calendar.setId(10L);
+        LocalDateTime nine = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).truncatedTo(ChronoUnit.MINUTES);
+        Meeting existingMeeting = new Meeting();
+        existingMeeting.setStartTime(nine);
+        existingMeeting.setEndTime(nine.plusHours(1));
+        existingMeeting.setCalendar(calendar);
+
+        givenUsers(owner, user2);
+        when(meetingRepository.findOverlappingInCalendars(anyCollection(), any(), any())).thenReturn(List.of(existingMeeting));
+        when(meetingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<BookingResultDTO> results = calendarService.bookMeetings(List.of(
+                request(1L, nine.plusMinutes(30), List.of(2L)),
+                request(1L, nine.plusHours(1), List.of(2L)),
+                request(1L, nine.plusHours(1).plusMinutes(15), List.of()),
+                request(1L, nine.plusHours(3), List.of(2L, 9L)),
+                request(null, nine.plusHours(4), List.of())));
+
+        assertEquals(List.of(BookingStatus.CONFLICT, BookingStatus.BOOKED, BookingStatus.CONFLICT,
+                        BookingStatus.USER_NOT_FOUND, BookingStatus.INVALID),
+                results.stream().map(BookingResultDTO::getStatus).collect(Collectors.toList()));
+        verify(meetingRepository, times(1)).saveAll(argThat(meetings -> ((List<?>) meetings).size() == 1));
+        // one lookup for the attendees' calendars to lock, one for every user in the batch
+        verify(userRepository, times(2)).findByIdIn(anyCollection());
+        verify(eventPublisher, times(1)).publishEvent(any(MeetingChangedEvent.class));
+    }
+
+    @Test
+    void testBookMeeting_ConflictsWhenParticipantIsBusy() {
+        calendar.setId(10L);
+        LocalDateTime startTime = LocalDateTime.now().plusHours(1);
+        Duration duration = Duration.ofMinutes(30);
+
+        givenUsers(owner, user2);
+        when(meetingRepository.findBusyMeetingsOfUsers(anyCollection(), any(), any()))
+                .thenReturn(List.of(busyRow(2L, 50L, startTime.minusMinutes(15), startTime.plusMinutes(15))));
+
+        MeetingConflictException exception = assertThrows(MeetingConflictException.class, () ->
+                calendarService.bookMeeting(owner.getId(), startTime, duration, List.of(2L)));
+
+        assertEquals("Meeting conflict detected for users: [2]", exception.getMessage());
+        verify(meetingRepository, times(1)).findBusyMeetingsOfUsers(List.of(1L, 2L), startTime, startTime.plus(duration));
+        verify(meetingRepository, never()).save(any());
+    }
+
+    @Test
+    void testBookMeetings_ChecksParticipantsAcrossCalendarsAndEarlierRequests() {
+        calendar.setId(10L);
+        LocalDateTime nine = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).truncatedTo(ChronoUnit.MINUTES);
+
+        givenUsers(owner, user2);
+        // user 2 attends a meeting from 9:00 to 10:00 in somebody else's calendar
+        when(meetingRepository.findBusyMeetingsOfUsers(anyCollection(), any(), any()))
+                .thenReturn(List.of(busyRow(2L, 50L, nine, nine.plusHours(1))));
+        when(meetingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<BookingResultDTO> results = calendarService.bookMeetings(List.of(
+                request(1L, nine.plusMinutes(30), List.of(2L)),
+                request(1L, nine.plusMinutes(30), List.of()),
+                request(2L, nine.plusHours(1), List.of()),
+                request(1L, nine.plusHours(1).plusMinutes(15), List.of(2L))));
+
+        assertEquals(List.of(BookingStatus.CONFLICT, BookingStatus.BOOKED, BookingStatus.BOOKED, BookingStatus.CONFLICT),
+                results.stream().map(BookingResultDTO::getStatus).collect(Collectors.toList()));
+        verify(meetingRepository, times(1)).findBusyMeetingsOfUsers(anyCollection(), any(), any());
+    }
+
+    @Test
+    void testBookMeeting_LocksEveryAttendeeCalendarInIdOrder() {
+        calendar.setId(110L);
+        LocalDateTime startTime = LocalDateTime.now().plusHours(1);
+
+        givenUsers(owner, user2);
+        when(meetingRepository.save(any(Meeting.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        calendarService.bookMeeting(owner.getId(), startTime, Duration.ofMinutes(30), List.of(2L));
+
+        verify(calendarRepository, times(1)).lockForWrite(List.of(102L, 110L));
+    }
+
+    @Test
+    void testBookMeetings_LocksEveryAttendeeCalendarInIdOrder() {
+        calendar.setId(110L);
+        LocalDateTime nine = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).truncatedTo(ChronoUnit.MINUTES);
+
+        givenUsers(owner, user2);
+        when(meetingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        calendarService.bookMeetings(List.of(request(1L, nine, List.of(2L))));
+
+        verify(calendarRepository, times(1)).lockForWrite(List.of(102L, 110L));
+    }
+
+    @Test
+    void testBookMeetings_IgnoresRepeatedParticipantsAndTheOwner() {
+        calendar.setId(10L);
+        LocalDateTime nine = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).truncatedTo(ChronoUnit.MINUTES);
+
+        givenUsers(owner, user2);
+        when(meetingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<BookingResultDTO> results = calendarService.bookMeetings(List.of(request(1L, nine, List.of(1L, 2L, 2L))));
+
+        assertEquals(BookingStatus.BOOKED, results.get(0).getStatus());
+        ArgumentCaptor<List<Meeting>> saved = ArgumentCaptor.forClass(List.class);
+        verify(meetingRepository).saveAll(saved.capture());
+        assertEquals(List.of(user2), saved.getValue().get(0).getParticipants());
+    }
+
+    @Test
+    void testBookMeeting_RetriesAfterConcurrentCalendarUpdate() {
+        calendar.setId(10L);
+        LocalDateTime startTime = LocalDateTime.now().plusHours(1);
+        Duration duration = Duration.ofMinutes(30);
+
+        givenUsers(owner);
+        when(meetingRepository.save(any(Meeting.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Calendar.class, 10L))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Meeting meeting = calendarService.bookMeeting(owner.getId(), startTime, duration, Collections.emptyList());
+
+        assertEquals(startTime, meeting.getStartTime());
+        verify(calendarRepository, times(2)).lockForWrite(List.of(10L));
+        verify(transactionOperations, times(2)).execute(any());
+        assertEquals(1, calendarSnapshots.snapshot(calendar, ids -> List.of()).size());
+    }
+
+    @Test
+    void testBookMeeting_GivesUpAfterRepeatedConcurrentUpdates() {
+        calendar.setId(10L);
+        LocalDateTime startTime = LocalDateTime.now().plusHours(1);
+
+        givenUsers(owner);
+        when(meetingRepository.save(any(Meeting.class))).thenThrow(new ObjectOptimisticLockingFailureException(Calendar.class, 10L));
+
+        MeetingConflictException exception = assertThrows(MeetingConflictException.class, () ->
+                calendarService.bookMeeting(owner.getId(), startTime, Duration.ofMinutes(30), Collections.emptyList()));
+
+        assertEquals("Calendar was modified concurrently, please retry", exception.getMessage());
+        verify(meetingRepository, times(3)).save(any());
+        verify(calendarSnapshots, never()).meetingAdded(any());
+    }
+
+    @Test
+    void testBookSeries_StoresOneRowAndRejectsLaterClash() {
+        LocalDateTime startTime = LocalDate.now().plusDays(1).atTime(9, 30);
+        givenUsers(owner);
+        when(meetingSeriesRepository.save(any(MeetingSeries.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        MeetingSeries standUp = calendarService.bookSeries(owner.getId(), startTime, Duration.ofMinutes(15), "FREQ=DAILY;COUNT=260", Collections.emptyList());
+
+        assertEquals(startTime.plusDays(259).plusMinutes(15), standUp.getRecurrenceEnd());
+        assertEquals(List.of(standUp), calendar.getSeries());
+        verify(meetingSeriesRepository, times(1)).save(standUp);
+
+        Meeting existing = new Meeting();
+        existing.setStartTime(startTime.plusDays(40).withHour(10));
+        existing.setEndTime(startTime.plusDays(40).withHour(11));
+        existing.setCalendar(calendar);
+        calendar.getMeetings().add(existing);
+
+        MeetingConflictException exception = assertThrows(MeetingConflictException.class, () ->
+                calendarService.bookSeries(owner.getId(), startTime.withHour(10), Duration.ofMinutes(30), "FREQ=DAILY;INTERVAL=2", Collections.emptyList()));
+        assertTrue(exception.getMessage().contains("conflicts with an existing meeting"));
+        assertThrows(IllegalArgumentException.class, () ->
+                calendarService.bookSeries(owner.getId(), startTime, Duration.ofMinutes(30), "FREQ=HOURLY", Collections.emptyList()));
+        verify(meetingSeriesRepository, times(1)).save(any());
+    }
+
+    @Test
+    void testBookMeeting_ConflictsWithSeriesOccurrenceUnlessSkipped() {
+        LocalDateTime firstStart = LocalDate.now().minusDays(30).atTime(10, 0);
+        MeetingSeries standUp = series(calendar, firstStart, Duration.ofMinutes(15), "FREQ=DAILY");
+        calendar.getSeries().add(standUp);
+        LocalDateTime tomorrow = LocalDate.now().plusDays(1).atTime(10, 5);
+        givenUsers(owner);
+        when(meetingRepository.save(any(Meeting.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThrows(MeetingConflictException.class, () ->
+                calendarService.bookMeeting(owner.getId(), tomorrow, Duration.ofMinutes(30), Collections.emptyList()));
+
+        standUp.getExceptions().add(tomorrow.withMinute(0));
+        Meeting meeting = calendarService.bookMeeting(owner.getId(), tomorrow, Duration.ofMinutes(30), Collections.emptyList());
+        assertEquals(tomorrow, meeting.getStartTime());
+        verify(meetingSeriesRepository, never()).findActive(any(), any(), any());
+    }
+
+    @Test
+    void testBookMeeting_ConflictsWithParticipantsOwnSeries() {
+        calendar.setId(10L);
+        LocalDateTime tomorrow = LocalDate.now().plusDays(1).atTime(10, 5);
+        MeetingSeries standUp = series(user2.getCalendar(), LocalDate.now().minusDays(30).atTime(10, 0), Duration.ofMinutes(15), "FREQ=DAILY");
+        givenUsers(owner, user2);
+        when(meetingSeriesRepository.findActiveInCalendars(anyCollection(), any(), any())).thenReturn(List.of(standUp));
+
+        MeetingConflictException exception = assertThrows(MeetingConflictException.class, () ->
+                calendarService.bookMeeting(owner.getId(), tomorrow, Duration.ofMinutes(30), List.of(2L)));
+
+        assertEquals("Meeting conflict detected for users: [2]", exception.getMessage());
+        verify(meetingSeriesRepository, times(1)).findActiveInCalendars(anyCollection(), any(), any());
+        verify(meetingRepository, never()).save(any());
+    }
+
+    @Test
+    void testBookMeetings_ConflictsWithParticipantsOwnSeries() {
+        calendar.setId(10L);
+        LocalDateTime tomorrow = LocalDate.now().plusDays(1).atTime(10, 5);
+        MeetingSeries standUp = series(user2.getCalendar(), LocalDate.now().minusDays(30).atTime(10, 0), Duration.ofMinutes(15), "FREQ=DAILY");
+        givenUsers(owner, user2);
+        when(meetingSeriesRepository.findActiveInCalendars(anyCollection(), any(), any())).thenReturn(List.of(standUp));
+        when(meetingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<BookingResultDTO> results = calendarService.bookMeetings(List.of(
+                request(1L, tomorrow, List.of(2L)),
+                request(1L, tomorrow, List.of())));
+
+        assertEquals(List.of(BookingStatus.CONFLICT, BookingStatus.BOOKED),
+                results.stream().map(BookingResultDTO::getStatus).collect(Collectors.toList()));
+        verify(meetingSeriesRepository, times(1)).findActiveInCalendars(anyCollection(), any(), any());
+    }
+
+    @Test
+    void testBookSeries_ConflictsWithParticipantsMeetings() {
+        calendar.setId(10L);
+        LocalDateTime startTime = LocalDate.now().plusDays(1).atTime(9, 30);
+        givenUsers(owner, user2);
+        when(meetingRepository.findBusyMeetingsOfUsers(anyCollection(), any(), any()))
+                .thenReturn(List.of(busyRow(2L, 50L, startTime.plusDays(14), startTime.plusDays(14).plusHours(1))));
+
+        MeetingConflictException exception = assertThrows(MeetingConflictException.class, () ->
+                calendarService.bookSeries(owner.getId(), startTime, Duration.ofMinutes(15), "FREQ=WEEKLY", List.of(2L)));
+
+        assertEquals("Meeting series conflicts with an existing meeting at " + startTime.plusDays(14), exception.getMessage());
+        verify(calendarRepository, times(1)).lockForWrite(List.of(10L, 102L));
+        verify(meetingSeriesRepository, never()).save(any());
+    }
+
+    @Test
+    void testBookMeeting_ConflictsWithSeriesParticipantIsInvitedTo() {
+        calendar.setId(10L);
+        LocalDateTime tomorrow = LocalDate.now().plusDays(1).atTime(10, 5);
+        Calendar elsewhere = new Calendar();
+        elsewhere.setId(30L);
+        MeetingSeries standUp = series(elsewhere, LocalDate.now().minusDays(30).atTime(10, 0), Duration.ofMinutes(15), "FREQ=DAILY");
+        standUp.getParticipants().add(user2);
+        givenUsers(owner, user2);
+        when(meetingSeriesRepository.findActiveOfParticipants(anyCollection(), any(), any())).thenReturn(List.of(standUp));
+
+        MeetingConflictException exception = assertThrows(MeetingConflictException.class, () ->
+                calendarService.bookMeeting(owner.getId(), tomorrow, Duration.ofMinutes(30), List.of(2L)));
+
+        assertEquals("Meeting conflict detected for users: [2]", exception.getMessage());
+        verify(meetingSeriesRepository, times(1)).findActiveOfParticipants(List.of(1L, 2L), tomorrow, tomorrow.plusMinutes(30));
+    }
+
+    @Test
+    void testFindConflicts_ReportsSeriesParticipantIsInvitedTo() {
+        LocalDateTime tomorrow = LocalDate.now().plusDays(1).atTime(10, 5);
+        MeetingSeries standUp = series(calendar, LocalDate.now().minusDays(30).atTime(10, 0), Duration.ofMinutes(15), "FREQ=DAILY");
+        standUp.setId(7L);
+        standUp.getParticipants().add(user2);
+        when(userRepository.findSummaries(anyCollection())).thenReturn(List.of(summary(1L, "sachin", 101L), summary(2L, "virat", 102L)));
+        when(meetingSeriesRepository.findActiveOfParticipants(anyCollection(), any(), any())).thenReturn(List.of(standUp));
+
+        List<ConflictDTO> conflicts = calendarService.findConflicts(List.of(1L, 2L), tomorrow, Duration.ofMinutes(30));
+
+        assertEquals(1, conflicts.size());
+        assertEquals(2L, conflicts.get(0).getUserId());
+        assertEquals(List.of(7L), conflicts.get(0).getConflictingSeriesIds());
+    }
+
+    @Test
+    void testGetFreeSlots_ExcludesSeriesOccurrencesOfTheDay() {
+        Calendar other = new Calendar();
+        MeetingSeries standUp = series(calendar, LocalDate.now().minusYears(2).atTime(10, 0), Duration.ofMinutes(30), "FREQ=DAILY");
+        calendar.getSeries().add(standUp);
+
+        List<LocalDateTime[]> freeSlots = calendarService.getFreeSlots(calendar, other, Duration.ofMinutes(30));
+
+        LocalDate today = LocalDate.now();
+        assertEquals(2, freeSlots.size());
+        assertArrayEquals(new LocalDateTime[]{today.atTime(9, 0), today.atTime(10, 0)}, freeSlots.get(0));
+        assertArrayEquals(new LocalDateTime[]{today.atTime(10, 30), today.atTime(17, 0)}, freeSlots.get(1));
+    }
+
+    @Test
+    void testFindSlots_EarliestKeepsBufferAndStopsInFirstWeek() {
+        LocalDate day = LocalDate.now().plusDays(7);
+        Meeting meeting = new Meeting();
+        meeting.setStartTime(day.atTime(10, 0));
+        meeting.setEndTime(day.atTime(10, 30));
+        when(meetingRepository.findBusyMeetingsOfUsers(eq(List.of(2L)), any(), any()))
+                .thenReturn(List.of(busyRow(2L, 50L, meeting.getStartTime(), meeting.getEndTime())));
+        givenUsers(user1, user2);
+
+        SlotSearchOptions options = new SlotSearchOptions(2, day.atTime(9, 5), null, null, Duration.ofMinutes(10));
+        List<LocalDateTime[]> slots = calendarService.findSlots(List.of(1L, 2L), day, day.plusDays(60),
+                ZoneId.systemDefault(), Duration.ofMinutes(30), options);
+
+        assertEquals(2, slots.size());
+        assertArrayEquals(new LocalDateTime[]{day.atTime(9, 15), day.atTime(9, 45)}, slots.get(0));
+        assertArrayEquals(new LocalDateTime[]{day.atTime(10, 45), day.atTime(11, 15)}, slots.get(1));
+
+        ArgumentCaptor<LocalDateTime> loadedUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(meetingRepository, times(2)).findBusyMeetingsOfUsers(any(), any(), loadedUntil.capture());
+        loadedUntil.getAllValues().forEach(end -> assertFalse(end.isAfter(day.plusDays(8).atStartOfDay())));
+    }
+
+    @Test
+    void testFindSlots_RanksByPreferredHoursAndValidatesOptions() {
+        LocalDate day = LocalDate.now().plusDays(7);
+        givenUsers(user1, user2);
+
+        SlotSearchOptions afternoon = new SlotSearchOptions(2, null, LocalTime.of(14, 0), LocalTime.of(15, 0), null);
+        List<LocalDateTime[]> slots = calendarService.findSlots(List.of(1L, 2L), day, day, ZoneId.systemDefault(),
+                Duration.ofHours(1), afternoon);
+
+        assertArrayEquals(new LocalDateTime[]{day.atTime(14, 0), day.atTime(15, 0)}, slots.get(0));
+        assertArrayEquals(new LocalDateTime[]{day.atTime(13, 45), day.atTime(14, 45)}, slots.get(1));
+        assertThrows(IllegalArgumentException.class, () -> calendarService.findSlots(List.of(1L), day, day,
+                ZoneId.systemDefault(), Duration.ofHours(1), new SlotSearchOptions(0, null, null, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> calendarService.findSlots(List.of(1L), day, day,
+                ZoneId.systemDefault(), Duration.ofHours(1), new SlotSearchOptions(1, null, LocalTime.of(14, 0), null, null)));
+    }
+
+    @Test
+    void testFindRoomSlots_PicksSmallestFreeRoomFromCapacityQuery() {
+        LocalDate day = LocalDate.now().plusDays(7);
+        Resource small = room(7L, "Lords", 4, 201L);
+        Resource large = room(8L, "Eden Gardens", 12, 202L);
+        givenUsers(user1, user2);
+        when(resourceRepository.findWithCapacity(ResourceKind.ROOM, 4)).thenReturn(List.of(small, large));
+        when(calendarRepository.findMeetingTimes(anyList())).thenReturn(List.of(
+                meetingTimes(201L, 0L, 99L, day.atTime(9, 0), day.atTime(10, 0))));
+
+        List<RoomSlotDTO> slots = calendarService.findRoomSlots(List.of(1L, 2L), 4, day, day.plusDays(1),
+                ZoneId.systemDefault(), Duration.ofHours(1), 2);
+
+        assertEquals(2, slots.size());
+        assertEquals(day.atTime(9, 0), slots.get(0).getStart());
+        assertEquals(8L, slots.get(0).getResourceId());
+        assertEquals(day.atTime(9, 15), slots.get(1).getStart());
+        assertEquals(8L, slots.get(1).getResourceId());
+        assertThrows(IllegalArgumentException.class, () -> calendarService.findRoomSlots(List.of(1L), 0, day, day,
+                ZoneId.systemDefault(), Duration.ofHours(1), 2));
+    }
+
+    @Test
+    void testSharded_LoadsUsersFromTheirShardsAndRefusesCrossShardBooking() {
+        ShardRouter router = new ShardRouter(2);
+        ReflectionTestUtils.setField(calendarService, "shardRouter", router);
+        LocalDate day = LocalDate.now().plusDays(7);
+        Calendar remoteCalendar = new Calendar();
+        remoteCalendar.setId(ShardRouter.firstId(1));
+        User remote = new User();
+        remote.setId(ShardRouter.firstId(1));
+        remote.setCalendar(remoteCalendar);
+
+        // each shard only answers for its own rows
+        when(userRepository.findByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return List.of(user1, remote).stream()
+                    .filter(user -> ids.contains(user.getId()) && router.shardOf(user.getId()) == ShardRouter.currentShard())
+                    .collect(Collectors.toList());
+        });
+        when(meetingRepository.findBusyMeetingsOfUsers(eq(List.of(remote.getId())), any(), any())).thenAnswer(invocation ->
+                ShardRouter.currentShard() == 1 ? List.of(busyRow(remote.getId(), 50L, day.atTime(9, 0), day.atTime(12, 0))) : List.of());
+
+        List<LocalDateTime[]> freeSlots = calendarService.getFreeSlots(List.of(1L, remote.getId()), day, day,
+                ZoneId.systemDefault(), Duration.ofMinutes(30));
+
+        assertEquals(1, freeSlots.size());
+        assertArrayEquals(new LocalDateTime[]{day.atTime(12, 0), day.atTime(17, 0)}, freeSlots.get(0));
+        assertThrows(IllegalArgumentException.class, () ->
+                calendarService.bookMeeting(1L, day.atTime(13, 0), Duration.ofMinutes(30), List.of(remote.getId())));
+        verify(meetingRepository, never()).save(any(Meeting.class));
+    }
+
+    private static Resource room(Long id, String name, int capacity, Long calendarId) {
+        Calendar calendar = new Calendar();
+        calendar.setId(calendarId);
+        calendar.setMeetings(new PersistentBag<>());
+        Resource resource = new Resource();
+        resource.setId(id);
+        resource.setName(name);
+        resource.setKind(ResourceKind.ROOM);
+        resource.setCapacity(capacity);
+        resource.setCalendar(calendar);
+        return resource;
+    }
+
+    private static MeetingSeries series(Calendar calendar, LocalDateTime startTime, Duration duration, String rule) {
+        MeetingSeries series = new MeetingSeries();
+        series.setCalendar(calendar);
+        series.setStartTime(startTime);
+        series.setEndTime(startTime.plus(duration));
+        series.setRecurrenceRule(rule);
+        return series;
+    }
+
+    private static MeetingRequestDTO request(Long ownerId, LocalDateTime startTime, List<Long> participantIds) {
+        MeetingRequestDTO request = new MeetingRequestDTO();
+        request.setOwnerId(ownerId);
+        request.setStartTime(startTime);
+        request.setDuration(Duration.ofMinutes(30));
+        request.setParticipantIds(participantIds);
+        return request;
+    }
 }
@@ -0,0 +1,77 @@
+package com.meetme.service;
+
+import com.meetme.entities.Calendar;
+import com.meetme.entities.Meeting;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalendarSnapshotTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 11, 6, 9, 0);
+
+    private static Meeting meeting(long id, int startMinute, int endMinute) {
+        Meeting meeting = new Meeting();
+        meeting.setId(id);
+        meeting.setStartTime(BASE.plusMinutes(startMinute));
+        meeting.setEndTime(BASE.plusMinutes(endMinute));
+        return meeting;
+    }
+
+    private static List<Long> ids(List<Meeting> meetings) {
+        return meetings.stream().map(Meeting::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void testHasOverlap_HalfOpenBoundariesAndLongMeetings() {
+        CalendarSnapshot snapshot = CalendarSnapshot.of(List.of(meeting(2, 60, 90), meeting(1, 0, 300), meeting(3, 120, 150)), 4L);
+
+        assertTrue(snapshot.hasOverlap(BASE.plusMinutes(95), BASE.plusMinutes(100)));
+        assertFalse(snapshot.hasOverlap(BASE.plusMinutes(300), BASE.plusMinutes(400)));
+        assertFalse(snapshot.hasOverlap(BASE.minusMinutes(30), BASE));
+        assertEquals(List.of(1L, 3L), ids(snapshot.overlapping(BASE.plusMinutes(95), BASE.plusMinutes(130), new Calendar())));
+        assertEquals(4L, snapshot.getVersion());
+    }
+
+    @Test
+    void testWithAndWithout_LeaveOriginalUntouched() {
+        CalendarSnapshot snapshot = CalendarSnapshot.of(List.of(meeting(1, 0, 30), meeting(2, 60, 90)), 1L);
+
+        CalendarSnapshot added = snapshot.with(3L, BASE.plusMinutes(30), BASE.plusMinutes(60), 2L);
+        CalendarSnapshot removed = added.without(1L, 3L);
+
+        assertFalse(snapshot.hasOverlap(BASE.plusMinutes(30), BASE.plusMinutes(60)));
+        assertEquals(List.of(1L, 3L, 2L), ids(added.overlapping(BASE, BASE.plusMinutes(90), null)));
+        assertEquals(List.of(3L, 2L), ids(removed.overlapping(BASE, BASE.plusMinutes(90), null)));
+        assertEquals(3L, removed.getVersion());
+    }
+
+    @Test
+    void testOverlapping_MatchesLinearScan() {
+        Random random = new Random(7);
+        List<Meeting> meetings = new ArrayList<>();
+        CalendarSnapshot snapshot = CalendarSnapshot.of(List.of(), null);
+        for (long id = 0; id < 1000; id++) {
+            int start = random.nextInt(10_000);
+            Meeting meeting = meeting(id, start, start + 1 + random.nextInt(300));
+            meetings.add(meeting);
+            snapshot = snapshot.with(id, meeting.getStartTime(), meeting.getEndTime(), null);
+        }
+        for (int query = 0; query < 200; query++) {
+            LocalDateTime from = BASE.plusMinutes(random.nextInt(10_000));
+            LocalDateTime to = from.plusMinutes(1 + random.nextInt(120));
+            List<Long> expected = meetings.stream()
+                    .filter(m -> m.getStartTime().isBefore(to) && m.getEndTime().isAfter(from))
+                    .map(Meeting::getId).sorted().collect(Collectors.toList());
+            List<Long> actual = ids(snapshot.overlapping(from, to, null));
+            assertEquals(expected, actual.stream().sorted().collect(Collectors.toList()));
+            assertEquals(!expected.isEmpty(), snapshot.hasOverlap(from, to));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.meetme.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FanOutExecutorTest {
+
+    @Test
+    void testMap_DisabledRunsInlineOnCallerThread() {
+        FanOutExecutor fanOut = new FanOutExecutor(false, 4, 50);
+        Thread caller = Thread.currentThread();
+
+        List<Boolean> onCaller = fanOut.map(List.of(1, 2, 3), input -> Thread.currentThread() == caller);
+
+        assertFalse(fanOut.isConcurrent());
+        assertEquals(List.of(true, true, true), onCaller);
+    }
+
+    @Test
+    void testMap_EnabledRunsConcurrentlyWithinBoundAndKeepsOrder() throws InterruptedException {
+        FanOutExecutor fanOut = new FanOutExecutor(true, 3, 50);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        try {
+            List<Integer> results = fanOut.map(IntStream.range(0, 12).boxed().collect(Collectors.toList()), input -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                bothStarted.countDown();
+                try {
+                    // a blocking round-trip; only returns early once a second task runs alongside
+                    bothStarted.await(1, TimeUnit.SECONDS);
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return input * 10;
+            });
+
+            assertTrue(fanOut.isConcurrent());
+            assertEquals(IntStream.range(0, 12).map(i -> i * 10).boxed().collect(Collectors.toList()), results);
+            assertTrue(peak.get() >= 2, "tasks should overlap");
+            assertTrue(peak.get() <= 3, "at most 3 tasks in flight, saw " + peak.get());
+        } finally {
+            fanOut.shutdown();
+        }
+    }
+
+    @Test
+    void testMapChunks_SplitsOnlyWhenConcurrentAndRethrowsTaskFailure() {
+        List<Integer> inputs = IntStream.range(0, 5).boxed().collect(Collectors.toList());
+        FanOutExecutor sequential = new FanOutExecutor(false, 4, 2);
+        FanOutExecutor concurrent = new FanOutExecutor(true, 4, 2);
+        try {
+            AtomicInteger sequentialCalls = new AtomicInteger();
+            AtomicInteger concurrentCalls = new AtomicInteger();
+
+            assertEquals(inputs, sequential.mapChunks(inputs, chunk -> {
+                sequentialCalls.incrementAndGet();
+                return chunk;
+            }));
+            assertEquals(inputs, concurrent.mapChunks(inputs, chunk -> {
+                concurrentCalls.incrementAndGet();
+                return chunk;
+            }));
+            assertEquals(1, sequentialCalls.get());
+            assertEquals(3, concurrentCalls.get());
+
+            IllegalArgumentException failure = assertThrows(IllegalArgumentException.class, () ->
+                    concurrent.mapChunks(inputs, chunk -> {
+                        throw new IllegalArgumentException("boom");
+                    }));
+            assertEquals("boom", failure.getMessage());
+        } finally {
+            concurrent.shutdown();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.meetme.service;
+
+import com.meetme.entities.Meeting;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FreeBusyBitmapTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2024, 11, 6, 9, 0);
+    private static final LocalDateTime FIVE = LocalDateTime.of(2024, 11, 6, 17, 0);
+
+    private static Meeting meeting(LocalDateTime start, LocalDateTime end) {
+        Meeting meeting = new Meeting();
+        meeting.setStartTime(start);
+        meeting.setEndTime(end);
+        return meeting;
+    }
+
+    private static List<Iterator<BusyInterval>> timelines(Meeting... meetings) {
+        return List.of(BusyInterval.fromMeetings(List.of(meetings)));
+    }
+
+    private static List<String> collect(FreeBusyBitmap bitmap, Duration duration) {
+        List<String> slots = new ArrayList<>();
+        bitmap.forEachFreeSlot(duration, (start, end) -> slots.add(start + "/" + end));
+        return slots;
+    }
+
+    @Test
+    void testForEachFreeSlot_RoundsBusyTimeOutwards() {
+        FreeBusyBitmap bitmap = FreeBusyBitmap.of(
+                timelines(meeting(NINE.plusMinutes(62), NINE.plusMinutes(118))), NINE, FIVE, 15);
+
+        assertEquals(List.of(NINE + "/" + NINE.plusHours(1), NINE.plusHours(2) + "/" + FIVE),
+                collect(bitmap, Duration.ofMinutes(30)));
+    }
+
+    @Test
+    void testOr_IntersectsAvailability() {
+        FreeBusyBitmap first = FreeBusyBitmap.of(timelines(meeting(NINE, NINE.plusHours(3))), NINE, FIVE, 5);
+        FreeBusyBitmap second = FreeBusyBitmap.of(timelines(meeting(NINE.plusHours(4), FIVE.plusHours(1))), NINE, FIVE, 5);
+
+        first.or(second);
+
+        assertEquals(List.of(NINE.plusHours(3) + "/" + NINE.plusHours(4)), collect(first, Duration.ofMinutes(60)));
+        assertTrue(collect(first, Duration.ofMinutes(61)).isEmpty());
+    }
+
+    @Test
+    void testForEachFreeSlot_MatchesMergeEngineAtMinuteQuanta() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            List<Iterator<BusyInterval>> busyLists = new ArrayList<>();
+            FreeBusyBitmap combined = new FreeBusyBitmap(NINE, FIVE, 1);
+            for (int user = 0; user < 20; user++) {
+                List<Meeting> busy = new ArrayList<>();
+                for (int i = 0; i < 3; i++) {
+                    LocalDateTime start = NINE.minusHours(1).plusSeconds(random.nextInt(10 * 3600));
+                    busy.add(meeting(start, start.plusSeconds(60 + random.nextInt(3600))));
+                }
+                busy.sort(Comparator.comparing(Meeting::getStartTime));
+                busyLists.add(BusyInterval.fromMeetings(busy));
+                combined.or(FreeBusyBitmap.of(List.of(BusyInterval.fromMeetings(busy)), NINE, FIVE, 1));
+            }
+            Duration duration = Duration.ofMinutes(1 + random.nextInt(45));
+
+            List<String> expected = new ArrayList<>();
+            AvailabilityEngine.findFreeSlots(busyLists, NINE, FIVE, duration, (start, end) -> expected.add(start + "/" + end));
+
+            assertEquals(expected, collect(combined, duration));
+        }
+    }
+}
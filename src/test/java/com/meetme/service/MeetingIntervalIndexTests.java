@@ -0,0 +1,79 @@
+package com.meetme.service;
+
+import com.meetme.entities.Meeting;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MeetingIntervalIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 11, 6, 9, 0);
+
+    private static Meeting meeting(long id, int startMinute, int endMinute) {
+        Meeting meeting = new Meeting();
+        meeting.setId(id);
+        meeting.setStartTime(BASE.plusMinutes(startMinute));
+        meeting.setEndTime(BASE.plusMinutes(endMinute));
+        return meeting;
+    }
+
+    @Test
+    void testOverlapping_HalfOpenBoundaries() {
+        MeetingIntervalIndex index = MeetingIntervalIndex.of(List.of(meeting(1, 0, 30), meeting(2, 60, 90)));
+
+        assertTrue(index.overlapping(BASE.plusMinutes(30), BASE.plusMinutes(60)).isEmpty());
+        assertFalse(index.hasOverlap(BASE.plusMinutes(30), BASE.plusMinutes(60)));
+        assertEquals(1, index.overlapping(BASE.plusMinutes(29), BASE.plusMinutes(60)).size());
+        assertEquals(2, index.overlapping(BASE.plusMinutes(29), BASE.plusMinutes(61)).size());
+    }
+
+    @Test
+    void testRemove_DropsMeetingFromQueries() {
+        MeetingIntervalIndex index = MeetingIntervalIndex.of(List.of(meeting(1, 0, 30), meeting(2, 0, 30)));
+
+        assertTrue(index.remove(1L));
+        assertFalse(index.remove(1L));
+
+        List<Meeting> remaining = index.overlapping(BASE, BASE.plusMinutes(30));
+        assertEquals(1, remaining.size());
+        assertEquals(2L, remaining.get(0).getId());
+    }
+
+    @Test
+    void testOverlapping_MatchesLinearScan() {
+        Random random = new Random(42);
+        List<Meeting> meetings = new ArrayList<>();
+        MeetingIntervalIndex index = new MeetingIntervalIndex();
+        for (long id = 0; id < 2000; id++) {
+            int start = random.nextInt(10_000);
+            Meeting meeting = meeting(id, start, start + 1 + random.nextInt(300));
+            meetings.add(meeting);
+            index.add(meeting);
+        }
+        for (long id = 0; id < 2000; id += 3) {
+            index.remove(id);
+        }
+        meetings.removeIf(m -> m.getId() % 3 == 0);
+
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime start = BASE.plusMinutes(random.nextInt(10_000));
+            LocalDateTime end = start.plusMinutes(1 + random.nextInt(120));
+
+            List<Long> expected = meetings.stream()
+                    .filter(m -> m.getEndTime().isAfter(start) && m.getStartTime().isBefore(end))
+                    .map(Meeting::getId).sorted().collect(Collectors.toList());
+            List<Long> actual = index.overlapping(start, end).stream()
+                    .map(Meeting::getId).sorted().collect(Collectors.toList());
+
+            assertEquals(expected, actual);
+            assertEquals(!expected.isEmpty(), index.hasOverlap(start, end));
+        }
+        assertEquals(meetings.size(), index.size());
+    }
+}
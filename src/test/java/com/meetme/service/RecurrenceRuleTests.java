@@ -0,0 +1,113 @@
+package com.meetme.service;
+
+import com.meetme.entities.MeetingSeries;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceRuleTest {
+
+    // A Monday.
+    private static final LocalDateTime FIRST = LocalDateTime.of(2024, 1, 1, 9, 30);
+
+    private static List<LocalDateTime> take(Iterator<LocalDateTime> starts, int count) {
+        List<LocalDateTime> taken = new ArrayList<>();
+        for (int i = 0; i < count && starts.hasNext(); i++) {
+            taken.add(starts.next());
+        }
+        return taken;
+    }
+
+    private static MeetingSeries series(String rule) {
+        MeetingSeries series = new MeetingSeries();
+        series.setStartTime(FIRST);
+        series.setEndTime(FIRST.plusMinutes(15));
+        series.setRecurrenceRule(rule);
+        LocalDateTime lastStart = RecurrenceRule.parse(rule).lastStart(FIRST);
+        series.setRecurrenceEnd(lastStart != null ? lastStart.plusMinutes(15) : null);
+        return series;
+    }
+
+    @Test
+    void testStarts_WeekdaysSkipWeekends() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO,TU,WE,TH,FR");
+
+        List<LocalDateTime> starts = take(rule.starts(FIRST, FIRST.plusDays(4)), 3);
+
+        assertEquals(List.of(FIRST.plusDays(4), FIRST.plusDays(7), FIRST.plusDays(8)), starts);
+    }
+
+    @Test
+    void testStarts_SkipsAheadToTheWindowHonouringInterval() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY;INTERVAL=3");
+
+        List<LocalDateTime> starts = take(rule.starts(FIRST, FIRST.plusYears(10)), 2);
+
+        long days = Duration.between(FIRST, starts.get(0)).toDays();
+        assertEquals(0, days % 3);
+        assertFalse(starts.get(0).isBefore(FIRST.plusYears(10)));
+        assertTrue(starts.get(0).isBefore(FIRST.plusYears(10).plusDays(3)));
+        assertEquals(starts.get(0).plusDays(3), starts.get(1));
+    }
+
+    @Test
+    void testParse_RejectsDailyWeeksWithBydayThatCouldNeverMatch() {
+        // this rule used to spin forever looking for a Tuesday among Mondays
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=DAILY;INTERVAL=7;BYDAY=TU"));
+
+        RecurrenceRule sparse = RecurrenceRule.parse("FREQ=DAILY;INTERVAL=2;BYDAY=TU");
+        List<LocalDateTime> starts = assertTimeoutPreemptively(Duration.ofSeconds(1), () -> take(sparse.starts(FIRST, FIRST), 2));
+        assertEquals(List.of(FIRST.plusDays(8), FIRST.plusDays(22)), starts);
+    }
+
+    @Test
+    void testStarts_MonthlySkipsShortMonths() {
+        LocalDateTime first = LocalDateTime.of(2024, 1, 31, 14, 0);
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=MONTHLY");
+
+        List<LocalDateTime> starts = take(rule.starts(first, first), 3);
+
+        assertEquals(List.of(first, LocalDateTime.of(2024, 3, 31, 14, 0), LocalDateTime.of(2024, 5, 31, 14, 0)), starts);
+    }
+
+    @Test
+    void testLastStart_FromCountAndUntil() {
+        assertEquals(FIRST.plusDays(11), RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO,FR;COUNT=4").lastStart(FIRST));
+        assertEquals(LocalDateTime.of(2024, 6, 30, 23, 59, 59, 999_999_999), RecurrenceRule.parse("FREQ=DAILY;UNTIL=20240630").lastStart(FIRST));
+        assertNull(RecurrenceRule.parse("RRULE:FREQ=DAILY").lastStart(FIRST));
+    }
+
+    @Test
+    void testParse_RejectsUnsupportedRules() {
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=HOURLY"));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("INTERVAL=2"));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=DAILY;BYMONTH=3"));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=DAILY;COUNT=3;UNTIL=20240630"));
+        assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=XX"));
+    }
+
+    @Test
+    void testSeriesOccurrences_OnlyInsideTheWindowAndWithoutExceptions() {
+        MeetingSeries standUp = series("FREQ=DAILY;COUNT=260");
+        standUp.getExceptions().add(FIRST.plusDays(101));
+        LocalDateTime windowStart = FIRST.plusDays(100).withHour(9).withMinute(40);
+
+        List<BusyInterval> occurrences = new ArrayList<>();
+        SeriesOccurrences.between(standUp, windowStart, windowStart.plusDays(3)).forEachRemaining(occurrences::add);
+
+        assertEquals(List.of(
+                new BusyInterval(FIRST.plusDays(100), FIRST.plusDays(100).plusMinutes(15)),
+                new BusyInterval(FIRST.plusDays(102), FIRST.plusDays(102).plusMinutes(15)),
+                new BusyInterval(FIRST.plusDays(103), FIRST.plusDays(103).plusMinutes(15))), occurrences);
+        assertFalse(SeriesOccurrences.between(standUp, FIRST.plusDays(260), FIRST.plusDays(300)).hasNext());
+        assertTrue(SeriesOccurrences.isOccurrence(standUp, FIRST.plusDays(259)));
+        assertFalse(SeriesOccurrences.isOccurrence(standUp, FIRST.plusDays(260)));
+        assertFalse(SeriesOccurrences.isOccurrence(standUp, FIRST.plusDays(3).plusHours(1)));
+    }
+}
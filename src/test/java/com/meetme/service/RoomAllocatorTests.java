@@ -0,0 +1,59 @@
+package com.meetme.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomAllocatorTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2024, 11, 6, 9, 0);
+
+    private static long at(int hour, int minute) {
+        return EpochSeconds.of(NINE.withHour(hour).withMinute(minute));
+    }
+
+    private static BusyTimeline[] busy(long... times) {
+        List<BusyInterval> intervals = new ArrayList<>();
+        for (int i = 0; i < times.length; i += 2) {
+            intervals.add(new BusyInterval(EpochSeconds.toDateTime(times[i]), EpochSeconds.toDateTime(times[i + 1])));
+        }
+        return new BusyTimeline[]{BusyTimeline.of(intervals.iterator())};
+    }
+
+    private static List<String> allocated(RoomAllocator allocator) {
+        List<String> slots = new ArrayList<>();
+        allocator.forEachAllocated((start, end, room) -> slots.add(EpochSeconds.toDateTime(start).toLocalTime() + "-"
+                + EpochSeconds.toDateTime(end).toLocalTime() + "@" + room));
+        return slots;
+    }
+
+    @Test
+    void testAllocate_PrefersFirstFreeRoomAndStopsAtLimit() {
+        RoomAllocator allocator = new RoomAllocator(60 * 60, 3, new BusyTimeline[][]{
+                busy(at(9, 0), at(9, 30)),
+                busy(at(9, 15), at(10, 0))});
+
+        allocator.accept(at(9, 0), at(12, 0));
+        allocator.finish();
+
+        assertTrue(allocator.isDone());
+        assertEquals(List.of("09:30-10:30@0", "09:45-10:45@0", "10:00-11:00@0"), allocated(allocator));
+    }
+
+    @Test
+    void testAllocate_JumpsToEarliestFreeRoomAcrossJoinedGaps() {
+        RoomAllocator allocator = new RoomAllocator(60 * 60, 2, new BusyTimeline[][]{
+                busy(at(9, 0), at(10, 0), at(10, 30), at(11, 40)),
+                busy(at(8, 0), at(11, 5))});
+
+        allocator.accept(at(9, 0), at(10, 0));
+        allocator.accept(at(10, 0), at(13, 0));
+        allocator.finish();
+
+        assertEquals(List.of("11:15-12:15@1", "11:30-12:30@1"), allocated(allocator));
+    }
+}
@@ -0,0 +1,45 @@
+package com.meetme.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRouterTest {
+
+    private static final long SHARD_1 = ShardRouter.firstId(1);
+    private static final long SHARD_2 = ShardRouter.firstId(2);
+
+    @Test
+    void testShardOf_MapsIdRangesAndPartitionsInOrder() {
+        ShardRouter router = new ShardRouter(3);
+
+        assertEquals(0, router.shardOf(1L));
+        assertEquals(0, router.shardOf(SHARD_1 - 1));
+        assertEquals(1, router.shardOf(SHARD_1));
+        assertEquals(2, router.shardOf(ShardRouter.firstId(7)));
+        assertEquals(0, router.shardOf(null));
+        assertEquals(Map.of(0, List.of(3L, 1L), 2, List.of(SHARD_2 + 5, SHARD_2)),
+                router.partition(List.of(3L, SHARD_2 + 5, 1L, SHARD_2)));
+        assertEquals(1, router.commonShard(List.of(SHARD_1, SHARD_1 + 1)));
+        assertThrows(IllegalArgumentException.class, () -> router.commonShard(List.of(1L, SHARD_1)));
+        assertEquals(0, new ShardRouter(1).shardOf(SHARD_2));
+    }
+
+    @Test
+    void testOnShard_SetsCurrentShardForTheTaskOnly() {
+        ShardRouter router = new ShardRouter(3);
+
+        assertNull(ShardRouter.currentShard());
+        List<Integer> seen = router.onShard(1, () -> List.of(ShardRouter.currentShard(),
+                router.onShard(2, ShardRouter::currentShard), ShardRouter.currentShard(), router.commonShard(List.of())));
+        assertEquals(List.of(1, 2, 1, 1), seen);
+        assertNull(ShardRouter.currentShard());
+
+        assertEquals(List.of(0, 1, 2), router.onEveryShard(() -> List.of(ShardRouter.currentShard())));
+        assertEquals(Optional.of("row"), router.findOnAnyShard(() -> ShardRouter.currentShard() == 2 ? Optional.of("row") : Optional.empty()));
+    }
+}
@@ -0,0 +1,54 @@
+package com.meetme.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotRankerTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2024, 11, 6, 9, 0);
+
+    private static long at(int hour, int minute) {
+        return EpochSeconds.of(NINE.withHour(hour).withMinute(minute));
+    }
+
+    private static List<String> ranked(SlotRanker ranker) {
+        List<String> slots = new ArrayList<>();
+        ranker.forEachRanked((start, end) -> slots.add(EpochSeconds.toDateTime(start).toLocalTime() + "-"
+                + EpochSeconds.toDateTime(end).toLocalTime()));
+        return slots;
+    }
+
+    @Test
+    void testEarliest_StopsAtLimitAndAlignsToQuarterHours() {
+        SlotRanker ranker = new SlotRanker(30 * 60, 3, null);
+
+        ranker.accept(at(9, 5), at(9, 40));
+        ranker.accept(at(10, 0), at(11, 0));
+        assertFalse(ranker.isDone());
+        ranker.accept(at(12, 0), at(17, 0));
+        assertTrue(ranker.isDone());
+        ranker.finish();
+
+        assertEquals(List.of("10:00-10:30", "10:15-10:45", "10:30-11:00"), ranked(ranker));
+    }
+
+    @Test
+    void testPreferredHours_KeepsBestScoresAndJoinsTouchingGaps() {
+        long[] preferred = {at(14, 0), at(15, 0)};
+        SlotRanker ranker = new SlotRanker(60 * 60, 2, preferred);
+
+        ranker.accept(at(9, 0), at(12, 0));
+        ranker.accept(at(13, 30), at(14, 30));
+        ranker.accept(at(14, 30), at(17, 0));
+        ranker.finish();
+
+        // only one slot lies wholly in the preferred hour, so a later one could still outscore 13:45
+        assertFalse(ranker.isDone());
+        assertEquals(List.of("14:00-15:00", "13:45-14:45"), ranked(ranker));
+    }
+}